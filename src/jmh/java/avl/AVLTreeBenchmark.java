@@ -0,0 +1,265 @@
+package avl;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * AVLTreeBenchmark
+ *
+ * Steady-state throughput of the AVLTree operations on a tree of a given size.
+ * The tree holds the even keys 0, 2, ..., 2(size-1), so odd keys are always free for insertion.
+ * Run with the GC profiler to get allocation rates as well:
+ *   java -jar target/benchmarks.jar AVLTreeBenchmark -prof gc
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AVLTreeBenchmark {
+	static final int QUERIES = 1 << 16; // Length of the (cyclic) query stream, a power of 2
+	static final long SEED = 42;
+	static final String VALUE = "info"; // Shared by all nodes so that values don't dominate the heap
+	static final int BATCH = 1 << 14; // Keys per insertAll()/deleteAll()
+
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+	KeyDistribution distribution;
+
+	AVLTree tree;
+	AVLTree.Cursor cursor;
+	int[] queries;
+	int next;
+	String[] batchValues;
+
+	/*
+	 * Builds a tree with the even keys in the order given by the distribution.
+	 */
+	static AVLTree build(int size, KeyDistribution distribution) {
+		AVLTree tree = new AVLTree();
+		for (int k : distribution.insertOrder(size, SEED)) {
+			tree.insert(2 * k, VALUE);
+		}
+		return tree;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = build(this.size, this.distribution);
+		this.cursor = this.tree.cursor();
+		this.queries = this.distribution.queries(this.size, QUERIES, SEED);
+		this.batchValues = new String[BATCH];
+		Arrays.fill(this.batchValues, VALUE);
+	}
+
+	/*
+	 * Returns the next BATCH keys of the query stream plus one (keys absent from the tree), unsorted.
+	 */
+	int[] nextBatch() {
+		int[] batch = new int[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			batch[i] = this.nextKey() + 1;
+		}
+		return batch;
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		return this.tree.search(this.nextKey());
+	}
+
+	@Benchmark
+	public String searchMiss() {
+		return this.tree.search(this.nextKey() + 1);
+	}
+
+	/*
+	 * search() through a cursor, which starts from the previous key of the stream
+	 * (a win for clustered streams such as SEQUENTIAL).
+	 */
+	@Benchmark
+	public String cursorSearch() {
+		return this.cursor.search(this.nextKey());
+	}
+
+	/*
+	 * insertDelete() through a cursor.
+	 */
+	@Benchmark
+	public int cursorInsertDelete() {
+		int k = this.nextKey() + 1;
+		return this.cursor.insert(k, VALUE) + this.cursor.delete(k);
+	}
+
+	/*
+	 * Inserts an absent key next to a key of the stream and deletes it again,
+	 * so that the tree keeps its size. Exercises insertRebalance() and deleteRebalance().
+	 */
+	@Benchmark
+	public int insertDelete() {
+		int k = this.nextKey() + 1;
+		return this.tree.insert(k, VALUE) + this.tree.delete(k);
+	}
+
+	/*
+	 * Deletes a key of the stream and inserts it again.
+	 */
+	@Benchmark
+	public int deleteInsert() {
+		int k = this.nextKey();
+		return this.tree.delete(k) + this.tree.insert(k, VALUE);
+	}
+
+	/*
+	 * Inserts a batch of BATCH absent keys next to keys of the stream with insertAll()
+	 * and removes them again with deleteAll(). Compare with insertDeleteLoop().
+	 */
+	@Benchmark
+	public int insertDeleteBatch() {
+		int[] batch = this.nextBatch();
+		return this.tree.insertAll(batch, this.batchValues) + this.tree.deleteAll(batch);
+	}
+
+	/*
+	 * Same as insertDeleteBatch(), key by key.
+	 */
+	@Benchmark
+	public int insertDeleteLoop() {
+		int[] batch = this.nextBatch();
+		int count = 0;
+		for (int k : batch) {
+			count += this.tree.insert(k, VALUE);
+		}
+		for (int k : batch) {
+			count += this.tree.delete(k);
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int[] keysToArray() {
+		return this.tree.keysToArray();
+	}
+
+	@Benchmark
+	public String[] infoToArray() {
+		return this.tree.infoToArray();
+	}
+
+	@Benchmark
+	public int[] parallelKeysToArray() {
+		return this.tree.parallelKeysToArray();
+	}
+
+	@Benchmark
+	public String[] parallelInfoToArray() {
+		return this.tree.parallelInfoToArray();
+	}
+
+	/*
+	 * State for split() and join(). Every invocation splits the tree on a key of the
+	 * stream and the two halves are joined back together (around the same key)
+	 * outside of the measured region.
+	 */
+	@State(Scope.Thread)
+	public static class SplitJoinState {
+		AVLTree tree;
+		AVLTree[] halves;
+		int[] queries;
+		int next;
+		int key;
+
+		@Setup(Level.Trial)
+		public void setup(AVLTreeBenchmark bench) {
+			this.tree = build(bench.size, bench.distribution);
+			this.queries = bench.distribution.queries(bench.size, QUERIES, SEED);
+		}
+
+		/*
+		 * Moves on to the next key of the stream.
+		 */
+		void nextKey() {
+			this.key = 2 * this.queries[this.next];
+			this.next = (this.next + 1) & (QUERIES - 1);
+		}
+
+		/*
+		 * Splits the tree on the current key (used before measuring join()).
+		 */
+		void split() {
+			this.halves = this.tree.split(this.key);
+		}
+
+		/*
+		 * Joins the two halves around the current key and makes the result the tree.
+		 */
+		void join() {
+			AVLTree smallers = this.halves[0], biggers = this.halves[1];
+			AVLTree.IAVLNode x = this.tree.new AVLNode(this.key, VALUE, this.tree.VIRTUAL_NODE, this.tree.VIRTUAL_NODE, null);
+			smallers.join(x, biggers);
+			this.tree = (smallers.size() > biggers.size()) ? smallers : biggers; // join() keeps the result in the higher tree
+			this.halves = null;
+		}
+	}
+
+	public static class SplitState extends SplitJoinState {
+		@Setup(Level.Invocation)
+		public void prepare() {
+			this.nextKey();
+		}
+
+		@TearDown(Level.Invocation)
+		public void rejoin() {
+			this.join();
+		}
+	}
+
+	public static class JoinState extends SplitJoinState {
+		@Setup(Level.Invocation)
+		public void prepare() {
+			this.nextKey();
+			this.split();
+		}
+	}
+
+	@Benchmark
+	public AVLTree[] split(SplitState state) {
+		state.split();
+		return state.halves;
+	}
+
+	@Benchmark
+	public AVLTree join(JoinState state) {
+		state.join();
+		return state.tree;
+	}
+}
@@ -0,0 +1,152 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * AVLTreeBuildBenchmark
+ *
+ * Time to fill an empty tree with size keys through insert(), and to drain a full
+ * tree through delete(), in the order given by the distribution.
+ * Divide the score by size to get the cost of a single insert()/delete().
+ * Also compares merging two shards with union() against a dump-and-rebuild.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AVLTreeBuildBenchmark {
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+	KeyDistribution distribution;
+
+	int[] keys;
+	int[] sortedKeys;
+	String[] sortedValues;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.keys = this.distribution.insertOrder(this.size, AVLTreeBenchmark.SEED);
+		this.sortedKeys = new int[this.size];
+		this.sortedValues = new String[this.size];
+		for (int i = 0; i < this.size; i++) {
+			this.sortedKeys[i] = 2 * i;
+			this.sortedValues[i] = AVLTreeBenchmark.VALUE;
+		}
+	}
+
+	/*
+	 * A full tree, rebuilt before every invocation of delete().
+	 */
+	@State(Scope.Thread)
+	public static class FullTree {
+		AVLTree tree;
+
+		@Setup(Level.Invocation)
+		public void fill(AVLTreeBuildBenchmark bench) {
+			this.tree = AVLTreeBenchmark.build(bench.size, bench.distribution);
+		}
+	}
+
+	/*
+	 * Two shards of size/2 keys each (the tree keys split into even and odd positions),
+	 * rebuilt before every invocation of union()/mergeRebuild().
+	 */
+	@State(Scope.Thread)
+	public static class Shards {
+		AVLTree a, b;
+
+		@Setup(Level.Invocation)
+		public void fill(AVLTreeBuildBenchmark bench) {
+			int n = bench.size / 2;
+			int[] evens = new int[n], odds = new int[n];
+			String[] values = new String[n];
+			for (int i = 0; i < n; i++) {
+				evens[i] = 4 * i;
+				odds[i] = 4 * i + 2;
+				values[i] = AVLTreeBenchmark.VALUE;
+			}
+			this.a = new AVLTree(evens, values);
+			this.b = new AVLTree(odds, values);
+		}
+	}
+
+	@Benchmark
+	public AVLTree insert() {
+		AVLTree tree = new AVLTree();
+		for (int k : this.keys) {
+			tree.insert(2 * k, AVLTreeBenchmark.VALUE);
+		}
+		return tree;
+	}
+
+	/*
+	 * Builds the same tree as insert() from the sorted keys, in linear time
+	 * (the distribution doesn't matter here).
+	 */
+	@Benchmark
+	public AVLTree bulkLoad() {
+		return new AVLTree(this.sortedKeys, this.sortedValues);
+	}
+
+	/*
+	 * Merges two interleaved shards with the join-based union().
+	 */
+	@Benchmark
+	public AVLTree union(Shards shards) {
+		shards.a.union(shards.b);
+		return shards.a;
+	}
+
+	/*
+	 * Merges two interleaved shards by dumping both to arrays, merging and bulk-loading,
+	 * the baseline for union().
+	 */
+	@Benchmark
+	public AVLTree mergeRebuild(Shards shards) {
+		int[] ka = shards.a.keysToArray(), kb = shards.b.keysToArray();
+		String[] va = shards.a.infoToArray(), vb = shards.b.infoToArray();
+		int[] keys = new int[ka.length + kb.length];
+		String[] values = new String[keys.length];
+		int i = 0, j = 0;
+		for (int n = 0; n < keys.length; n++) {
+			if (j == kb.length || (i < ka.length && ka[i] < kb[j])) {
+				keys[n] = ka[i];
+				values[n] = va[i++];
+			}
+			else {
+				keys[n] = kb[j];
+				values[n] = vb[j++];
+			}
+		}
+		return new AVLTree(keys, values);
+	}
+
+	@Benchmark
+	public AVLTree delete(FullTree full) {
+		AVLTree tree = full.tree;
+		for (int k : this.keys) {
+			tree.delete(2 * k);
+		}
+		return tree;
+	}
+}
@@ -0,0 +1,115 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * BPlusTreeBenchmark
+ *
+ * Lookup latency (ns per operation) of BPlusTree against AVLTree on the same keys and query stream,
+ * plus the update and split/join costs that pay for it.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BPlusTreeBenchmark {
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+	KeyDistribution distribution;
+
+	@Param({"AVL", "BPLUS"})
+	String engine;
+
+	AVLTree avl;
+	BPlusTree bplus;
+	int[] queries;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		if (this.engine.equals("AVL")) {
+			this.avl = AVLTreeBenchmark.build(this.size, this.distribution);
+		}
+		else {
+			this.bplus = new BPlusTree();
+			for (int k : this.distribution.insertOrder(this.size, AVLTreeBenchmark.SEED)) {
+				this.bplus.insert(2 * k, AVLTreeBenchmark.VALUE);
+			}
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		int k = this.nextKey();
+		return (this.avl != null) ? this.avl.search(k) : this.bplus.search(k);
+	}
+
+	@Benchmark
+	public String searchMiss() {
+		int k = this.nextKey() + 1;
+		return (this.avl != null) ? this.avl.search(k) : this.bplus.search(k);
+	}
+
+	@Benchmark
+	public int insertDelete() {
+		int k = this.nextKey() + 1;
+		if (this.avl != null) {
+			return this.avl.insert(k, AVLTreeBenchmark.VALUE) + this.avl.delete(k);
+		}
+		return this.bplus.insert(k, AVLTreeBenchmark.VALUE) + this.bplus.delete(k);
+	}
+
+	/*
+	 * Splits the tree at a key of the query stream and joins it back.
+	 */
+	@Benchmark
+	public int splitJoin() {
+		int k = this.nextKey();
+		if (this.avl != null) {
+			AVLTree.IAVLNode x = this.avl.new AVLNode(k, AVLTreeBenchmark.VALUE, this.avl.VIRTUAL_NODE, this.avl.VIRTUAL_NODE, null);
+			AVLTree[] parts = this.avl.split(k);
+			int cost = parts[0].join(x, parts[1]);
+			this.avl = (parts[0].size() > parts[1].size()) ? parts[0] : parts[1]; // join() keeps the result in the higher tree
+			return cost;
+		}
+		BPlusTree[] parts = this.bplus.split(k);
+		int cost = parts[0].join(k, AVLTreeBenchmark.VALUE, parts[1]); // BPlusTree.join() keeps the result in parts[0]
+		this.bplus = parts[0];
+		return cost;
+	}
+
+	@Benchmark
+	public int[] keysToArray() {
+		return (this.avl != null) ? this.avl.keysToArray() : this.bplus.keysToArray();
+	}
+}
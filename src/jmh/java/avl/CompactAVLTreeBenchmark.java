@@ -0,0 +1,89 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * CompactAVLTreeBenchmark
+ *
+ * The AVLTreeBenchmark workloads on a CompactAVLTree, for comparison with the
+ * object-per-node AVLTree (run both with -prof gc), with its nodes either in heap arrays
+ * or in direct memory (OffHeapAVLTree).
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CompactAVLTreeBenchmark {
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+	KeyDistribution distribution;
+
+	@Param({"HEAP", "OFF_HEAP"})
+	String storage;
+
+	CompactAVLTree tree;
+	int[] queries;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = this.storage.equals("OFF_HEAP") ? new OffHeapAVLTree() : new CompactAVLTree(this.size);
+		for (int k : this.distribution.insertOrder(this.size, AVLTreeBenchmark.SEED)) {
+			this.tree.insert(2 * k, AVLTreeBenchmark.VALUE);
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.tree instanceof OffHeapAVLTree) {
+			((OffHeapAVLTree) this.tree).close();
+		}
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		return this.tree.search(this.nextKey());
+	}
+
+	@Benchmark
+	public int insertDelete() {
+		int k = this.nextKey() + 1;
+		return this.tree.insert(k, AVLTreeBenchmark.VALUE) + this.tree.delete(k);
+	}
+
+	@Benchmark
+	public int[] keysToArray() {
+		return this.tree.keysToArray();
+	}
+}
@@ -0,0 +1,89 @@
+package avl;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * ConcurrentAVLTreeBenchmark
+ *
+ * Throughput of a mixed workload on a tree shared by all benchmark threads: ConcurrentAVLTree
+ * against an AVLTree guarded by a global lock. Each operation is a search() of a uniformly
+ * random key of the tree with probability readPercent, and otherwise an insert() and a delete()
+ * of an absent key. Change the number of threads with -t, e.g.
+ *   java -jar target/benchmarks.jar ConcurrentAVLTreeBenchmark -t 8
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class ConcurrentAVLTreeBenchmark {
+	@Param({"100000", "1000000"})
+	int size;
+
+	@Param({"100", "95", "50"})
+	int readPercent;
+
+	ConcurrentAVLTree concurrent;
+	AVLTree locked;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.concurrent = new ConcurrentAVLTree(AVLTreeBenchmark.build(this.size, KeyDistribution.RANDOM));
+		this.locked = AVLTreeBenchmark.build(this.size, KeyDistribution.RANDOM);
+	}
+
+	/*
+	 * The random stream of a benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Ops {
+		SplittableRandom random;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.random = new SplittableRandom(AVLTreeBenchmark.SEED + Thread.currentThread().getId());
+		}
+	}
+
+	@Benchmark
+	public Object concurrent(Ops ops) {
+		int k = 2 * ops.random.nextInt(this.size);
+		if (ops.random.nextInt(100) < this.readPercent) {
+			return this.concurrent.search(k);
+		}
+		return this.concurrent.insert(k + 1, AVLTreeBenchmark.VALUE) + this.concurrent.delete(k + 1);
+	}
+
+	@Benchmark
+	public Object synchronizedTree(Ops ops) {
+		int k = 2 * ops.random.nextInt(this.size);
+		if (ops.random.nextInt(100) < this.readPercent) {
+			synchronized (this.locked) {
+				return this.locked.search(k);
+			}
+		}
+		synchronized (this.locked) {
+			return this.locked.insert(k + 1, AVLTreeBenchmark.VALUE) + this.locked.delete(k + 1);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package avl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * DurableAVLTreeBenchmark
+ *
+ * Update throughput of a DurableAVLTree under each SyncPolicy, against the plain AVLTree:
+ * every operation is an insert() and a delete() of an absent key, i.e. two logged records.
+ * The log lives in a temporary directory (set java.io.tmpdir to measure a given disk),
+ * and is emptied by a checkpoint after every iteration.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DurableAVLTreeBenchmark {
+	@Param({"100000"})
+	int size;
+
+	@Param({"EVERY_OPERATION", "OPS_64", "OPS_1024", "MILLIS_10", "NEVER"})
+	String policy;
+
+	Path directory;
+	DurableAVLTree durable;
+	AVLTree plain;
+	SplittableRandom random;
+
+	/*
+	 * Returns the policy named name: OPS_n forces every n operations, MILLIS_t every t milliseconds.
+	 */
+	static DurableAVLTree.SyncPolicy policy(String name) {
+		if (name.startsWith("OPS_")) {
+			return DurableAVLTree.SyncPolicy.everyOperations(Integer.parseInt(name.substring(4)));
+		}
+		if (name.startsWith("MILLIS_")) {
+			return DurableAVLTree.SyncPolicy.everyMillis(Long.parseLong(name.substring(7)));
+		}
+		return name.equals("NEVER") ? DurableAVLTree.SyncPolicy.NEVER : DurableAVLTree.SyncPolicy.EVERY_OPERATION;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.directory = Files.createTempDirectory("durable-avl");
+		this.durable = DurableAVLTree.open(this.directory, policy(this.policy));
+		this.plain = new AVLTree();
+		for (int k : KeyDistribution.RANDOM.insertOrder(this.size, AVLTreeBenchmark.SEED)) {
+			this.durable.insert(2 * k, AVLTreeBenchmark.VALUE);
+			this.plain.insert(2 * k, AVLTreeBenchmark.VALUE);
+		}
+		this.durable.checkpoint();
+		this.random = new SplittableRandom(AVLTreeBenchmark.SEED);
+	}
+
+	@TearDown(Level.Iteration)
+	public void checkpoint() throws IOException {
+		this.durable.checkpoint();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.durable.close();
+		Files.deleteIfExists(this.directory.resolve(DurableAVLTree.LOG_FILE));
+		Files.deleteIfExists(this.directory.resolve(DurableAVLTree.SNAPSHOT_FILE));
+		Files.deleteIfExists(this.directory);
+	}
+
+	@Benchmark
+	public int insertDeleteDurable() throws IOException {
+		int k = 2 * this.random.nextInt(this.size) + 1;
+		return this.durable.insert(k, AVLTreeBenchmark.VALUE) + this.durable.delete(k);
+	}
+
+	@Benchmark
+	public int insertDeletePlain() {
+		int k = 2 * this.random.nextInt(this.size) + 1;
+		return this.plain.insert(k, AVLTreeBenchmark.VALUE) + this.plain.delete(k);
+	}
+}
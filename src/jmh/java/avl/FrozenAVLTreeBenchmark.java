@@ -0,0 +1,92 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * FrozenAVLTreeBenchmark
+ *
+ * Query latency (ns per operation) of a FrozenAVLTree against the AVLTree it was frozen from,
+ * on the same query stream.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FrozenAVLTreeBenchmark {
+	static final int RANGE = 64; // Width of the key ranges of countInRange() (32 keys of the tree)
+
+	@Param({"1000", "10000", "100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+	KeyDistribution distribution;
+
+	@Param({"AVL", "FROZEN"})
+	String engine;
+
+	AVLTree tree;
+	FrozenAVLTree frozen;
+	int[] queries;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = AVLTreeBenchmark.build(this.size, this.distribution);
+		if (this.engine.equals("FROZEN")) {
+			this.frozen = this.tree.freeze();
+			this.tree = null;
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		int k = this.nextKey();
+		return (this.frozen != null) ? this.frozen.search(k) : this.tree.search(k);
+	}
+
+	@Benchmark
+	public String searchMiss() {
+		int k = this.nextKey() + 1;
+		return (this.frozen != null) ? this.frozen.search(k) : this.tree.search(k);
+	}
+
+	@Benchmark
+	public int rank() {
+		int k = this.nextKey();
+		return (this.frozen != null) ? this.frozen.rank(k) : this.tree.rank(k);
+	}
+
+	@Benchmark
+	public int countInRange() {
+		int k = this.nextKey();
+		return (this.frozen != null) ? this.frozen.countInRange(k, k + RANGE) : this.tree.countInRange(k, k + RANGE);
+	}
+}
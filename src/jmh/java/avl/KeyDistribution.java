@@ -0,0 +1,143 @@
+package avl;
+
+import java.util.SplittableRandom;
+
+/**
+ *
+ * KeyDistribution
+ *
+ * Key streams used by the benchmarks. Each distribution defines the order in which
+ * the keys 0..n-1 are inserted into a tree, and the stream of keys that are looked up
+ * (or split on) once the tree is built.
+ *
+ */
+
+public enum KeyDistribution {
+	/*
+	 * Keys are inserted in ascending order and queried in ascending order.
+	 */
+	SEQUENTIAL {
+		int[] insertOrder(int n, long seed) {
+			int[] keys = new int[n];
+			for (int i = 0; i < n; i++) {
+				keys[i] = i;
+			}
+			return keys;
+		}
+
+		int[] queries(int n, int count, long seed) {
+			int[] queries = new int[count];
+			for (int i = 0; i < count; i++) {
+				queries[i] = i % n;
+			}
+			return queries;
+		}
+	},
+
+	/*
+	 * Keys are inserted in a uniformly shuffled order and queried uniformly.
+	 */
+	RANDOM {
+		int[] insertOrder(int n, long seed) {
+			return shuffle(SEQUENTIAL.insertOrder(n, seed), seed);
+		}
+
+		int[] queries(int n, int count, long seed) {
+			SplittableRandom random = new SplittableRandom(seed);
+			int[] queries = new int[count];
+			for (int i = 0; i < count; i++) {
+				queries[i] = random.nextInt(n);
+			}
+			return queries;
+		}
+	},
+
+	/*
+	 * Keys are inserted in a shuffled order and queried with a Zipfian (theta = 0.99)
+	 * popularity, the hot keys being scattered over the key space.
+	 */
+	ZIPFIAN {
+		int[] insertOrder(int n, long seed) {
+			return RANDOM.insertOrder(n, seed);
+		}
+
+		int[] queries(int n, int count, long seed) {
+			int[] scatter = RANDOM.insertOrder(n, seed + 1); // popularity rank -> key
+			double theta = 0.99;
+			double zetan = 0;
+			for (int i = 1; i <= n; i++) {
+				zetan += 1 / Math.pow(i, theta);
+			}
+			double zeta2 = 1 + 1 / Math.pow(2, theta);
+			double alpha = 1 / (1 - theta);
+			double eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetan);
+			SplittableRandom random = new SplittableRandom(seed);
+			int[] queries = new int[count];
+			for (int i = 0; i < count; i++) { // Gray et al., "Quickly generating billion-record synthetic databases"
+				double u = random.nextDouble();
+				double uz = u * zetan;
+				int rank;
+				if (uz < 1) {
+					rank = 0;
+				}
+				else if (uz < zeta2) {
+					rank = 1;
+				}
+				else {
+					rank = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+				}
+				queries[i] = scatter[Math.min(rank, n - 1)];
+			}
+			return queries;
+		}
+	},
+
+	/*
+	 * Keys are inserted from both ends towards the middle (0, n-1, 1, n-2, ...),
+	 * which keeps every insertion on the deepest spine and maximizes double rotations.
+	 * Queries alternate between the two extremes of the key space.
+	 */
+	ADVERSARIAL {
+		int[] insertOrder(int n, long seed) {
+			int[] keys = new int[n];
+			int lo = 0, hi = n - 1;
+			for (int i = 0; i < n; i++) {
+				keys[i] = (i % 2 == 0) ? lo++ : hi--;
+			}
+			return keys;
+		}
+
+		int[] queries(int n, int count, long seed) {
+			int[] order = this.insertOrder(n, seed);
+			int[] queries = new int[count];
+			for (int i = 0; i < count; i++) {
+				queries[i] = order[i % n];
+			}
+			return queries;
+		}
+	};
+
+	/*
+	 * Returns the keys 0..n-1 in the order they should be inserted.
+	 */
+	abstract int[] insertOrder(int n, long seed);
+
+	/*
+	 * Returns count keys, all in 0..n-1, in the order they should be queried.
+	 */
+	abstract int[] queries(int n, int count, long seed);
+
+	/*
+	 * Fisher-Yates shuffle of arr in place. Returns arr.
+	 */
+	static int[] shuffle(int[] arr, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int i = arr.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = arr[i];
+			arr[i] = arr[j];
+			arr[j] = tmp;
+		}
+		return arr;
+	}
+}
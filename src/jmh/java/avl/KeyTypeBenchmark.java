@@ -0,0 +1,98 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * KeyTypeBenchmark
+ *
+ * search() and insert()/delete() throughput of the int-keyed AVLTree, the long-keyed
+ * LongAVLTree and the generic AVLMap<Long, String> on the same (random) keys,
+ * i.e. the cost of boxing and of going through a Comparator.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class KeyTypeBenchmark {
+	@Param({"10000", "1000000"})
+	int size;
+
+	AVLTree ints;
+	LongAVLTree longs;
+	AVLMap<Long, String> boxed;
+	int[] queries;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.ints = new AVLTree();
+		this.longs = new LongAVLTree();
+		this.boxed = new AVLMap<>();
+		for (int k : KeyDistribution.RANDOM.insertOrder(this.size, AVLTreeBenchmark.SEED)) {
+			this.ints.insert(2 * k, AVLTreeBenchmark.VALUE);
+			this.longs.insert(2 * k, AVLTreeBenchmark.VALUE);
+			this.boxed.insert(2L * k, AVLTreeBenchmark.VALUE);
+		}
+		this.queries = KeyDistribution.RANDOM.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the trees).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String searchInt() {
+		return this.ints.search(this.nextKey());
+	}
+
+	@Benchmark
+	public String searchLong() {
+		return this.longs.search(this.nextKey());
+	}
+
+	@Benchmark
+	public String searchBoxed() {
+		return this.boxed.search((long) this.nextKey());
+	}
+
+	@Benchmark
+	public int insertDeleteInt() {
+		int k = this.nextKey() + 1;
+		return this.ints.insert(k, AVLTreeBenchmark.VALUE) + this.ints.delete(k);
+	}
+
+	@Benchmark
+	public int insertDeleteLong() {
+		long k = this.nextKey() + 1;
+		return this.longs.insert(k, AVLTreeBenchmark.VALUE) + this.longs.delete(k);
+	}
+
+	@Benchmark
+	public int insertDeleteBoxed() {
+		long k = this.nextKey() + 1;
+		return this.boxed.insert(k, AVLTreeBenchmark.VALUE) + this.boxed.delete(k);
+	}
+}
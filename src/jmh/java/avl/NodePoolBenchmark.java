@@ -0,0 +1,101 @@
+package avl;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * NodePoolBenchmark
+ *
+ * Insert/delete churn on an AVLTree without a node pool (capacity 0) and with one, to be run
+ * with the GC profiler for the allocation rates:
+ *   java -jar target/benchmarks.jar NodePoolBenchmark -prof gc
+ * With a pool, gc.alloc.rate.norm should drop to ~0 bytes per operation.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class NodePoolBenchmark {
+	static final int CHURN = 1 << 10; // Keys that live in the tree for a while before they are deleted
+
+	@Param({"10000", "1000000"})
+	int size;
+
+	@Param({"RANDOM", "ZIPFIAN"})
+	KeyDistribution distribution;
+
+	@Param({"0", "4096"})
+	int capacity;
+
+	AVLTree tree;
+	int[] queries;
+	int next;
+	int[] live; // Ring of the last CHURN keys inserted, each of them deleted when its slot comes around
+	int slot;
+	int[] batch;
+	String[] batchValues;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = AVLTreeBenchmark.build(this.size, this.distribution);
+		if (this.capacity > 0) {
+			this.tree.enableNodePool(this.capacity);
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+		this.live = new int[CHURN];
+		Arrays.fill(this.live, -1); // Even keys are in the tree already, and odd ones are never negative
+		this.batch = new int[CHURN];
+		this.batchValues = new String[CHURN];
+		Arrays.fill(this.batchValues, AVLTreeBenchmark.VALUE);
+	}
+
+	/*
+	 * Returns the next key of the query stream plus one (a key absent from the tree).
+	 */
+	int nextFreeKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k + 1;
+	}
+
+	/*
+	 * Inserts a new key and deletes the one inserted CHURN operations ago (a session table).
+	 */
+	@Benchmark
+	public int churn() {
+		int k = this.nextFreeKey();
+		int count = this.tree.delete(this.live[this.slot]) + this.tree.insert(k, AVLTreeBenchmark.VALUE);
+		this.live[this.slot] = k;
+		this.slot = (this.slot + 1) & (CHURN - 1);
+		return count;
+	}
+
+	/*
+	 * Inserts CHURN new keys with insertAll() and deletes them with deleteAll().
+	 */
+	@Benchmark
+	public int batchChurn() {
+		for (int i = 0; i < CHURN; i++) {
+			this.batch[i] = this.nextFreeKey();
+		}
+		return this.tree.insertAll(this.batch, this.batchValues) + this.tree.deleteAll(this.batch);
+	}
+}
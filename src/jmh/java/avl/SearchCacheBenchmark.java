@@ -0,0 +1,95 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * SearchCacheBenchmark
+ *
+ * search() on an AVLTree without a SearchCache (capacity 0) and with caches of a few sizes,
+ * alone and mixed with updates that keep the cache coherent. The hit rate of every trial is printed
+ * at its end (a cache only pays off for skewed distributions such as ZIPFIAN).
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SearchCacheBenchmark {
+	static final int UPDATE_EVERY = 16; // One insert/delete pair per this many searches in mixed()
+
+	@Param({"100000", "1000000", "10000000"})
+	int size;
+
+	@Param({"RANDOM", "ZIPFIAN"})
+	KeyDistribution distribution;
+
+	@Param({"0", "1024", "65536"})
+	int capacity;
+
+	AVLTree tree;
+	int[] queries;
+	int next;
+	int ops;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = AVLTreeBenchmark.build(this.size, this.distribution);
+		if (this.capacity > 0) {
+			this.tree.enableSearchCache(this.capacity);
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		SearchCache cache = this.tree.searchCache();
+		if (cache != null) {
+			long lookups = cache.hits() + cache.misses();
+			System.out.printf("%nhit rate %.3f (%d of %d)%n", (double) cache.hits() / Math.max(lookups, 1), cache.hits(), lookups);
+		}
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		return this.tree.search(this.nextKey());
+	}
+
+	/*
+	 * search(), with every UPDATE_EVERY-th operation deleting the searched key and inserting it back.
+	 */
+	@Benchmark
+	public Object mixed() {
+		int k = this.nextKey();
+		if (++this.ops % UPDATE_EVERY == 0) {
+			return this.tree.delete(k) + this.tree.insert(k, AVLTreeBenchmark.VALUE);
+		}
+		return this.tree.search(k);
+	}
+}
@@ -0,0 +1,83 @@
+package avl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * TreeMetricsBenchmark
+ *
+ * The cost of TreeMetrics: search() and insert()/delete() on a tree without metrics and on one
+ * collecting them. The metrics of every trial are printed at its end.
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TreeMetricsBenchmark {
+	@Param({"10000", "1000000"})
+	int size;
+
+	@Param({"RANDOM", "ZIPFIAN"})
+	KeyDistribution distribution;
+
+	@Param({"false", "true"})
+	boolean metrics;
+
+	AVLTree tree;
+	int[] queries;
+	int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.tree = AVLTreeBenchmark.build(this.size, this.distribution);
+		if (this.metrics) {
+			this.tree.enableMetrics();
+		}
+		this.queries = this.distribution.queries(this.size, AVLTreeBenchmark.QUERIES, AVLTreeBenchmark.SEED);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.tree.metrics() != null) {
+			System.out.printf("%n%s%n", this.tree.metrics().snapshot());
+		}
+	}
+
+	/*
+	 * Returns the next key of the query stream (a key of the tree).
+	 */
+	int nextKey() {
+		int k = this.queries[this.next];
+		this.next = (this.next + 1) & (AVLTreeBenchmark.QUERIES - 1);
+		return 2 * k;
+	}
+
+	@Benchmark
+	public String search() {
+		return this.tree.search(this.nextKey());
+	}
+
+	@Benchmark
+	public int insertDelete() {
+		int k = this.nextKey() + 1;
+		return this.tree.insert(k, AVLTreeBenchmark.VALUE) + this.tree.delete(k);
+	}
+}
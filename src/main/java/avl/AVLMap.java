@@ -0,0 +1,188 @@
+package avl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *
+ * AVLMap
+ *
+ * An AVL Tree with distinct keys of any type K, ordered by a Comparator, and info of any type V.
+ * For int and long keys, AVLTree and LongAVLTree avoid the boxing of the keys.
+ *
+ * Rebalancing follows the same rules as AVLTree, so insert() and delete()
+ * return the same number of re-balancing operations for the same sequence of operations.
+ *
+ */
+
+public class AVLMap<K, V> extends AbstractAVLTree<AVLMap.Entry<K, V>> {
+	private final Comparator<? super K> comparator;
+
+	/*
+	 * Constructor for an empty AVLMap ordering its keys by their natural order
+	 * (K must be Comparable). Complexity O(1).
+	 */
+	@SuppressWarnings("unchecked")
+	public AVLMap() {
+		this((Comparator<? super K>) Comparator.naturalOrder());
+	}
+
+	/*
+	 * Constructor for an empty AVLMap ordering its keys by comparator. Complexity O(1).
+	 */
+	public AVLMap(Comparator<? super K> comparator) {
+		if (comparator == null) {
+			throw new NullPointerException("comparator");
+		}
+		this.comparator = comparator;
+		this.root = null;
+	}
+
+	/**
+	 * public Comparator<? super K> comparator()
+	 *
+	 * Returns the comparator ordering the keys.
+	 * Complexity O(1).
+	 */
+	public Comparator<? super K> comparator() {
+		return this.comparator;
+	}
+
+	/*
+	 * Helper function for search(), insert() & delete().
+	 * Returns the node whose key is k, or the last node encountered if k isn't in the tree.
+	 * Returns null if the tree is empty.
+	 * Complexity O(log n) comparisons.
+	 */
+	private Entry<K, V> nodeSearch(K k) {
+		Entry<K, V> node = this.root, last = null;
+		while (node != null) {
+			last = node;
+			int c = this.comparator.compare(k, node.key);
+			if (c == 0) {
+				return node;
+			}
+			node = (c < 0) ? node.left : node.right;
+		}
+		return last;
+	}
+
+	/**
+	 * public V search(K k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public V search(K k) {
+		Entry<K, V> node = this.nodeSearch(k);
+		return (node != null && this.comparator.compare(k, node.key) == 0) ? node.value : null;
+	}
+
+	/**
+	 * public int insert(K k, V i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.insert()),
+	 * or -1 if an item with key k already exists in the tree.
+	 * Complexity O(log n).
+	 */
+	public int insert(K k, V i) {
+		Entry<K, V> parent = this.nodeSearch(k);
+		int c = (parent == null) ? 0 : this.comparator.compare(k, parent.key);
+		if (parent != null && c == 0) { // Make sure key isn't in tree
+			return -1;
+		}
+		return this.link(parent, new Entry<>(k, i), c < 0);
+	}
+
+	/**
+	 * public int delete(K k)
+	 *
+	 * Deletes an item with key k from the tree, if it is there.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.delete()),
+	 * or -1 if an item with key k was not found in the tree.
+	 * Complexity O(log n).
+	 */
+	public int delete(K k) {
+		Entry<K, V> node = this.nodeSearch(k);
+		if (node == null || this.comparator.compare(k, node.key) != 0) {
+			return -1;
+		}
+		return this.unlink(node);
+	}
+
+	void copyItem(Entry<K, V> from, Entry<K, V> to) {
+		to.key = from.key;
+		to.value = from.value;
+	}
+
+	/**
+	 * public V min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public V min() {
+		return this.empty() ? null : minNode(this.root).value;
+	}
+
+	/**
+	 * public V max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public V max() {
+		return this.empty() ? null : maxNode(this.root).value;
+	}
+
+	/**
+	 * public List<K> keys()
+	 *
+	 * Returns a sorted list which contains all keys in the tree,
+	 * or an empty list if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public List<K> keys() {
+		List<K> list = new ArrayList<>(this.size());
+		for (Entry<K, V> node = minNode(this.root); node != null; node = successor(node)) {
+			list.add(node.key);
+		}
+		return list;
+	}
+
+	/**
+	 * public List<V> values()
+	 *
+	 * Returns a list which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty list if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public List<V> values() {
+		List<V> list = new ArrayList<>(this.size());
+		for (Entry<K, V> node = minNode(this.root); node != null; node = successor(node)) {
+			list.add(node.value);
+		}
+		return list;
+	}
+
+	/**
+	 * static final class Entry
+	 *
+	 * A node holding a key and its info.
+	 */
+	static final class Entry<K, V> extends AbstractAVLTree.Node<Entry<K, V>> {
+		K key;
+		V value;
+
+		Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,2953 @@
+package avl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *
+ * AVLTree
+ *
+ * An implementation of an AVL Tree with
+ * distinct integer keys and info.
+ * Keys may be any int: virtual nodes are told apart by their height, not by their key.
+ * (See AVLMap for any key type, and LongAVLTree for long keys.)
+ *
+ */
+
+public class AVLTree {
+	static final Comparator<IAVLNode> KEY_ORDER = Comparator.comparingInt(IAVLNode::getKey);
+	static final int PARALLEL_THRESHOLD = 1 << 13; // Sub-trees smaller than this are traversed sequentially by the parallel operations
+	IAVLNode VIRTUAL_NODE = new AVLNode(-1, null, null, null, null); // VE's parents won't be maintained
+	IAVLNode root;
+	int modCount; // Number of structural changes, so that a Cursor can tell whether its position is still valid
+	final Augmentation augmentation; // Aggregate maintained per sub-tree, null if none
+	SearchCache searchCache; // Cache of hot keys in front of search(), null unless enableSearchCache() was called
+	TreeMetrics metrics; // null unless enableMetrics() was called
+	NodePool nodePool; // Free list of deleted nodes for reuse, null unless enableNodePool() was called
+	
+	/*
+	 * Constructor for an AVLTree. Complexity O(1).
+	 */
+	public AVLTree() {
+		this((Augmentation) null);
+	}
+
+	/*
+	 * Constructor for an AVLTree maintaining the given augmentation for every sub-tree
+	 * (see aggregate()). Complexity O(1).
+	 */
+	public AVLTree(Augmentation augmentation) {
+		this.root = VIRTUAL_NODE;
+		this.augmentation = augmentation;
+	}
+
+	/*
+	 * Alternative constructor for an AVLTree receiving an IAVLNode to be used as the root. 
+	 * Complexity O(1).
+	 */
+	public AVLTree(IAVLNode root) { 
+		this(root, null);
+	}
+
+	/*
+	 * Constructor for an AVLTree over a detached sub-tree of a tree with the given augmentation
+	 * (used by the operations which split a tree). Complexity O(1).
+	 */
+	private AVLTree(IAVLNode root, Augmentation augmentation) {
+		this.root = root;
+		this.augmentation = augmentation;
+	}
+
+	/*
+	 * Bulk-load constructor for an AVLTree holding keys[i] with info values[i] for every i.
+	 * keys must be strictly increasing.
+	 * Builds a perfectly balanced tree directly instead of inserting the items one by one.
+	 * Complexity O(n).
+	 */
+	public AVLTree(int[] keys, String[] values) {
+		this(keys, values, null);
+	}
+
+	/*
+	 * Same as AVLTree(keys, values), maintaining the given augmentation for every sub-tree.
+	 * Complexity O(n).
+	 */
+	public AVLTree(int[] keys, String[] values, Augmentation augmentation) {
+		this.augmentation = augmentation;
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException("keys and values differ in length");
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0 && keys[i] <= keys[i - 1]) {
+				throw new IllegalArgumentException("keys must be strictly increasing, at index " + i);
+			}
+		}
+		this.root = this.buildBalanced(keys, values, 0, keys.length, null);
+	}
+
+	/*
+	 * Bulk-load constructor for an AVLTree holding the first n items of a sorted stream:
+	 * the i-th key of keys with the i-th info of values.
+	 * keys must be strictly increasing, and both must have at least n items.
+	 * The items are consumed in order while the tree is built, so the input is never buffered.
+	 * Complexity O(n).
+	 */
+	public AVLTree(PrimitiveIterator.OfInt keys, Iterator<String> values, int n) {
+		this(keys, values, n, null);
+	}
+
+	/*
+	 * Same as AVLTree(keys, values, n), maintaining the given augmentation for every sub-tree.
+	 * Complexity O(n).
+	 */
+	public AVLTree(PrimitiveIterator.OfInt keys, Iterator<String> values, int n, Augmentation augmentation) {
+		this.augmentation = augmentation;
+		this.root = this.buildInorder(keys, values, n, null, new long[] {Long.MIN_VALUE});
+	}
+
+	/*
+	 * Helper function for the bulk-load constructor.
+	 * Returns the root of a perfectly balanced sub-tree holding keys[from..to) and values[from..to),
+	 * whose parent is parent (the virtual node if the range is empty).
+	 * Complexity O(to - from).
+	 */
+	private IAVLNode buildBalanced(int[] keys, String[] values, int from, int to, IAVLNode parent) {
+		if (from >= to) {
+			return VIRTUAL_NODE;
+		}
+		int mid = (from + to) >>> 1;
+		IAVLNode node = this.newNode(keys[mid], values[mid], parent);
+		node.setLeft(this.buildBalanced(keys, values, from, mid, node));
+		node.setRight(this.buildBalanced(keys, values, mid + 1, to, node));
+		node.setHeight(1 + Math.max(node.getLeft().getHeight(), node.getRight().getHeight()));
+		this.fieldCorrect(node);
+		return node;
+	}
+
+	/*
+	 * Helper function for the streaming bulk-load constructor.
+	 * Returns the root of a perfectly balanced sub-tree holding the next n items of keys and values
+	 * (the virtual node if n is 0). The node is created only once its left sub-tree was consumed,
+	 * so parents are set by the caller. last[0] holds the last key consumed (Long.MIN_VALUE before the first).
+	 * Complexity O(n).
+	 */
+	private IAVLNode buildInorder(PrimitiveIterator.OfInt keys, Iterator<String> values, int n, IAVLNode parent, long[] last) {
+		if (n <= 0) {
+			return VIRTUAL_NODE;
+		}
+		int leftSize = (n - 1) / 2;
+		IAVLNode left = this.buildInorder(keys, values, leftSize, null, last);
+		if (!keys.hasNext() || !values.hasNext()) {
+			throw new IllegalArgumentException("keys and values must hold at least n items");
+		}
+		int k = keys.nextInt();
+		if (k <= last[0]) {
+			throw new IllegalArgumentException("keys must be strictly increasing, at key " + k);
+		}
+		last[0] = k;
+		IAVLNode node = this.newNode(k, values.next(), parent);
+		node.setLeft(left);
+		left.setParent(node);
+		IAVLNode right = this.buildInorder(keys, values, n - 1 - leftSize, node, last);
+		node.setRight(right);
+		node.setHeight(1 + Math.max(left.getHeight(), right.getHeight()));
+		this.fieldCorrect(node);
+		return node;
+	}
+	
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+	  return !this.root.isRealNode();
+	}
+
+	/**
+	 * Helper function for search().
+	 * Returns the IAVLNode whose key is k, in the sub-tree whose root is node. 
+	 * If such IAVLNode doesn't exist in the sub-tree, returns the last node encountered.
+	 * Special case - the tree is empty, for which we'll return null.
+	 * Iterative, so that the hot loop has no calls left once inlined.
+	 * Complexity O(log n). 
+	 */
+	private IAVLNode nodeSearch(int k, IAVLNode node) {
+		if (!node.isRealNode()) { // Edge case for when the tree is empty.
+			return null;
+		}
+		while (true) {
+			int key = node.getKey();
+			if (key == k) { // Found k
+				return node;
+			}
+			IAVLNode next = (key > k) ? node.getLeft() : node.getRight(); // Go left if k is lesser, right otherwise
+			if (!next.isRealNode()) { // If k doesn't exist in the tree
+				return node;
+			}
+			node = next;
+		}
+	}
+
+	/*
+	 * Helper function for delete().
+	 * Checks if received node is a left son of its parent.
+	 * Complexity O(1).
+	 */
+	private boolean isLeftSon(IAVLNode node) {
+		IAVLNode parent = node.getParent();
+		if (parent == null) { // node is root
+			return false;
+		}
+		return parent.getLeft() == node; // return true if the target node is a left son of his parent, false otherwise.
+	}
+	
+	/*
+	 * Helper function for delete().
+	 * Checks if received node is a leaf.
+	 * Complexity O(1).
+	 */
+	private boolean isLeaf(IAVLNode node) {
+	  		return !node.getLeft().isRealNode() && !node.getRight().isRealNode();
+	}
+
+	/*
+	 * Helper function for delete().
+	 * Checks if received node is the root of the tree.
+	 * Complexity O(1).
+	 */
+	private boolean isRoot(IAVLNode node) {
+		return node.getParent() == null;
+	}
+	
+	/*
+	 * Helper function for delete().
+	 * Checks if received node is an unary node with a left son.
+	 * Complexity O(1).
+	 */
+	private boolean isUnaryLeft(IAVLNode node) {
+		return node.getLeft().isRealNode() && !node.getRight().isRealNode();
+	}
+	
+	/*
+	 * Helper function for delete().
+	 * Checks if received node is an unary node with a right son.
+	 * Complexity O(1).
+	 */
+	private boolean isUnaryRight(IAVLNode node) {
+		return !node.getLeft().isRealNode() && node.getRight().isRealNode();
+	}
+
+	/*
+	 * Helper function for delete() & the range iterators.
+	 * Returns the successor of the received node (if it exists). 
+	 * Complexity O(log n), O(1) amortized when iterating over the tree.
+	 */
+	private IAVLNode findSuccessor(IAVLNode node) {
+		if (node == this.root.getMax()) { // this node is the maximum so it has not successor
+			return null;
+		}
+		if (node.getRight().isRealNode()) { // if a right son exists, the successor is in the right sub-tree
+			IAVLNode newNode = node.getRight();
+			while (newNode.getLeft().isRealNode()) {
+				newNode = newNode.getLeft();
+			}
+			return newNode;
+		}
+		else { // No right sons, successor is upstream
+			IAVLNode parent = node.getParent();
+			IAVLNode newNode = node;
+			while (newNode == parent.getRight()) { // Go upstream until finding the first ancestor to the right of node
+				newNode = parent;
+				parent = newNode.getParent();
+			}
+			return parent;
+		}
+	}
+
+	/*
+	 * Helper function for the descending range iterators.
+	 * Returns the predecessor of the received node (if it exists).
+	 * Symmetric to findSuccessor().
+	 * Complexity O(log n), O(1) amortized when iterating over the tree.
+	 */
+	private IAVLNode findPredecessor(IAVLNode node) {
+		if (node == this.root.getMin()) { // this node is the minimum so it has no predecessor
+			return null;
+		}
+		if (node.getLeft().isRealNode()) { // if a left son exists, the predecessor is in the left sub-tree
+			IAVLNode newNode = node.getLeft();
+			while (newNode.getRight().isRealNode()) {
+				newNode = newNode.getRight();
+			}
+			return newNode;
+		}
+		else { // No left sons, predecessor is upstream
+			IAVLNode parent = node.getParent();
+			IAVLNode newNode = node;
+			while (newNode == parent.getLeft()) { // Go upstream until finding the first ancestor to the left of node
+				newNode = parent;
+				parent = newNode.getParent();
+			}
+			return parent;
+		}
+	}
+
+	/*
+	 * The search for k ends at k itself, or at the node just below or just above where k would be,
+	 * so each of the following is a search plus at most one step to a neighbor.
+	 */
+
+	/**
+	 * public IAVLNode floor(int k)
+	 *
+	 * Returns the node with the largest key which is lesser than or equal to k, or null if there is none.
+	 * Complexity O(log n).
+	 */
+	public IAVLNode floor(int k) {
+		IAVLNode node = this.nodeSearch(k, this.root);
+		if (node == null || node.getKey() <= k) {
+			return node;
+		}
+		return this.findPredecessor(node); // The search ended at the node just above k
+	}
+
+	/**
+	 * public IAVLNode ceiling(int k)
+	 *
+	 * Returns the node with the smallest key which is greater than or equal to k, or null if there is none.
+	 * Complexity O(log n).
+	 */
+	public IAVLNode ceiling(int k) {
+		IAVLNode node = this.nodeSearch(k, this.root);
+		if (node == null || node.getKey() >= k) {
+			return node;
+		}
+		return this.findSuccessor(node); // The search ended at the node just below k
+	}
+
+	/**
+	 * public IAVLNode lower(int k)
+	 *
+	 * Returns the node with the largest key which is strictly lesser than k, or null if there is none.
+	 * Complexity O(log n).
+	 */
+	public IAVLNode lower(int k) {
+		IAVLNode node = this.nodeSearch(k, this.root);
+		if (node == null || node.getKey() < k) {
+			return node;
+		}
+		return this.findPredecessor(node); // The search ended at k or at the node just above it
+	}
+
+	/**
+	 * public IAVLNode higher(int k)
+	 *
+	 * Returns the node with the smallest key which is strictly greater than k, or null if there is none.
+	 * Complexity O(log n).
+	 */
+	public IAVLNode higher(int k) {
+		IAVLNode node = this.nodeSearch(k, this.root);
+		if (node == null || node.getKey() > k) {
+			return node;
+		}
+		return this.findSuccessor(node); // The search ended at k or at the node just below it
+	}
+
+	/**
+	 * public IAVLNode predecessor(IAVLNode node)
+	 *
+	 * Returns the node preceding node (a node of the tree) in key order, or null if node is the minimum.
+	 * Complexity O(log n), O(1) amortized over a traversal.
+	 */
+	public IAVLNode predecessor(IAVLNode node) {
+		return this.findPredecessor(node);
+	}
+
+	/**
+	 * public IAVLNode successor(IAVLNode node)
+	 *
+	 * Returns the node following node (a node of the tree) in key order, or null if node is the maximum.
+	 * Complexity O(log n), O(1) amortized over a traversal.
+	 */
+	public IAVLNode successor(IAVLNode node) {
+		return this.findSuccessor(node);
+	}
+
+	/*
+	* public String search(int k)
+	*
+	* Returns the info of an item with key k if it exists in the tree.
+	* otherwise, returns null.
+	* Uses the nodeSearch helper function.
+	* Complexity O(log n)
+	*/
+	public String search(int k) {
+		TreeMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return this.searchItem(k);
+		}
+		long start = System.nanoTime();
+		String value = this.searchItem(k);
+		metrics.record(TreeMetrics.Operation.SEARCH, start, 0);
+		return value;
+	}
+
+	/*
+	 * Helper function for search().
+	 * Returns the info of an item with key k if it exists in the tree (from the search cache
+	 * if there is one), otherwise null.
+	 * Complexity O(log n).
+	 */
+	private String searchItem(int k) {
+		SearchCache cache = this.searchCache;
+		if (cache != null) {
+			String cached = cache.get(k);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		if (this.empty()) { // If the tree is empty
+			return null;
+		}
+		IAVLNode searchedNode = this.nodeSearch(k, this.root);
+		if (this.metrics != null) {
+			this.metrics.depths.record(depth(searchedNode));
+		}
+		if (searchedNode.getKey() != k) { // To make sure the node exists in the tree 
+			return null;
+		}
+		if (cache != null) {
+			cache.put(k, searchedNode.getValue());
+		}
+		return searchedNode.getValue();
+	}
+
+	/*
+	 * public SearchCache enableSearchCache(int capacity)
+	 *
+	 * Puts a cache of up to capacity hot keys in front of search() (see SearchCache), replacing
+	 * the current one if there is one, and returns it (for its hit and miss counters).
+	 * The cache is kept coherent by every operation of the tree. The trees made by split() and
+	 * the like start without a cache.
+	 * Complexity O(capacity).
+	 */
+	public SearchCache enableSearchCache(int capacity) {
+		this.searchCache = new SearchCache(capacity);
+		return this.searchCache;
+	}
+
+	/*
+	 * public void disableSearchCache()
+	 *
+	 * Removes the cache in front of search(), if there is one.
+	 * Complexity O(1).
+	 */
+	public void disableSearchCache() {
+		this.searchCache = null;
+	}
+
+	/*
+	 * public SearchCache searchCache()
+	 *
+	 * Returns the cache in front of search(), or null if there is none.
+	 * Complexity O(1).
+	 */
+	public SearchCache searchCache() {
+		return this.searchCache;
+	}
+
+	/*
+	 * public TreeMetrics enableMetrics()
+	 *
+	 * Starts collecting metrics of the operations of the tree (see TreeMetrics), replacing
+	 * the current ones if there are any, and returns them.
+	 * The trees made by split() and the like start without metrics.
+	 * Complexity O(1).
+	 */
+	public TreeMetrics enableMetrics() {
+		this.metrics = new TreeMetrics();
+		return this.metrics;
+	}
+
+	/*
+	 * public void disableMetrics()
+	 *
+	 * Stops collecting metrics, if they were collected.
+	 * Complexity O(1).
+	 */
+	public void disableMetrics() {
+		this.metrics = null;
+	}
+
+	/*
+	 * public TreeMetrics metrics()
+	 *
+	 * Returns the metrics collected by the tree, or null if it doesn't collect any.
+	 * Complexity O(1).
+	 */
+	public TreeMetrics metrics() {
+		return this.metrics;
+	}
+
+	/*
+	 * Helper function for search() (with metrics).
+	 * Returns the depth of node in its tree (0 for the root).
+	 * Complexity O(log n).
+	 */
+	private static int depth(IAVLNode node) {
+		int depth = 0;
+		for (IAVLNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+			depth++;
+		}
+		return depth;
+	}
+
+	/*
+	 * Empties the cache in front of search(), if there is one (for the operations which take
+	 * items out of the tree in bulk). Complexity O(capacity of the cache).
+	 */
+	private void clearSearchCache() {
+		if (this.searchCache != null) {
+			this.searchCache.clear();
+		}
+	}
+
+	/*
+	 * public void enableNodePool(int capacity)
+	 *
+	 * Keeps up to capacity deleted nodes in a free list, and reuses them for later insertions
+	 * instead of allocating new ones, so that insert/delete churn doesn't feed the garbage collector.
+	 * delete(), Cursor.delete() and the scratch nodes of deleteAll() fill the pool, and insert(),
+	 * Cursor.insert() and insertAll() drain it.
+	 * Since a deleted node is reused, a reference to it (e.g. from select() or an iterator)
+	 * must not be kept after its item is deleted. The trees made by split() and the like start without a pool.
+	 * Throws IllegalArgumentException if capacity is negative.
+	 * Complexity O(1).
+	 */
+	public void enableNodePool(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+		}
+		this.nodePool = new NodePool(capacity);
+	}
+
+	/*
+	 * public void disableNodePool()
+	 *
+	 * Drops the pool of deleted nodes, if there is one.
+	 * Complexity O(1).
+	 */
+	public void disableNodePool() {
+		this.nodePool = null;
+	}
+
+	/*
+	 * public int pooledNodes()
+	 *
+	 * Returns the number of deleted nodes waiting in the pool for reuse (0 if there is no pool).
+	 * Complexity O(1).
+	 */
+	public int pooledNodes() {
+		return (this.nodePool == null) ? 0 : this.nodePool.size;
+	}
+
+	/*
+	 * Returns a detached node with key k and info v, whose parent is parent and whose sons are virtual,
+	 * taken from the node pool if it isn't empty and allocated otherwise.
+	 * The caller corrects its size, min, max and aggregate (see fieldCorrect()).
+	 * Complexity O(1).
+	 */
+	private IAVLNode newNode(int k, String v, IAVLNode parent) {
+		NodePool pool = this.nodePool;
+		if (pool == null || pool.head == null) {
+			if (this.metrics != null) {
+				this.metrics.allocations++;
+			}
+			return new AVLNode(k, v, VIRTUAL_NODE, VIRTUAL_NODE, parent);
+		}
+		AVLNode node = pool.head;
+		pool.head = (AVLNode) node.parent;
+		pool.size--;
+		node.key = k;
+		node.value = v;
+		node.left = node.right = VIRTUAL_NODE;
+		node.parent = parent;
+		node.height = 0;
+		node.size = 1;
+		node.min = node.max = node;
+		return node;
+	}
+
+	/*
+	 * Puts node, which was just unlinked from the tree, into the node pool (if there is one and it isn't full).
+	 * Every reference the node holds is reset, so that it keeps neither its info nor other nodes alive.
+	 * Complexity O(1).
+	 */
+	private void recycle(IAVLNode node) {
+		NodePool pool = this.nodePool;
+		if (pool == null || pool.size >= pool.capacity || !(node instanceof AVLNode)) {
+			return;
+		}
+		AVLNode n = (AVLNode) node;
+		n.value = null;
+		n.left = n.right = VIRTUAL_NODE;
+		n.min = n.max = n;
+		n.aggregate = 0;
+		n.parent = pool.head; // The free list is linked through the parents
+		pool.head = n;
+		pool.size++;
+	}
+
+	/*
+	 * Helper function for deleteAll().
+	 * Copies the nodes of the sub-tree rooted by node into arr in order, from index from on.
+	 * Returns the index that follows them.
+	 * Complexity O(size of the sub-tree).
+	 */
+	private static int collectNodes(IAVLNode node, IAVLNode[] arr, int from) {
+		if (node.getLeft().isRealNode()) {
+			from = collectNodes(node.getLeft(), arr, from);
+		}
+		arr[from++] = node;
+		if (node.getRight().isRealNode()) {
+			from = collectNodes(node.getRight(), arr, from);
+		}
+		return from;
+	}
+
+	/*
+	 * Helper function for insert(), delete(), join() & split().
+	 * Given a node, corrects its size, min and max fields.
+	 * Complexity O(1).
+	 */
+	private void fieldCorrect(IAVLNode node) {
+		node.setSize(node.getLeft().getSize() + node.getRight().getSize() + 1);
+		node.setMin(node);
+		node.setMax(node);
+		if (node.getLeft().isRealNode()) {
+			node.setMin(node.getLeft().getMin());
+		}
+		if (node.getRight().isRealNode()) {
+			node.setMax(node.getRight().getMax());
+		}
+		Augmentation a = this.augmentation;
+		if (a != null) { // aggregate(node) = aggregate(left) + node + aggregate(right), in key order
+			((AVLNode) node).aggregate = a.combine(a.combine(this.aggregateOf(node.getLeft()), a.lift(node.getKey(), node.getValue())),
+					this.aggregateOf(node.getRight()));
+		}
+	}
+
+	/*
+	 * Helper function for fieldCorrect() & aggregate().
+	 * Returns the aggregate of the sub-tree rooted by node (the identity for the virtual node).
+	 * The aggregate is kept in a field of AVLNode only, outside of IAVLNode.
+	 * Complexity O(1).
+	 */
+	private long aggregateOf(IAVLNode node) {
+		return node.isRealNode() ? ((AVLNode) node).aggregate : this.augmentation.identity();
+	}
+
+	/*
+	 * Helper function for insert(), delete() & join().
+	 * Corrects the size, min and max fields of node and of all of its ancestors, in one pass.
+	 * Done before re-balancing, so that rotations (which correct the fields of the nodes they move
+	 * from their sons) always see correct sons, and re-balancing can stop as soon as the tree is balanced.
+	 * Complexity O(log n).
+	 */
+	private void fieldCorrectUp(IAVLNode node) {
+		while (node != null) {
+			this.fieldCorrect(node);
+			node = node.getParent();
+		}
+	}
+  
+	/*
+	 * Helper function for insertRebalance(), deleteRebalance() & joinRebalance(). 
+	 * Given a child node, rotates the child and its parent.
+	 * The function also handles height changes, and sets the root if node became the root.
+	 * Complexity O(1).
+	 */
+	private void rotate(IAVLNode node) {
+		TreeMetrics metrics = this.metrics;
+		if (metrics == null) {
+			this.rotateNode(node);
+		}
+		else {
+			IAVLNode parent = node.getParent();
+			int parentHeight = parent.getHeight(), nodeHeight = node.getHeight();
+			this.rotateNode(node);
+			metrics.rotated(parent.getHeight() - parentHeight, node.getHeight() - nodeHeight);
+		}
+		if (this.isRoot(node)) { // Set the node to be the root
+			this.root = node;
+		}
+	}
+
+	/*
+	 * Helper function for rotate() & rebalanceNode().
+	 * Given a child node, rotates the child and its parent, and corrects the fields of both.
+	 * Doesn't touch the root of the tree, so it can be used on detached sub-trees.
+	 * Complexity O(1).
+	 */
+	private void rotateNode(IAVLNode node) {
+		IAVLNode parent = node.getParent();
+		if (parent.getRight() == node) { // If node is on the right of p.
+			parent.setRight(node.getLeft());
+			parent.getRight().setParent(parent);
+			node.setLeft(parent);
+		}
+		else { // If node is on the left of p.
+			parent.setLeft(node.getRight());
+			parent.getLeft().setParent(parent);
+			node.setRight(parent);
+		}
+		// Fix parent of p and parent of node.
+		if (!this.isRoot(parent)) { // If parent isn't root, fix its parent's son
+			if (parent.getParent().getLeft() == parent) {
+				parent.getParent().setLeft(node);
+			}
+			else {
+				parent.getParent().setRight(node);
+			}
+		}
+		node.setParent(parent.getParent());
+		parent.setParent(node);
+		// Fix heights of node and of parent.
+		parent.setHeight(1 + Math.max(parent.getLeft().getHeight(), parent.getRight().getHeight()));
+		node.setHeight(1 + Math.max(node.getLeft().getHeight(), node.getRight().getHeight()));
+		// Fix sizes of node and of parent.
+		this.fieldCorrect(parent);
+		this.fieldCorrect(node);
+	}
+  
+	/*
+	 * Helper function for insert() & joinRebalance().
+	 * Given inserted node, re-balance the tree upwards until it is balanced.
+	 * Return # of re-balance operations made.
+	 * Sizes, mins and maxes are already correct (see fieldCorrectUp()), so we stop
+	 * as soon as a rotation is made or no promotion is needed.
+	 * Complexity O(logn). 
+	 */
+	private int insertRebalance(IAVLNode node) {
+		int count = 0;
+		IAVLNode p = node.getParent();
+		while (p != null && p.getHeight() == node.getHeight()) { // While there exists a problem in the tree
+			boolean onLeft = p.getLeft() == node;
+			IAVLNode other = onLeft ? p.getRight() : p.getLeft();
+			if (p.getHeight() == other.getHeight() + 1) { // If the other node has a diff. of 1
+				p.setHeight(p.getHeight() + 1); // Promote parent and re-balance upwards.
+				count += 1;
+				if (this.metrics != null) {
+					this.metrics.heightChanged(1);
+				}
+				node = p;
+				p = node.getParent();
+				continue;
+			}
+			// The outer son is on the same side of node as node is of p.
+			IAVLNode outer = onLeft ? node.getLeft() : node.getRight();
+			IAVLNode inner = onLeft ? node.getRight() : node.getLeft();
+			if (node.getHeight() == outer.getHeight() + 1 && node.getHeight() == inner.getHeight() + 2) {
+				// Rotate node over p, demote parent, promote node.
+				this.rotate(node);
+				count += 3;
+			}
+			else {
+				// Rotate inner twice, demote parent and node, promote inner.
+				this.rotate(inner);
+				this.rotate(inner);
+				count += 5;
+			}
+			break; // Problem solved, the rotated sub-tree has its old height.
+		}
+		return count;
+	}
+  
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree.
+	 * The tree must remain valid, i.e. keep its invariants.
+	 * Returns the number of re-balancing operations, or 0 if no re-balancing operations were necessary.
+	 * A promotion/rotation counts as one re-balance operation, double-rotation is counted as 2.
+	 * Returns -1 if an item with key k already exists in the tree.
+	 * Handles height and size corrections for the nodes in the tree after the insertion.
+	 * Complexity O(logn).
+	 */
+	public int insert(int k, String i) {
+	   TreeMetrics metrics = this.metrics;
+	   if (metrics == null) {
+		   return this.insertAt(this.nodeSearch(k, this.root), k, i);
+	   }
+	   long start = System.nanoTime();
+	   int count = this.insertAt(this.nodeSearch(k, this.root), k, i);
+	   metrics.record(TreeMetrics.Operation.INSERT, start, count);
+	   return count;
+   }
+
+	/*
+	 * Helper function for insert() & Cursor.insert().
+	 * Inserts an item with key k and info i under parent, the node where the search for k ended
+	 * (null if the tree is empty). Returns as insert().
+	 * Complexity O(logn).
+	 */
+	private int insertAt(IAVLNode parent, int k, String i) {
+	   if (parent == null) { // Special case for insertion when tree is empty.
+		   this.root = this.newNode(k, i, null);
+		   this.fieldCorrect(this.root);
+		   this.modCount++;
+		   return 0;
+	   }
+	   if (parent.getKey() == k) { // Make sure key isn't in tree
+		   return -1;
+	   }
+	   else {
+		   IAVLNode child = this.newNode(k, i, parent); // Create new node (or reuse a deleted one)
+		   if (parent.getKey() > k) { // Insert on the left side of parent
+			   parent.setLeft(child); 
+		   }
+		   else {
+			   parent.setRight(child);
+		   }
+		   this.modCount++;
+		   this.fieldCorrectUp(child); // Validate fields of nodes.
+		   return this.insertRebalance(child); // Re-balance.
+		   }
+   } 	   
+
+	/* 
+	 * Helper function for delete().
+	 * @pre: parentNode != null && targetNode != null
+	 * Returns the height differences between two nodes
+	 */
+   private int nodeDistance(IAVLNode node1, IAVLNode node2) {
+	   return Math.abs(node1.getHeight() - node2.getHeight());
+   }
+
+   /*
+	 * Helper function for delete().
+	 * Given the parent of a removed node, re-balance the tree upwards until it is balanced.
+	 * Return # of re-balance operations made.
+	 * Sizes, mins and maxes are already correct (see fieldCorrectUp()), so we stop
+	 * as soon as the height of a sub-tree is kept.
+	 * Complexity O(logn). 
+	 *
+	 * Cases to rebalance:
+	 * 1. (2,2)
+	 * 2. (3,1) -> (1,1)
+	 * 3. (3,1) -> (2,1)
+	 * 4. (3,1) -> (1,2)
+	 */
+   private int deleteRebalance(IAVLNode node) {
+	   int count = 0;
+	   while (node != null) {
+		   IAVLNode leftNode = node.getLeft();
+		   IAVLNode rightNode = node.getRight();
+
+		   int leftDiff = nodeDistance(leftNode, node);
+		   int rightDiff = nodeDistance(rightNode, node);
+
+		   if (leftDiff == 2 && rightDiff == 2) { // case 1
+			   node.setHeight(node.getHeight() - 1); // Demote node
+			   count += 1;
+			   if (this.metrics != null) {
+				   this.metrics.heightChanged(-1);
+			   }
+			   node = node.getParent(); // Problem is either fixed or moved up
+		   }
+
+		   else if (leftDiff == 3 && rightDiff == 1) { // The base case is (3,1)
+			   IAVLNode rightRightNode = rightNode.getRight();
+			   IAVLNode rightLeftNode = rightNode.getLeft();
+
+			   int rightRightDiff = nodeDistance(rightNode, rightRightNode);
+			   int rightLeftDiff = nodeDistance(rightNode, rightLeftNode);
+
+			   if (rightLeftDiff == 1 && rightRightDiff == 1) { // case 2 [(3,1) -> (1,1)] - rotate left, demote node, promote its right son
+				   this.rotate(rightNode);
+				   count += 3;
+				   break; // Problem solved, height is kept.
+			   }
+			   else if (rightLeftDiff == 2 && rightRightDiff == 1) { // case 3 [(3,1) -> (2,1)]- rotate left, demote z twice
+				   this.rotate(rightNode);
+				   count += 3;
+				   node = rightNode.getParent(); // Problem is either fixed or moved up
+			   }
+			   else { // case 4 [(3,1) -> (1,2)] - double rotation (we trust here that the previous tree was correct)
+				   this.rotate(rightLeftNode);
+				   this.rotate(rightLeftNode);
+				   count += 5;
+				   node = rightLeftNode.getParent(); // Problem is either fixed or moved up
+			   }
+		   }
+
+		   else if (leftDiff == 1 && rightDiff == 3) { // now base id (1,3) which is symmetric
+			   IAVLNode leftRightNode = leftNode.getRight();
+			   IAVLNode leftLeftNode = leftNode.getLeft();
+
+			   int leftRightDiff = nodeDistance(leftNode, leftRightNode);
+			   int leftLeftDiff = nodeDistance(leftNode, leftLeftNode);
+
+			   if (leftRightDiff == 1 && leftLeftDiff == 1) { // Symmetric case 2 [(3,1) -> (1,1)] - rotate right, demote rebalanceNode, promote its left son
+				   this.rotate(leftNode);
+				   count += 3;
+				   break; // Problem solved, height is kept.
+			   }
+
+			   else if (leftRightDiff == 2 && leftLeftDiff == 1) { // case 3 [(3,1) -> (2,1)] - rotate right, demote twice
+				   this.rotate(leftNode);
+				   count += 3;
+				   node = leftNode.getParent(); // Problem is either fixed or moved up
+			   }
+
+			   else { // case 4 [(3,1) -> (1,2)] - double rotation (we trust here that the previous tree was correct)
+				   this.rotate(leftRightNode);
+				   this.rotate(leftRightNode);
+				   count += 5;
+				   node = leftRightNode.getParent(); // Problem is either fixed or moved up
+			   }
+		   }
+
+		   else { // No problem, height of node is kept so the tree is balanced
+			   break;
+		   }
+	   }
+	   return count;
+   }
+
+   /**
+    * public int delete(int k)
+    *
+    * Deletes an item with key k from the binary tree, if it is there.
+    * The tree must remain valid, i.e. keep its invariants.
+    * Returns the number of re-balancing operations, or 0 if no re-balancing operations were necessary.
+    * A promotion/rotation counts as one re-balance operation, double-rotation is counted as 2.
+   	* Returns -1 if an item with key k was not found in the tree.
+   	* Deletion 2 easy cases: 1. leaf - simple removal; 2. unary - bypass
+   	* Deletion complicated case: "healthy" node - find its successor (it has a right node!), replace the node with its
+   	* successor and bypass its original place in the tree (unary node).
+   	*/
+   	public int delete(int k) {
+   		TreeMetrics metrics = this.metrics;
+   		if (metrics == null) {
+   			return this.deleteKey(k);
+   		}
+   		long start = System.nanoTime();
+   		int count = this.deleteKey(k);
+   		metrics.record(TreeMetrics.Operation.DELETE, start, count);
+   		return count;
+   	}
+
+   	/*
+   	 * Helper function for delete().
+   	 * Deletes an item with key k from the tree, if it is there. Returns as delete().
+   	 * Complexity O(logn).
+   	 */
+   	private int deleteKey(int k) {
+   		if (this.empty()) { // Special case when the tree is empty.
+   			return -1;
+   		}
+   		IAVLNode node = nodeSearch(k, this.root); // find the node to delete
+   		if (node.getKey() != k) { // if key does not exist, return -1
+   			return -1;
+   		}
+   		int count = this.deleteNode(node);
+   		this.recycle(node); // node is unlinked now (a successor that took its place was moved, not copied)
+   		return count;
+   	}
+
+   	/*
+   	 * Helper function for delete() & Cursor.delete().
+   	 * Deletes the given node of the tree. Returns as delete().
+   	 * Complexity O(logn).
+   	 */
+   	private int deleteNode(IAVLNode node) {
+   		this.modCount++;
+   		if (this.searchCache != null) {
+   			this.searchCache.remove(node.getKey());
+   		}
+   		if (isLeaf(node)) { // target node is a leaf
+   			if (isRoot(node)) { // We delete the root which is the only node in the tree
+   				this.root = VIRTUAL_NODE;
+   				return 0;
+   			}
+   			else { // target node is not a root
+   				IAVLNode parent = node.getParent(); // target node is not a root
+   				if (isLeftSon(node)) { // target node is a left son
+   					parent.setLeft(VIRTUAL_NODE); // bypass target node
+   				}
+   				else { // target node is a right son
+   					parent.setRight(VIRTUAL_NODE); // bypass target node
+   				}
+   				this.fieldCorrectUp(parent);
+   				return this.deleteRebalance(parent);
+   			}
+   		}
+   		else if (isUnaryRight(node)) { // target node has only right son
+   			if (isRoot(node)) {
+   				this.root = node.getRight();
+   				this.root.setParent(null);
+   				return 0;
+   			}
+   			else { // target node is not a root
+   				IAVLNode parent = node.getParent();
+   				if (isLeftSon(node)) { // target node is a left son
+   					parent.setLeft(node.getRight()); // bypass target node by setting its left son as the new left son of his parent
+   					node.getRight().setParent(parent); // set the right node parent of target as the parent of target
+   				}
+   				else { // target node is a right son
+   					parent.setRight(node.getRight()); // bypass target node by setting its right son as the new right son of his parent
+   					node.getRight().setParent(parent); // set the right node parent of target as the parent of target
+   				}
+   				this.fieldCorrectUp(parent);
+   				return this.deleteRebalance(parent);
+   			}
+   		}
+   		else if (isUnaryLeft(node)) { // target node has only left son
+   			if (isRoot(node)) {
+   				this.root = node.getLeft();
+   				this.root.setParent(null);
+   				return 0;
+   			}
+   			else { // target node is not a root
+   				IAVLNode parent = node.getParent();
+   				if (isLeftSon(node)) { // target node is a left son
+   					parent.setLeft(node.getLeft()); // bypass target node by setting its left son as the new left son of his parent
+   					node.getLeft().setParent(parent); // set the left node parent of target as the parent of target
+   					}
+   				else { // target node is a right son
+   					parent.setRight(node.getLeft()); // bypass target node by setting its left son as the new right son of his parent
+   					node.getLeft().setParent(parent); // set the left node parent of target as the parent of target
+   				}
+   				this.fieldCorrectUp(parent);
+   				return this.deleteRebalance(parent);
+   			}
+   		}
+   		else { // Complicated case - target node has two sons
+   			IAVLNode successorNode = findSuccessor(node); // find the successor  (I know for sure that it has one because the node has right son)
+   			int rebalancingValue = this.deleteNode(successorNode); // The successor has no left son, so this is an easy case
+   			// Now I want to make the successor to become the target node
+   			successorNode.setHeight(node.getHeight()); // set successor height to be target node height
+   			successorNode.setSize(node.getSize()); // set successor size to be target node size
+   			successorNode.setMax(node.getMax());
+   			successorNode.setMin(node.getMin()); // set successor min to be target node min
+   			if (!node.getRight().isRealNode()) { // set the max of successor as itself
+   				successorNode.setMax(successorNode);
+   			}
+   			else { // set successor max to be target node max
+   				successorNode.setMax(node.getMax());
+   			}
+   			if (!node.getLeft().isRealNode()) { // set the min of successor as itself
+   				successorNode.setMin(successorNode);
+   			}
+   			else { // set successor min to be target node min
+   				successorNode.setMin(node.getMin());
+   			}
+   			if (node.getRight() != successorNode){ // for case when successor is target node right son
+   				successorNode.setRight(node.getRight()); // set the successor right son
+   				successorNode.getRight().setParent(successorNode);
+   			}
+   			else {
+   				successorNode.setRight(VIRTUAL_NODE);
+   				successorNode.setSize(node.getLeft().getSize() + 1);
+   			}
+   			if (node.getLeft() != successorNode) { // for cases when successor is target node left son
+   				successorNode.setLeft(node.getLeft()); // set the successor left son
+   				successorNode.getLeft().setParent(successorNode);
+   			}
+   			else {
+   				successorNode.setLeft(VIRTUAL_NODE);
+   				successorNode.setSize(node.getRight().getSize() + 1);
+   			}
+   			this.fieldCorrect(successorNode); // Its sons are final now (this also fixes its aggregate)
+   			if (node.getParent() != null) {
+   				IAVLNode parent = node.getParent(); // target node is not the root
+   				successorNode.setParent(parent); // Set the target node parent as the successors parent
+   				if (parent.getRight() == node) { // set the successor as the parent's new right son
+   					parent.setRight(successorNode);
+   				}
+   				else {  // set the successor is the parent's new left son
+   					parent.setLeft(successorNode);
+   				}
+   				this.fieldCorrectUp(parent); // The successor's old max/min pointers may be cached all the way up
+   			}
+   			else { // target node is the root
+   				successorNode.setParent(null);
+   				this.root = successorNode;
+   			}
+   			return rebalancingValue;
+   		}
+   	}
+
+   	/**
+   	 * public String min()
+   	 *
+   	 * Returns the info of the item with the smallest key in the tree,
+   	 * or null if the tree is empty.
+   	 * Complexity O(1).
+   	 */
+   	public String min()
+   	{
+   		return this.root.getMin().getValue();
+   	}
+
+   	/**
+   	 * public String max()
+   	 *
+   	 * Returns the info of the item with the largest key in the tree,
+   	 * or null if the tree is empty.
+   	 * Complexity O(1).
+   	 */
+   	public String max()
+   	{
+   		return this.root.getMax().getValue();
+   	}
+
+   	/*
+   	 * Helper function for keysToArray().
+   	 * Inserts the keys inorder to arr.
+   	 * Returns the pointer after making the insertions (so we could keep track of where
+   	 * to insert).
+   	 * Complexity O(n) (each node is visited once, constant work in each node).
+   	 */
+   	private int inorderKeys(IAVLNode node, int[] arr, int pointer){
+   		if (node.getLeft().isRealNode()) {
+		   pointer = this.inorderKeys(node.getLeft(), arr, pointer);
+   		}
+   		arr[pointer] = node.getKey();
+   		pointer++;
+   		if (node.getRight().isRealNode()) {
+   			pointer = this.inorderKeys(node.getRight(), arr, pointer);
+   		}
+   		return pointer;
+   	}
+   
+   	/**
+   	 * public int[] keysToArray()
+   	 *
+   	 * Returns a sorted array which contains all keys in the tree,
+   	 * or an empty array if the tree is empty.
+   	 * Complexity O(n).
+   	 */
+   	public int[] keysToArray()
+   	{
+   		if (this.empty()) {
+   			return new int[] {};
+   		}
+   		int[] arr = new int[this.root.getSize()];
+   		this.inorderKeys(this.root, arr, 0);
+   		return arr;
+   		
+   	}
+ 
+   	/*
+   	 * Helper function for infoToArray().
+   	 * Inserts the values inorder to arr.
+   	 * Returns the pointer after making the insertions (so we could keep track of where
+   	 * to insert).
+   	 * Complexity O(n) (each node is visited once, constant work in each node).
+   	 */
+   	private int inorderValues(IAVLNode node, String[] arr, int pointer){
+   		if (node.getLeft().isRealNode()) {
+   			pointer = this.inorderValues(node.getLeft(), arr, pointer);
+   		}
+   		arr[pointer] = node.getValue();
+   		pointer++;
+   		if (node.getRight().isRealNode()) {
+   			pointer = this.inorderValues(node.getRight(), arr, pointer);
+   		}
+   		return pointer;
+   	}
+  
+   	/*
+   	 * public String[] infoToArray()
+   	 *
+   	 * Returns an array which contains all info in the tree,
+   	 * sorted by their respective keys,
+   	 * or an empty array if the tree is empty.
+   	 * Complexity O(n).
+   	 */
+   	public String[] infoToArray()
+   	{
+   		if (this.empty()) {
+   			return new String[] {};
+   		}
+   		String[] arr = new String[this.root.getSize()];
+   		this.inorderValues(this.root, arr, 0);
+   		return arr;
+   	}
+
+   	/*
+   	 * public FrozenAVLTree freeze()
+   	 *
+   	 * Returns an immutable, read-only index over the items of the tree (see FrozenAVLTree),
+   	 * for trees that are built once and then only queried. The tree itself isn't changed.
+   	 * Complexity O(n).
+   	 */
+   	public FrozenAVLTree freeze()
+   	{
+   		return new FrozenAVLTree(this.keysToArray(), this.infoToArray());
+   	}
+
+   	/*
+   	 * public int size()
+   	 *
+   	 * Returns the number of nodes in the tree.
+   	 * Complexity O(1).
+   	 */
+   	public int size()
+   	{
+   		return this.root.getSize();
+   	}
+   
+   	/*
+   	 * public int getRoot()
+   	 *
+   	 * Returns the root AVL node, or null if the tree is empty
+   	 * Complexity O(1).
+   	 */
+   	public IAVLNode getRoot()
+   	{
+   		if (this.empty()) {
+   			return null;
+   		}
+   		return this.root;
+   	}
+
+   	/*
+   	 * public int rank(int k)
+   	 *
+   	 * Returns the number of keys in the tree which are smaller than k
+   	 * (i.e. the 0-based position k has, or would have, in keysToArray()).
+   	 * Uses the size fields of the nodes on the search path.
+   	 * Complexity O(log n).
+   	 */
+   	public int rank(int k)
+   	{
+   		int rank = 0;
+   		IAVLNode node = this.root;
+   		while (node.isRealNode()) {
+   			if (node.getKey() < k) { // node and its left sub-tree are smaller than k
+   				rank += node.getLeft().getSize() + 1;
+   				node = node.getRight();
+   			}
+   			else {
+   				node = node.getLeft();
+   			}
+   		}
+   		return rank;
+   	}
+
+   	/*
+   	 * public IAVLNode select(int i)
+   	 *
+   	 * Returns the node with the i-th smallest key in the tree (0-based, i.e. keysToArray()[i]),
+   	 * or null if i is not in [0, size()).
+   	 * Complexity O(log n).
+   	 */
+   	public IAVLNode select(int i)
+   	{
+   		if (i < 0 || i >= this.size()) {
+   			return null;
+   		}
+   		return this.selectNode(this.root, i);
+   	}
+
+   	/*
+   	 * Helper function for select() & splitNodesAt().
+   	 * Returns the node of rank i (0-based) in the sub-tree rooted by node. 0 <= i < size of the sub-tree.
+   	 * Complexity O(log n).
+   	 */
+   	private IAVLNode selectNode(IAVLNode node, int i) {
+   		while (true) {
+   			int leftSize = node.getLeft().getSize();
+   			if (i == leftSize) {
+   				return node;
+   			}
+   			else if (i < leftSize) {
+   				node = node.getLeft();
+   			}
+   			else { // Skip node and its left sub-tree
+   				i -= leftSize + 1;
+   				node = node.getRight();
+   			}
+   		}
+   	}
+
+   	/*
+   	 * public int countInRange(int lo, int hi)
+   	 *
+   	 * Returns the number of keys k in the tree such that lo <= k < hi.
+   	 * Complexity O(log n).
+   	 */
+   	public int countInRange(int lo, int hi)
+   	{
+   		if (lo >= hi) {
+   			return 0;
+   		}
+   		return this.rank(hi) - this.rank(lo);
+   	}
+
+   	/*
+   	 * public Augmentation augmentation()
+   	 *
+   	 * Returns the augmentation maintained by the tree, or null if it has none.
+   	 * Complexity O(1).
+   	 */
+   	public Augmentation augmentation()
+   	{
+   		return this.augmentation;
+   	}
+
+   	/*
+   	 * Helper function for the operations which move the nodes of t into the tree.
+   	 * Their aggregates are only valid if both trees maintain the same augmentation.
+   	 */
+   	private void checkAugmentation(AVLTree t) {
+   		if (t.augmentation != this.augmentation) {
+   			throw new IllegalArgumentException("trees maintain different augmentations");
+   		}
+   	}
+
+   	/*
+   	 * public long aggregate()
+   	 *
+   	 * Returns the aggregate of all the items of the tree (see Augmentation).
+   	 * Throws IllegalStateException if the tree has no augmentation.
+   	 * Complexity O(1).
+   	 */
+   	public long aggregate()
+   	{
+   		if (this.augmentation == null) {
+   			throw new IllegalStateException("the tree has no augmentation");
+   		}
+   		return this.aggregateOf(this.root);
+   	}
+
+   	/*
+   	 * public long aggregate(int lo, int hi)
+   	 *
+   	 * Returns the aggregate of the items with keys k such that lo <= k < hi, combined in key order.
+   	 * Goes down to the node where the paths to lo and hi split, and then down each path,
+   	 * combining the sub-trees hanging inside the range.
+   	 * Throws IllegalStateException if the tree has no augmentation.
+   	 * Complexity O(log n).
+   	 */
+   	public long aggregate(int lo, int hi)
+   	{
+   		Augmentation a = this.augmentation;
+   		if (a == null) {
+   			throw new IllegalStateException("the tree has no augmentation");
+   		}
+   		if (lo >= hi) {
+   			return a.identity();
+   		}
+   		IAVLNode node = this.root;
+   		while (node.isRealNode() && (node.getKey() < lo || node.getKey() >= hi)) { // Find the split node
+   			node = (node.getKey() < lo) ? node.getRight() : node.getLeft();
+   		}
+   		if (!node.isRealNode()) {
+   			return a.identity();
+   		}
+   		long left = a.identity(); // Items of the left sub-tree which are >= lo, gathered from the biggest down
+   		for (IAVLNode n = node.getLeft(); n.isRealNode(); ) {
+   			if (n.getKey() >= lo) { // n and its right sub-tree are in, and come before what was gathered
+   				left = a.combine(a.combine(a.lift(n.getKey(), n.getValue()), this.aggregateOf(n.getRight())), left);
+   				n = n.getLeft();
+   			}
+   			else {
+   				n = n.getRight();
+   			}
+   		}
+   		long right = a.identity(); // Items of the right sub-tree which are < hi, gathered from the smallest up
+   		for (IAVLNode n = node.getRight(); n.isRealNode(); ) {
+   			if (n.getKey() < hi) { // n and its left sub-tree are in, and come after what was gathered
+   				right = a.combine(right, a.combine(this.aggregateOf(n.getLeft()), a.lift(n.getKey(), n.getValue())));
+   				n = n.getRight();
+   			}
+   			else {
+   				n = n.getLeft();
+   			}
+   		}
+   		return a.combine(a.combine(left, a.lift(node.getKey(), node.getValue())), right);
+   	}
+
+   	/*
+   	 * public IAVLNode percentile(double p)
+   	 *
+   	 * Returns the node holding the p-th percentile key (nearest-rank method, 0 <= p <= 100):
+   	 * the smallest key such that at least p percent of the keys are lesser or equal to it.
+   	 * Returns null if the tree is empty or p is out of range.
+   	 * Complexity O(log n).
+   	 */
+   	public IAVLNode percentile(double p)
+   	{
+   		if (this.empty() || !(p >= 0 && p <= 100)) {
+   			return null;
+   		}
+   		int i = (int) Math.ceil(p / 100 * this.size()) - 1;
+   		return this.select(Math.max(i, 0));
+   	}
+   
+   	/*
+   	 * public AVLTree[] split(int x)
+   	 *
+   	 * splits the tree into 2 trees according to the key x. 
+   	 * Returns an array [t1, t2] with two AVL trees. keys(t1) < x < keys(t2).
+   	 * The nodes are re-linked in place: every ancestor of x becomes the pivot of a join (see splitNodes()),
+   	 * so no node is allocated. The tree itself is left empty.
+   	 * 
+   	 * precondition: search(x) != null (i.e. you can also assume that the tree is not empty)
+   	 * postcondition: none
+   	 * Complexity O(log n).
+   	 */   
+   	public AVLTree[] split(int x)
+   	{
+   		TreeMetrics metrics = this.metrics;
+   		if (metrics == null) {
+   			return this.splitTree(x);
+   		}
+   		long start = System.nanoTime();
+   		AVLTree[] halves = this.splitTree(x);
+   		metrics.record(TreeMetrics.Operation.SPLIT, start, 0);
+   		return halves;
+   	}
+
+   	/*
+   	 * Helper function for split().
+   	 * Splits the tree around x as split() does, and returns the two halves.
+   	 * Complexity O(log n).
+   	 */
+   	private AVLTree[] splitTree(int x)
+   	{
+   		this.modCount++;
+   		this.clearSearchCache();
+   		IAVLNode[] parts = this.splitNodes(this.root, x);
+   		this.root = VIRTUAL_NODE;
+   		return new AVLTree[] {new AVLTree(parts[0], this.augmentation), new AVLTree(parts[2], this.augmentation)};
+   	}
+
+   	/*
+   	 * Helper function for splitAt() & subTree().
+   	 * Splits the detached sub-tree rooted by root into [its first index items, the rest], by the key
+   	 * of rank index (which is joined back to the second part). 0 <= index <= size of the sub-tree.
+   	 * Complexity O(log n).
+   	 */
+   	private IAVLNode[] splitNodesAt(IAVLNode root, int index) {
+   		if (index == root.getSize()) {
+   			return new IAVLNode[] {root, VIRTUAL_NODE};
+   		}
+   		IAVLNode pivot = this.selectNode(root, index);
+   		IAVLNode[] parts = this.splitNodes(root, pivot.getKey());
+   		IAVLNode biggers = this.joinNodes(VIRTUAL_NODE, parts[1], parts[2]);
+   		biggers.setParent(null);
+   		return new IAVLNode[] {parts[0], biggers};
+   	}
+
+   	/*
+   	 * public AVLTree[] splitAt(int index)
+   	 *
+   	 * Splits the tree by rank: returns an array [t1, t2] where t1 holds the index smallest items
+   	 * and t2 the others. The nodes are re-linked in place as in split(), and the tree itself is left empty.
+   	 * Throws IndexOutOfBoundsException if index is not in [0, size()].
+   	 * Complexity O(log n).
+   	 */
+   	public AVLTree[] splitAt(int index)
+   	{
+   		Objects.checkFromToIndex(index, this.size(), this.size());
+   		this.modCount++;
+   		this.clearSearchCache();
+   		IAVLNode root = this.root;
+   		root.setParent(null);
+   		IAVLNode[] parts = this.splitNodesAt(root, index);
+   		this.root = VIRTUAL_NODE;
+   		return new AVLTree[] {new AVLTree(parts[0], this.augmentation), new AVLTree(parts[1], this.augmentation)};
+   	}
+
+   	/*
+   	 * public AVLTree subTree(int fromRank, int toRank)
+   	 *
+   	 * Removes the items of ranks [fromRank, toRank) from the tree and returns them as a new tree.
+   	 * The tree keeps the others (e.g. subTree(0, k) takes out the k smallest items).
+   	 * Two rank splits and a concatenation, all re-linking nodes in place.
+   	 * Throws IndexOutOfBoundsException unless 0 <= fromRank <= toRank <= size().
+   	 * Complexity O(log n).
+   	 */
+   	public AVLTree subTree(int fromRank, int toRank)
+   	{
+   		Objects.checkFromToIndex(fromRank, toRank, this.size());
+   		this.modCount++;
+   		this.clearSearchCache();
+   		IAVLNode root = this.root;
+   		root.setParent(null);
+   		IAVLNode[] prefix = this.splitNodesAt(root, fromRank);
+   		IAVLNode[] range = this.splitNodesAt(prefix[1], toRank - fromRank);
+   		IAVLNode rest = this.joinNodes(prefix[0], range[1]);
+   		rest.setParent(null);
+   		this.root = rest;
+   		return new AVLTree(range[0], this.augmentation);
+   	}
+
+   	/*
+   	 * public List<IAVLNode> subList(int fromRank, int toRank)
+   	 *
+   	 * Returns a read-only view of the nodes of ranks [fromRank, toRank), in key order.
+   	 * Nothing is copied: get(i) is a select(), and iterating walks from node to successor.
+   	 * The view is by rank, so it reflects the tree as it changes (its size is fixed).
+   	 * Throws IndexOutOfBoundsException unless 0 <= fromRank <= toRank <= size().
+   	 * Complexity O(1), then O(log n) per get() and O(1) amortized per iterated node.
+   	 */
+   	public List<IAVLNode> subList(int fromRank, int toRank)
+   	{
+   		Objects.checkFromToIndex(fromRank, toRank, this.size());
+   		return new AbstractList<IAVLNode>() {
+   			public IAVLNode get(int i) {
+   				Objects.checkIndex(i, this.size());
+   				return select(fromRank + i);
+   			}
+
+   			public int size() {
+   				return toRank - fromRank;
+   			}
+
+   			public Iterator<IAVLNode> iterator() {
+   				return new Iterator<IAVLNode>() {
+   					IAVLNode next = (fromRank < toRank) ? select(fromRank) : null;
+   					int left = toRank - fromRank;
+
+   					public boolean hasNext() {
+   						return this.left > 0 && this.next != null;
+   					}
+
+   					public IAVLNode next() {
+   						if (!this.hasNext()) {
+   							throw new NoSuchElementException();
+   						}
+   						IAVLNode node = this.next;
+   						this.left--;
+   						this.next = (this.left > 0) ? findSuccessor(node) : null;
+   						return node;
+   					}
+   				};
+   			}
+   		};
+   	}
+
+   	/*
+   	 * public void concatenate(AVLTree t)
+   	 *
+   	 * Appends t to the tree: all keys of t must be greater than all keys of the tree.
+   	 * Like join() without a pivot (the maximal node of the tree is taken out and used as one).
+   	 * t is left empty.
+   	 * Throws IllegalArgumentException if the keys of t don't all follow the keys of the tree.
+   	 * Complexity O(log n).
+   	 */
+   	public void concatenate(AVLTree t)
+   	{
+   		if (t == this || t.empty()) {
+   			return;
+   		}
+   		this.checkAugmentation(t);
+   		if (!this.empty() && this.root.getMax().getKey() >= t.root.getMin().getKey()) {
+   			throw new IllegalArgumentException("keys of t must be greater than the keys of the tree");
+   		}
+   		this.modCount++;
+   		t.modCount++;
+   		t.clearSearchCache();
+   		IAVLNode l = this.root, r = t.root;
+   		l.setParent(null);
+   		r.setParent(null);
+   		t.root = t.VIRTUAL_NODE;
+   		IAVLNode result = this.joinNodes(l, r);
+   		result.setParent(null);
+   		this.root = result;
+   	}
+   
+   	/*
+   	 * Helper function for join().
+   	 * Re-balances the tree upwards and returns the number of re-balance operations.
+   	 * Sizes, mins and maxes are already correct (see fieldCorrectUp()).
+   	 * Complexity O(|tree.rank - t.rank| + 1)
+   	 */
+   	private int joinRebalance(IAVLNode node) {
+   		int count = 0;
+   		while (true) {
+   			IAVLNode parent = node.getParent();
+   			if (parent == null || node.getHeight() != parent.getHeight()) { // If node == root or we're in balance, we're done
+   				return count;
+   			}
+   			// Get the sibling of the node
+   			IAVLNode other;
+   			if (parent.getLeft() == node) {
+   				other = parent.getRight();
+   			}
+   			else {
+   				other = parent.getLeft();
+   			}
+   			// If parent is (0,1)/(1,0), or if parent is (0,2)/(2,0) node is (1,2)/(2,1), use insertRebalance()
+   			if (parent.getHeight() == other.getHeight() + 1 || (parent.getHeight() == other.getHeight() + 2 &&
+   					!(node.getLeft().getHeight() == node.getRight().getHeight()))) {
+   				return count + insertRebalance(node);
+   			}
+   			else { // Otherwise, rotate on the node and promote it, than continue fixing up
+   				rotate(node);
+   				count += 2;
+   			}
+   		}
+   	}   
+   
+   	/*
+   	 * public int join(IAVLNode x, AVLTree t)
+   	 *
+   	 * joins t and x with the tree. 	
+   	 * Returns the complexity of the operation (|tree.rank - t.rank| + 1).
+   	 *
+   	 * precondition: keys(t) < x < keys() or keys(t) > x > keys(). t/tree might be empty (rank = -1).
+   	 * postcondition: none
+   	 * Complexity O(|tree.rank - t.rank| + 1).
+   	 */   
+   	public int join(IAVLNode x, AVLTree t)
+   	{
+   		TreeMetrics metrics = this.metrics;
+   		if (metrics == null) {
+   			return this.joinTrees(x, t);
+   		}
+   		long start = System.nanoTime();
+   		int cost = this.joinTrees(x, t);
+   		metrics.record(TreeMetrics.Operation.JOIN, start, 0);
+   		return cost;
+   	}
+
+   	/*
+   	 * Helper function for join().
+   	 * Joins t and x with the tree as join() does (the result may end up in t, the higher tree).
+   	 * Returns as join().
+   	 * Complexity O(|tree.rank - t.rank| + 1).
+   	 */
+   	private int joinTrees(IAVLNode x, AVLTree t)
+   	{
+   		this.modCount++;
+   		if (t != null) {
+   			this.checkAugmentation(t);
+   			t.modCount++;
+   		}
+   		// Edge cases:
+   		if (t == null) { // If t is null, insert into this
+   			int cost = this.root.getHeight();
+   			this.insert(x.getKey(), x.getValue());
+   			return cost + 1;
+   		}
+   		if (this.root.getHeight() < t.root.getHeight()) { // We want this to have the greater rank.
+   			return t.joinTrees(x, this);
+   		}
+   		t.clearSearchCache(); // The result is kept in this tree
+   		if (t.empty()) { // If t is empty, insert into this
+   			int cost = this.root.getHeight();
+   			this.insert(x.getKey(), x.getValue());
+   			return cost + 1;
+   		}
+   		IAVLNode b = this.getRoot();
+   		IAVLNode a = t.getRoot();
+   		int cost = b.getHeight() - a.getHeight();
+   		if (b.getKey() > x.getKey()) { // Bigger tree on right, smaller tree on left.
+   			// Get to the first node on the left vertex of tree whose rank isn't greater than the root of t
+   			if (this.nodeDistance(a, b) == 0) {
+   				x.setLeft(a);
+   				x.setRight(b);
+   				a.setParent(x);
+   				b.setParent(x);
+   				x.setHeight(b.getHeight() + 1);
+   				fieldCorrect(x);
+   				x.setParent(null);
+   				this.root = x;
+   				return cost + 1;
+   			}
+   			while (b.getHeight() > a.getHeight() && b.getLeft().isRealNode()) {
+   				b = b.getLeft();
+   			}
+   			if (b.getHeight() <= a.getHeight()) {
+   				// Fix pointer of the tree nodes, and fix height of x
+   				x.setParent(b.getParent());
+   				b.getParent().setLeft(x);
+   				x.setRight(b);
+   				b.setParent(x);
+   				x.setHeight(Math.max(a.getHeight(), b.getHeight())+1);
+   			}
+   			else { // Edge case when b is a (2,1) node with a virtual left son
+   				x.setParent(b);
+   				b.setLeft(x);
+   				x.setRight(VIRTUAL_NODE);
+   				x.setHeight(a.getHeight() + 1);
+   			}
+   			x.setLeft(a);
+			a.setParent(x);
+   		}
+   		else { // Bigger tree on left, smaller tree on right.
+   			// Get to the first node on the right vertex of tree whose rank isn't greater than the root of t
+   			if (this.nodeDistance(a, b) == 0) {
+   				x.setLeft(b);
+   				x.setRight(a);
+   				a.setParent(x);
+   				b.setParent(x);
+   				x.setHeight(b.getHeight() + 1);
+   				fieldCorrect(x);
+   				x.setParent(null);
+   				this.root = x;
+   				return cost + 1;
+   			}
+   			while (b.getHeight() > a.getHeight() && b.getRight().isRealNode()) {
+   				b = b.getRight();
+   			}
+   			if (b.getHeight() <= a.getHeight()) {
+   				// Fix pointer of the tree nodes, and fix height of x
+   				x.setParent(b.getParent());
+   				b.getParent().setRight(x);
+   				x.setLeft(b);
+   				b.setParent(x);
+   				x.setHeight(Math.max(a.getHeight(), b.getHeight())+1);
+   			}
+   			else { // Edge case when b is a (1,2) node with a virtual right son
+   				x.setParent(b);
+   				b.setRight(x);
+   				x.setLeft(VIRTUAL_NODE);
+   				x.setHeight(a.getHeight()+1);
+   			}
+   			x.setRight(a);
+   			a.setParent(x);
+   		}
+   		// Correct sizes and re-balance if needed
+   		this.fieldCorrectUp(x);
+   		int rebalances = this.joinRebalance(x);
+   		if (this.metrics != null) {
+   			this.metrics.rebalances[TreeMetrics.Operation.JOIN.ordinal()] += rebalances;
+   		}
+   		return cost + 1;	   
+   	}
+   
+   	/*
+   	 * Helper function for joinNodes().
+   	 * Standard AVL re-balance of a single node whose sons are balanced and differ in height by at most 2.
+   	 * Corrects the fields of the node, and returns the node that took its place.
+   	 * Complexity O(1).
+   	 */
+   	private IAVLNode rebalanceNode(IAVLNode node) {
+   		IAVLNode l = node.getLeft(), r = node.getRight();
+   		int balance = l.getHeight() - r.getHeight();
+   		if (balance > 1) { // Left-heavy: rotate the left son (after a left rotation of its right son if it's the heavier)
+   			if (l.getLeft().getHeight() < l.getRight().getHeight()) {
+   				this.rotateNode(l.getRight());
+   			}
+   			IAVLNode top = node.getLeft();
+   			this.rotateNode(top);
+   			return top;
+   		}
+   		if (balance < -1) { // Symmetric
+   			if (r.getRight().getHeight() < r.getLeft().getHeight()) {
+   				this.rotateNode(r.getLeft());
+   			}
+   			IAVLNode top = node.getRight();
+   			this.rotateNode(top);
+   			return top;
+   		}
+   		node.setHeight(1 + Math.max(l.getHeight(), r.getHeight()));
+   		this.fieldCorrect(node);
+   		return node;
+   	}
+
+   	/*
+   	 * Helper function for the set operations & split().
+   	 * Joins the detached sub-trees rooted by l and r (keys(l) < x.key < keys(r), parents null) with x as the pivot,
+   	 * and returns the root of the result. Unlike join(), every node is reused (x included) and
+   	 * the root of the tree isn't touched.
+   	 * Complexity O(|l.rank - r.rank| + 1).
+   	 */
+   	private IAVLNode joinNodes(IAVLNode l, IAVLNode x, IAVLNode r) {
+   		int hl = l.getHeight(), hr = r.getHeight();
+   		if (Math.abs(hl - hr) <= 1) { // x can simply be the new root
+   			x.setLeft(l);
+   			x.setRight(r);
+   			l.setParent(x);
+   			r.setParent(x);
+   			x.setParent(null);
+   			x.setHeight(1 + Math.max(hl, hr));
+   			this.fieldCorrect(x);
+   			return x;
+   		}
+   		IAVLNode parent = null;
+   		IAVLNode node;
+   		if (hl > hr) { // Go down the right vertex of l to the first node whose rank isn't greater than r.rank + 1
+   			node = l;
+   			while (node.getHeight() > hr + 1) {
+   				parent = node;
+   				node = node.getRight();
+   			}
+   			x.setLeft(node);
+   			x.setRight(r);
+   			r.setParent(x);
+   			parent.setRight(x);
+   		}
+   		else { // Symmetric, on the left vertex of r
+   			node = r;
+   			while (node.getHeight() > hl + 1) {
+   				parent = node;
+   				node = node.getLeft();
+   			}
+   			x.setLeft(l);
+   			x.setRight(node);
+   			l.setParent(x);
+   			parent.setLeft(x);
+   		}
+   		node.setParent(x);
+   		x.setParent(parent);
+   		x.setHeight(1 + Math.max(x.getLeft().getHeight(), x.getRight().getHeight()));
+   		this.fieldCorrect(x);
+   		IAVLNode top = parent;
+   		while (true) { // Climb back up, correcting fields and rotating where needed
+   			top = this.rebalanceNode(top);
+   			if (top.getParent() == null) {
+   				return top;
+   			}
+   			top = top.getParent();
+   		}
+   	}
+
+   	/*
+   	 * Helper function for the set operations.
+   	 * Joins the detached sub-trees rooted by l and r (keys(l) < keys(r)) without a pivot:
+   	 * the maximal node of l is taken out and used as the pivot.
+   	 * Complexity O(log n).
+   	 */
+   	private IAVLNode joinNodes(IAVLNode l, IAVLNode r) {
+   		if (!l.isRealNode()) {
+   			return r;
+   		}
+   		IAVLNode[] parts = this.splitNodes(l, l.getMax().getKey());
+   		return this.joinNodes(parts[0], parts[1], r);
+   	}
+
+   	/*
+   	 * Helper function for the set operations.
+   	 * Splits the detached sub-tree rooted by root according to the key k.
+   	 * Returns [smallers, node, biggers]: the roots of the detached sub-trees holding the keys smaller
+   	 * and bigger than k, and the detached node whose key is k (null if there is none).
+   	 * The ancestors of k are reused as the join pivots, so no node is allocated.
+   	 * Complexity O(log n).
+   	 */
+   	private IAVLNode[] splitNodes(IAVLNode root, int k) {
+   		IAVLNode node = this.nodeSearch(k, root);
+   		if (node == null) { // The sub-tree is empty
+   			return new IAVLNode[] {root, null, root};
+   		}
+   		IAVLNode smallers = VIRTUAL_NODE, biggers = VIRTUAL_NODE, found = null;
+   		IAVLNode up = node;
+   		if (node.getKey() == k) {
+   			found = node;
+   			smallers = node.getLeft();
+   			biggers = node.getRight();
+   			up = node.getParent();
+   		}
+   		while (up != null) { // Join every ancestor (and its other sub-tree) to the side it belongs to
+   			IAVLNode next = up.getParent();
+   			smallers.setParent(null);
+   			biggers.setParent(null);
+   			if (k < up.getKey()) {
+   				IAVLNode other = up.getRight();
+   				other.setParent(null);
+   				biggers = this.joinNodes(biggers, up, other);
+   			}
+   			else {
+   				IAVLNode other = up.getLeft();
+   				other.setParent(null);
+   				smallers = this.joinNodes(other, up, smallers);
+   			}
+   			up = next;
+   		}
+   		smallers.setParent(null);
+   		biggers.setParent(null);
+   		if (found != null) { // Detach the node itself
+   			found.setLeft(VIRTUAL_NODE);
+   			found.setRight(VIRTUAL_NODE);
+   			found.setParent(null);
+   			found.setHeight(0);
+   			this.fieldCorrect(found);
+   		}
+   		return new IAVLNode[] {smallers, found, biggers};
+   	}
+
+   	/*
+   	 * Helper function for the set operations.
+   	 * Detaches the sons of node, and returns them as [left, right].
+   	 * Complexity O(1).
+   	 */
+   	private IAVLNode[] detachSons(IAVLNode node) {
+   		IAVLNode l = node.getLeft(), r = node.getRight();
+   		l.setParent(null);
+   		r.setParent(null);
+   		return new IAVLNode[] {l, r};
+   	}
+
+   	/*
+   	 * Helper function for union().
+   	 * Returns the root of the union of the detached sub-trees rooted by a and b, reusing their nodes
+   	 * (for keys in both, the node of a is kept). Recurses in parallel while the sub-trees are big.
+   	 * Complexity O(m log(n/m + 1)) for sub-trees of sizes m <= n.
+   	 */
+   	private IAVLNode unionNodes(IAVLNode a, IAVLNode b, boolean parallel) {
+   		if (!a.isRealNode()) {
+   			return b;
+   		}
+   		if (!b.isRealNode()) {
+   			return a;
+   		}
+   		if (b.getSize() == 1) { // Cheaper to just insert the leaf than to split around every node on its way
+   			return this.insertLeaf(a, b);
+   		}
+   		IAVLNode[] parts = this.splitNodes(b, a.getKey());
+   		IAVLNode[] sons = this.detachSons(a);
+   		IAVLNode[] halves = this.recurse(SetOperation.UNION, sons[0], parts[0], sons[1], parts[2], parallel);
+   		return this.joinNodes(halves[0], a, halves[1]);
+   	}
+
+   	/*
+   	 * Helper function for unionNodes().
+   	 * Inserts the detached leaf x into the detached sub-tree rooted by root, unless its key is already there,
+   	 * and returns the root of the result (re-balanced like in joinNodes()).
+   	 * Complexity O(log n).
+   	 */
+   	private IAVLNode insertLeaf(IAVLNode root, IAVLNode x) {
+   		IAVLNode parent = this.nodeSearch(x.getKey(), root);
+   		if (parent.getKey() == x.getKey()) { // The info of root's sub-tree is kept
+   			return root;
+   		}
+   		if (x.getKey() < parent.getKey()) {
+   			parent.setLeft(x);
+   		}
+   		else {
+   			parent.setRight(x);
+   		}
+   		x.setParent(parent);
+   		IAVLNode top = parent;
+   		while (true) {
+   			top = this.rebalanceNode(top);
+   			if (top.getParent() == null) {
+   				return top;
+   			}
+   			top = top.getParent();
+   		}
+   	}
+
+   	/*
+   	 * Helper function for intersect().
+   	 * Returns the root of the intersection of the detached sub-trees rooted by a and b, reusing the nodes of a.
+   	 * Recurses in parallel while the sub-trees are big.
+   	 * Complexity O(m log(n/m + 1)) for sub-trees of sizes m <= n.
+   	 */
+   	private IAVLNode intersectNodes(IAVLNode a, IAVLNode b, boolean parallel) {
+   		if (!a.isRealNode() || !b.isRealNode()) {
+   			return VIRTUAL_NODE;
+   		}
+   		IAVLNode[] parts = this.splitNodes(b, a.getKey());
+   		IAVLNode[] sons = this.detachSons(a);
+   		IAVLNode[] halves = this.recurse(SetOperation.INTERSECT, sons[0], parts[0], sons[1], parts[2], parallel);
+   		if (parts[1] != null) { // a's key is in both
+   			return this.joinNodes(halves[0], a, halves[1]);
+   		}
+   		return this.joinNodes(halves[0], halves[1]);
+   	}
+
+   	/*
+   	 * Helper function for difference().
+   	 * Returns the root of the detached sub-tree rooted by a without the keys of the one rooted by b,
+   	 * reusing the nodes of a. Recurses in parallel while the sub-trees are big.
+   	 * Complexity O(m log(n/m + 1)) for sub-trees of sizes m <= n.
+   	 */
+   	private IAVLNode differenceNodes(IAVLNode a, IAVLNode b, boolean parallel) {
+   		if (!a.isRealNode() || !b.isRealNode()) {
+   			return a;
+   		}
+   		if (b.getSize() == 1 && this.nodeSearch(b.getKey(), a).getKey() != b.getKey()) { // Nothing to remove, no need to split
+   			return a;
+   		}
+   		IAVLNode[] parts = this.splitNodes(a, b.getKey());
+   		IAVLNode[] sons = this.detachSons(b);
+   		IAVLNode[] halves = this.recurse(SetOperation.DIFFERENCE, parts[0], sons[0], parts[2], sons[1], parallel);
+   		return this.joinNodes(halves[0], halves[1]);
+   	}
+
+   	/*
+   	 * Helper function for the set operations.
+   	 * Applies op to (a1, b1) and to (a2, b2), and returns both results.
+   	 * If parallel and the sub-trees are big enough, the first is forked to the fork-join pool.
+   	 */
+   	private IAVLNode[] recurse(SetOperation op, IAVLNode a1, IAVLNode b1, IAVLNode a2, IAVLNode b2, boolean parallel) {
+   		if (parallel && a1.getSize() + b1.getSize() + a2.getSize() + b2.getSize() >= PARALLEL_THRESHOLD) {
+   			SetOperationTask first = new SetOperationTask(op, a1, b1);
+   			first.fork();
+   			IAVLNode second = this.apply(op, a2, b2, true);
+   			return new IAVLNode[] {first.join(), second};
+   		}
+   		return new IAVLNode[] {this.apply(op, a1, b1, parallel), this.apply(op, a2, b2, parallel)};
+   	}
+
+   	/*
+   	 * Helper function for the set operations.
+   	 * Applies op to the detached sub-trees rooted by a and b.
+   	 */
+   	private IAVLNode apply(SetOperation op, IAVLNode a, IAVLNode b, boolean parallel) {
+   		switch (op) {
+   			case UNION:
+   				return this.unionNodes(a, b, parallel);
+   			case INTERSECT:
+   				return this.intersectNodes(a, b, parallel);
+   			default:
+   				return this.differenceNodes(a, b, parallel);
+   		}
+   	}
+
+   	/*
+   	 * Helper function for union(), intersect() & difference().
+   	 * Applies op to this tree and t, makes the result this tree and empties t.
+   	 */
+   	private void setOperation(SetOperation op, AVLTree t, boolean parallel) {
+   		if (t == this) { // A tree can't be split against itself
+   			if (op == SetOperation.DIFFERENCE) {
+   				this.root = VIRTUAL_NODE;
+   				this.modCount++;
+   				this.clearSearchCache();
+   			}
+   			return;
+   		}
+   		if (op == SetOperation.UNION) { // The other operations only keep the nodes of this tree
+   			this.checkAugmentation(t);
+   		}
+   		IAVLNode b = t.root;
+   		t.root = t.VIRTUAL_NODE;
+   		t.modCount++;
+   		t.clearSearchCache();
+   		this.setOperation(op, b, parallel);
+   	}
+
+   	/*
+   	 * Helper function for setOperation(), insertAll() & deleteAll().
+   	 * Applies op to this tree and the detached sub-tree rooted by b, and makes the result this tree.
+   	 */
+   	private void setOperation(SetOperation op, IAVLNode b, boolean parallel) {
+   		this.modCount++;
+   		if (op != SetOperation.UNION) { // A union only adds items, and keeps the info of this tree
+   			this.clearSearchCache();
+   		}
+   		IAVLNode a = this.root;
+   		a.setParent(null);
+   		b.setParent(null);
+   		IAVLNode result = parallel ? ForkJoinPool.commonPool().invoke(new SetOperationTask(op, a, b))
+   				: this.apply(op, a, b, false);
+   		result.setParent(null);
+   		this.root = result;
+   	}
+
+   	/*
+   	 * public void union(AVLTree t)
+   	 *
+   	 * Makes this tree the union of itself and t. For keys in both, the info of this tree is kept.
+   	 * Works by splitting and joining, reusing the nodes of both trees. t is left empty.
+   	 * Complexity O(m log(n/m + 1)) where m <= n are the sizes of the trees.
+   	 */
+   	public void union(AVLTree t)
+   	{
+   		this.setOperation(SetOperation.UNION, t, false);
+   	}
+
+   	/*
+   	 * public void union(AVLTree t, boolean parallel)
+   	 *
+   	 * Same as union(t), recursing in parallel on the fork-join common pool if parallel is true.
+   	 */
+   	public void union(AVLTree t, boolean parallel)
+   	{
+   		this.setOperation(SetOperation.UNION, t, parallel);
+   	}
+
+   	/*
+   	 * public void intersect(AVLTree t)
+   	 *
+   	 * Makes this tree the intersection of itself and t, keeping the info of this tree.
+   	 * Works by splitting and joining, reusing the nodes of this tree. t is left empty.
+   	 * Complexity O(m log(n/m + 1)) where m <= n are the sizes of the trees.
+   	 */
+   	public void intersect(AVLTree t)
+   	{
+   		this.setOperation(SetOperation.INTERSECT, t, false);
+   	}
+
+   	/*
+   	 * public void intersect(AVLTree t, boolean parallel)
+   	 *
+   	 * Same as intersect(t), recursing in parallel on the fork-join common pool if parallel is true.
+   	 */
+   	public void intersect(AVLTree t, boolean parallel)
+   	{
+   		this.setOperation(SetOperation.INTERSECT, t, parallel);
+   	}
+
+   	/*
+   	 * public void difference(AVLTree t)
+   	 *
+   	 * Removes the keys of t from this tree.
+   	 * Works by splitting and joining, reusing the nodes of this tree. t is left empty.
+   	 * Complexity O(m log(n/m + 1)) where m <= n are the sizes of the trees.
+   	 */
+   	public void difference(AVLTree t)
+   	{
+   		this.setOperation(SetOperation.DIFFERENCE, t, false);
+   	}
+
+   	/*
+   	 * public void difference(AVLTree t, boolean parallel)
+   	 *
+   	 * Same as difference(t), recursing in parallel on the fork-join common pool if parallel is true.
+   	 */
+   	public void difference(AVLTree t, boolean parallel)
+   	{
+   		this.setOperation(SetOperation.DIFFERENCE, t, parallel);
+   	}
+
+   	/*
+   	 * Helper function for insertAll() & deleteAll().
+   	 * Returns the indices of keys sorted by key, keeping only the first index of every key.
+   	 * Keys and indices are packed into longs (key in the high half), so sorting doesn't box.
+   	 * Complexity O(m) if keys are already strictly increasing, O(m log m) otherwise.
+   	 */
+   	private static int[] sortedDistinct(int[] keys, boolean parallel) {
+   		int m = keys.length;
+   		int[] order = new int[m];
+   		boolean sorted = true;
+   		for (int i = 0; i < m; i++) {
+   			order[i] = i;
+   			sorted &= (i == 0 || keys[i - 1] < keys[i]);
+   		}
+   		if (sorted) {
+   			return order;
+   		}
+   		long[] packed = new long[m];
+   		for (int i = 0; i < m; i++) {
+   			packed[i] = ((long) keys[i] << 32) | i;
+   		}
+   		if (parallel) {
+   			Arrays.parallelSort(packed);
+   		}
+   		else {
+   			Arrays.sort(packed);
+   		}
+   		int distinct = 0;
+   		for (int i = 0; i < m; i++) {
+   			if (i == 0 || (int) (packed[i] >> 32) != (int) (packed[i - 1] >> 32)) { // The first index of a key comes first
+   				order[distinct++] = (int) packed[i];
+   			}
+   		}
+   		return Arrays.copyOf(order, distinct);
+   	}
+
+   	/*
+   	 * Helper function for insertAll() & deleteAll().
+   	 * Returns the root of a detached, perfectly balanced sub-tree holding keys[order[i]] (and values[order[i]]
+   	 * if values isn't null) for every i, order being sorted by key.
+   	 * Without values (deleteAll()) the nodes are only used for their keys, so they are built
+   	 * by a tree without augmentation.
+   	 * Complexity O(m).
+   	 */
+   	private IAVLNode buildBatch(int[] keys, String[] values, int[] order) {
+   		int[] sortedKeys = new int[order.length];
+   		String[] sortedValues = new String[order.length];
+   		for (int i = 0; i < order.length; i++) {
+   			sortedKeys[i] = keys[order[i]];
+   			sortedValues[i] = (values == null) ? null : values[order[i]];
+   		}
+   		AVLTree builder = (values == null) ? new AVLTree() : this;
+   		builder.nodePool = this.nodePool; // Scratch nodes come from (and go back to) the pool too, see deleteAll()
+   		return builder.buildBalanced(sortedKeys, sortedValues, 0, order.length, null);
+   	}
+
+   	/*
+   	 * public int insertAll(int[] keys, String[] values)
+   	 *
+   	 * Inserts the items (keys[i], values[i]) to the tree, as if insert() was called on each one in order:
+   	 * keys already in the tree keep their info, and for keys repeated in the batch the first one wins.
+   	 * The batch is sorted (unless it is already), bulk-built into a tree and merged in with union().
+   	 * Returns the number of items actually inserted.
+   	 * Complexity O(m log m + m log(n/m + 1)) for a batch of m keys (no m log m if it is sorted).
+   	 */
+   	public int insertAll(int[] keys, String[] values)
+   	{
+   		return this.insertAll(keys, values, false);
+   	}
+
+   	/*
+   	 * public int insertAll(int[] keys, String[] values, boolean parallel)
+   	 *
+   	 * Same as insertAll(keys, values), sorting and merging in parallel on the fork-join common pool if parallel is true.
+   	 */
+   	public int insertAll(int[] keys, String[] values, boolean parallel)
+   	{
+   		if (keys.length != values.length) {
+   			throw new IllegalArgumentException("keys and values differ in length");
+   		}
+   		int before = this.size();
+   		this.setOperation(SetOperation.UNION, this.buildBatch(keys, values, sortedDistinct(keys, parallel)), parallel);
+   		return this.size() - before;
+   	}
+
+   	/*
+   	 * public int deleteAll(int[] keys)
+   	 *
+   	 * Deletes the items with the given keys from the tree, ignoring keys that aren't in it.
+   	 * The batch is sorted (unless it is already), bulk-built into a tree and removed with difference().
+   	 * Returns the number of items actually deleted.
+   	 * Complexity O(m log m + m log(n/m + 1)) for a batch of m keys (no m log m if it is sorted).
+   	 */
+   	public int deleteAll(int[] keys)
+   	{
+   		return this.deleteAll(keys, false);
+   	}
+
+   	/*
+   	 * public int deleteAll(int[] keys, boolean parallel)
+   	 *
+   	 * Same as deleteAll(keys), sorting and merging in parallel on the fork-join common pool if parallel is true.
+   	 */
+   	public int deleteAll(int[] keys, boolean parallel)
+   	{
+   		int before = this.size();
+   		IAVLNode batch = this.buildBatch(keys, null, sortedDistinct(keys, parallel));
+   		IAVLNode[] scratch = null;
+   		if (this.nodePool != null && batch.isRealNode()) { // difference() never links the nodes of the batch into the tree
+   			scratch = new IAVLNode[batch.getSize()];
+   			collectNodes(batch, scratch, 0);
+   		}
+   		this.setOperation(SetOperation.DIFFERENCE, batch, parallel);
+   		if (scratch != null) {
+   			for (IAVLNode node : scratch) {
+   				this.recycle(node);
+   			}
+   		}
+   		return before - this.size();
+   	}
+
+   	/*
+   	 * The join-based set operations.
+   	 */
+   	private enum SetOperation {
+   		UNION, INTERSECT, DIFFERENCE
+   	}
+
+   	/**
+   	 * private class SetOperationTask
+   	 *
+   	 * Fork-join task applying a set operation to two detached sub-trees, in parallel.
+   	 */
+   	private class SetOperationTask extends RecursiveTask<IAVLNode> {
+   		final SetOperation op;
+   		final IAVLNode a, b;
+
+   		SetOperationTask(SetOperation op, IAVLNode a, IAVLNode b) {
+   			this.op = op;
+   			this.a = a;
+   			this.b = b;
+   		}
+
+   		protected IAVLNode compute() {
+   			return apply(this.op, this.a, this.b, true);
+   		}
+   	}
+
+   	/*
+   	 * public Cursor cursor()
+   	 *
+   	 * Returns a new cursor (finger) on the tree, for clustered searches and updates.
+   	 * Complexity O(1).
+   	 */
+   	public Cursor cursor()
+   	{
+   		return new Cursor();
+   	}
+
+   	/*
+   	 * public Iterator<IAVLNode> iterator(int lo, int hi)
+   	 *
+   	 * Returns an iterator over the nodes whose keys are in [lo, hi), in ascending key order.
+   	 * The first node is found in O(log n), and every next() costs O(1) amortized
+   	 * (through findSuccessor()), so a page of m nodes costs O(log n + m) and nothing is materialized.
+   	 * The tree must not be modified while iterating.
+   	 */
+   	public Iterator<IAVLNode> iterator(int lo, int hi)
+   	{
+   		return new RangeIterator(this.ceiling(lo), lo, hi, true);
+   	}
+
+   	/*
+   	 * public Iterator<IAVLNode> descendingIterator(int lo, int hi)
+   	 *
+   	 * Returns an iterator over the nodes whose keys are in [lo, hi), in descending key order.
+   	 * Same costs as iterator().
+   	 */
+   	public Iterator<IAVLNode> descendingIterator(int lo, int hi)
+   	{
+   		return new RangeIterator(this.lower(hi), lo, hi, false);
+   	}
+
+   	/*
+   	 * public Spliterator<IAVLNode> spliterator(int lo, int hi)
+   	 *
+   	 * Returns a spliterator over the nodes whose keys are in [lo, hi), in ascending key order,
+   	 * e.g. for StreamSupport.stream(). The range is located by rank in O(log n), and it splits
+   	 * into exact halves by rank (see RankSpliterator), so parallel streams are balanced.
+   	 * The tree must not be modified while iterating.
+   	 */
+   	public Spliterator<IAVLNode> spliterator(int lo, int hi)
+   	{
+   		int from = this.rank(lo);
+   		return new RankSpliterator(from, Math.max(from, this.rank(hi)), null);
+   	}
+
+   	/*
+   	 * public Spliterator<IAVLNode> spliterator()
+   	 *
+   	 * Returns a spliterator over all of the nodes, in ascending key order.
+   	 * Complexity O(1).
+   	 */
+   	public Spliterator<IAVLNode> spliterator()
+   	{
+   		return new RankSpliterator(0, this.size(), null);
+   	}
+
+   	/*
+   	 * public Stream<IAVLNode> stream(boolean parallel)
+   	 *
+   	 * Returns a stream over all of the nodes, in ascending key order.
+   	 * The tree must not be modified while the stream is consumed.
+   	 */
+   	public Stream<IAVLNode> stream(boolean parallel)
+   	{
+   		return StreamSupport.stream(this.spliterator(), parallel);
+   	}
+
+   	/*
+   	 * public void parallelForEach(Consumer<? super IAVLNode> action)
+   	 *
+   	 * Performs action on every node of the tree, in no particular order, on the fork-join common pool.
+   	 * The tree is split by its sub-trees (see IndexedForEachTask).
+   	 * The tree must not be modified until the method returns.
+   	 * Complexity O(n) work, O(n / p + log n) time with p cores.
+   	 */
+   	public void parallelForEach(Consumer<? super IAVLNode> action)
+   	{
+   		this.parallelForEachIndexed((node, i) -> action.accept(node));
+   	}
+
+   	/*
+   	 * public <R> R parallelReduce(R identity, Function<? super IAVLNode, ? extends R> mapper, BinaryOperator<R> combiner)
+   	 *
+   	 * Maps every node and combines the results in key order, on the fork-join common pool:
+   	 * combiner must be associative and identity must be its identity element.
+   	 * Returns identity if the tree is empty.
+   	 * The tree must not be modified until the method returns.
+   	 * Complexity O(n) work, O(n / p + log n) time with p cores.
+   	 */
+   	public <R> R parallelReduce(R identity, Function<? super IAVLNode, ? extends R> mapper, BinaryOperator<R> combiner)
+   	{
+   		return ForkJoinPool.commonPool().invoke(new ReduceTask<R>(this.root, identity, mapper, combiner));
+   	}
+
+   	/*
+   	 * public <R> R[] parallelMapToArray(Function<? super IAVLNode, ? extends R> mapper, IntFunction<R[]> generator)
+   	 *
+   	 * Returns an array holding the mapping of every node, sorted by their respective keys,
+   	 * filled on the fork-join common pool. generator allocates the array given its length.
+   	 * Every sub-tree knows its offset in the array from the sizes of the sub-trees to its left,
+   	 * so the workers never coordinate.
+   	 * The tree must not be modified until the method returns.
+   	 * Complexity O(n) work, O(n / p + log n) time with p cores.
+   	 */
+   	public <R> R[] parallelMapToArray(Function<? super IAVLNode, ? extends R> mapper, IntFunction<R[]> generator)
+   	{
+   		R[] arr = generator.apply(this.size());
+   		this.parallelForEachIndexed((node, i) -> arr[i] = mapper.apply(node));
+   		return arr;
+   	}
+
+   	/*
+   	 * public int[] parallelKeysToArray()
+   	 *
+   	 * Same as keysToArray(), filled on the fork-join common pool.
+   	 * Complexity O(n) work, O(n / p + log n) time with p cores.
+   	 */
+   	public int[] parallelKeysToArray()
+   	{
+   		int[] arr = new int[this.size()];
+   		this.parallelForEachIndexed((node, i) -> arr[i] = node.getKey());
+   		return arr;
+   	}
+
+   	/*
+   	 * public String[] parallelInfoToArray()
+   	 *
+   	 * Same as infoToArray(), filled on the fork-join common pool.
+   	 * Complexity O(n) work, O(n / p + log n) time with p cores.
+   	 */
+   	public String[] parallelInfoToArray()
+   	{
+   		String[] arr = new String[this.size()];
+   		this.parallelForEachIndexed((node, i) -> arr[i] = node.getValue());
+   		return arr;
+   	}
+
+   	/*
+   	 * Helper function for the parallel operations.
+   	 * Performs action on every node with its rank, on the fork-join common pool.
+   	 */
+   	private void parallelForEachIndexed(ObjIntConsumer<IAVLNode> action) {
+   		if (!this.empty()) {
+   			ForkJoinPool.commonPool().invoke(new IndexedForEachTask(this.root, 0, action));
+   		}
+   	}
+
+   	/*
+   	 * Helper function for IndexedForEachTask.
+   	 * Performs action on the nodes of the sub-tree rooted by node inorder, numbering them from pointer.
+   	 * Returns the pointer after the sub-tree.
+   	 * Complexity O(size of the sub-tree).
+   	 */
+   	private int inorderIndexed(IAVLNode node, int pointer, ObjIntConsumer<IAVLNode> action) {
+   		if (node.getLeft().isRealNode()) {
+   			pointer = this.inorderIndexed(node.getLeft(), pointer, action);
+   		}
+   		action.accept(node, pointer);
+   		pointer++;
+   		if (node.getRight().isRealNode()) {
+   			pointer = this.inorderIndexed(node.getRight(), pointer, action);
+   		}
+   		return pointer;
+   	}
+
+   	/**
+   	 * private class IndexedForEachTask
+   	 *
+   	 * Fork-join task performing an action on every node of a (real) sub-tree with its rank in the tree.
+   	 * Big sub-trees fork their left sub-tree and handle the root and the right sub-tree themselves,
+   	 * whose ranks follow from the size of the left sub-tree.
+   	 */
+   	private class IndexedForEachTask extends RecursiveAction {
+   		final IAVLNode node;
+   		final int offset; // Rank of the smallest node of the sub-tree
+   		final ObjIntConsumer<IAVLNode> action;
+
+   		IndexedForEachTask(IAVLNode node, int offset, ObjIntConsumer<IAVLNode> action) {
+   			this.node = node;
+   			this.offset = offset;
+   			this.action = action;
+   		}
+
+   		protected void compute() {
+   			if (this.node.getSize() < PARALLEL_THRESHOLD) {
+   				inorderIndexed(this.node, this.offset, this.action);
+   				return;
+   			}
+   			IAVLNode left = this.node.getLeft(), right = this.node.getRight(); // Both are real in a big sub-tree
+   			IndexedForEachTask leftTask = new IndexedForEachTask(left, this.offset, this.action);
+   			leftTask.fork();
+   			int rank = this.offset + left.getSize();
+   			this.action.accept(this.node, rank);
+   			new IndexedForEachTask(right, rank + 1, this.action).compute();
+   			leftTask.join();
+   		}
+   	}
+
+   	/**
+   	 * private class ReduceTask
+   	 *
+   	 * Fork-join task mapping the nodes of a sub-tree and combining the results in key order.
+   	 */
+   	private class ReduceTask<R> extends RecursiveTask<R> {
+   		final IAVLNode node;
+   		final R identity;
+   		final Function<? super IAVLNode, ? extends R> mapper;
+   		final BinaryOperator<R> combiner;
+
+   		ReduceTask(IAVLNode node, R identity, Function<? super IAVLNode, ? extends R> mapper, BinaryOperator<R> combiner) {
+   			this.node = node;
+   			this.identity = identity;
+   			this.mapper = mapper;
+   			this.combiner = combiner;
+   		}
+
+   		/*
+   		 * Sequentially reduces the sub-tree rooted by node. Complexity O(size of the sub-tree).
+   		 */
+   		private R reduce(IAVLNode node) {
+   			if (!node.isRealNode()) {
+   				return this.identity;
+   			}
+   			R left = this.reduce(node.getLeft());
+   			R middle = this.combiner.apply(left, this.mapper.apply(node));
+   			return this.combiner.apply(middle, this.reduce(node.getRight()));
+   		}
+
+   		protected R compute() {
+   			if (this.node.getSize() < PARALLEL_THRESHOLD) {
+   				return this.reduce(this.node);
+   			}
+   			ReduceTask<R> leftTask = new ReduceTask<R>(this.node.getLeft(), this.identity, this.mapper, this.combiner);
+   			leftTask.fork();
+   			R right = new ReduceTask<R>(this.node.getRight(), this.identity, this.mapper, this.combiner).compute();
+   			R middle = this.mapper.apply(this.node);
+   			return this.combiner.apply(this.combiner.apply(leftTask.join(), middle), right);
+   		}
+   	}
+
+   	/**
+   	 * private class RankSpliterator
+   	 *
+   	 * Spliterator over the nodes whose ranks are in [from, to).
+   	 * Splitting cuts the rank range in exact halves (the first node of a half is located
+   	 * through select() in O(log n) when it is first needed), and advancing walks through findSuccessor().
+   	 */
+   	private class RankSpliterator implements Spliterator<IAVLNode> {
+   		int from;
+   		final int to;
+   		IAVLNode current; // The node whose rank is from, or null if it wasn't located yet
+
+   		RankSpliterator(int from, int to, IAVLNode current) {
+   			this.from = from;
+   			this.to = to;
+   			this.current = current;
+   		}
+
+   		public boolean tryAdvance(Consumer<? super IAVLNode> action) {
+   			if (this.from >= this.to) {
+   				return false;
+   			}
+   			if (this.current == null) {
+   				this.current = select(this.from);
+   			}
+   			IAVLNode node = this.current;
+   			this.from++;
+   			this.current = (this.from < this.to) ? findSuccessor(node) : null;
+   			action.accept(node);
+   			return true;
+   		}
+
+   		public void forEachRemaining(Consumer<? super IAVLNode> action) {
+   			while (this.tryAdvance(action)) {
+   			}
+   		}
+
+   		public Spliterator<IAVLNode> trySplit() {
+   			int remaining = this.to - this.from;
+   			if (remaining < 2) {
+   				return null;
+   			}
+   			int mid = this.from + remaining / 2;
+   			RankSpliterator prefix = new RankSpliterator(this.from, mid, this.current);
+   			this.from = mid;
+   			this.current = null;
+   			return prefix;
+   		}
+
+   		public long estimateSize() {
+   			return this.to - this.from;
+   		}
+
+   		public int characteristics() {
+   			return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL
+   					| Spliterator.SIZED | Spliterator.SUBSIZED;
+   		}
+
+   		public Comparator<? super IAVLNode> getComparator() {
+   			return KEY_ORDER;
+   		}
+   	}
+
+   	/**
+   	 * public class Cursor
+   	 *
+   	 * A finger on the tree: remembers the node of its last operation, and starts the next one from there.
+   	 * It climbs from that node to the lowest ancestor whose sub-tree (by its min and max) spans the key,
+   	 * and descends from it, so an operation d ranks away from the last one costs O(log d) instead of O(log n).
+   	 * If the tree was changed other than through this cursor, the next operation starts from the root.
+   	 */
+   	public class Cursor {
+   		private IAVLNode node; // null until the first operation
+   		private int expectedModCount;
+
+   		private Cursor() {
+   			this.expectedModCount = modCount;
+   		}
+
+   		/*
+   		 * Returns the node to start the search for k from: the lowest ancestor of the last node
+   		 * whose sub-tree spans k, or the root.
+   		 * Complexity O(log d).
+   		 */
+   		private IAVLNode start(int k) {
+   			IAVLNode start = this.node;
+   			if (start == null || this.expectedModCount != modCount) {
+   				return root;
+   			}
+   			while (start.getParent() != null && (k < start.getMin().getKey() || k > start.getMax().getKey())) {
+   				start = start.getParent();
+   			}
+   			return start;
+   		}
+
+   		/*
+   		 * Returns the node whose key is k, or the node where the search for k ended (null if the tree is empty),
+   		 * and moves the cursor to it.
+   		 * Complexity O(log d).
+   		 */
+   		private IAVLNode seek(int k) {
+   			IAVLNode found = nodeSearch(k, this.start(k));
+   			this.node = found;
+   			this.expectedModCount = modCount;
+   			return found;
+   		}
+
+   		/**
+   		 * public String search(int k)
+   		 *
+   		 * Same as AVLTree.search(k), starting from the last position of the cursor.
+   		 * Complexity O(log d), d being the rank distance from the last position.
+   		 */
+   		public String search(int k) {
+   			IAVLNode found = this.seek(k);
+   			return (found != null && found.getKey() == k) ? found.getValue() : null;
+   		}
+
+   		/**
+   		 * public int insert(int k, String i)
+   		 *
+   		 * Same as AVLTree.insert(k, i), starting from the last position of the cursor.
+   		 * The cursor is left on the inserted item.
+   		 * Complexity O(log d) to find the position, plus the re-balancing (O(1) amortized).
+   		 */
+   		public int insert(int k, String i) {
+   			int count = insertAt(this.seek(k), k, i);
+   			if (count >= 0) { // The new node is next to the old position, even if rotations moved that one down
+   				this.expectedModCount = modCount;
+   				this.seek(k);
+   			}
+   			return count;
+   		}
+
+   		/**
+   		 * public int delete(int k)
+   		 *
+   		 * Same as AVLTree.delete(k), starting from the last position of the cursor.
+   		 * The cursor is left on a neighbor of the deleted item.
+   		 * Complexity O(log d) to find the item, plus the re-balancing (O(1) amortized).
+   		 */
+   		public int delete(int k) {
+   			IAVLNode found = this.seek(k);
+   			if (found == null || found.getKey() != k) {
+   				return -1;
+   			}
+   			IAVLNode neighbor = findSuccessor(found);
+   			if (neighbor == null) {
+   				neighbor = findPredecessor(found);
+   			}
+   			int count = deleteNode(found);
+   			recycle(found);
+   			this.node = neighbor; // Stays in the tree (a successor is moved, not copied)
+   			this.expectedModCount = modCount;
+   			return count;
+   		}
+
+   		/**
+   		 * public IAVLNode current()
+   		 *
+   		 * Returns the node the cursor is on, or null if it has none or the tree was changed
+   		 * other than through this cursor.
+   		 * Complexity O(1).
+   		 */
+   		public IAVLNode current() {
+   			return (this.expectedModCount == modCount) ? this.node : null;
+   		}
+   	}
+
+   	/**
+   	 * static final class NodePool
+   	 *
+   	 * Free list of deleted nodes waiting for reuse, linked through their parent fields.
+   	 */
+   	static final class NodePool {
+   		final int capacity; // Maximal number of nodes in the list
+   		AVLNode head; // null if the list is empty
+   		int size;
+
+   		NodePool(int capacity) {
+   			this.capacity = capacity;
+   		}
+   	}
+
+   	/**
+   	 * private class RangeIterator
+   	 *
+   	 * Iterator over the nodes of a key range, in either direction.
+   	 * Holds only the next node to return, and walks the tree through the parent pointers.
+   	 */
+   	private class RangeIterator implements Iterator<IAVLNode> {
+   		IAVLNode next;
+   		final int lo, hi;
+   		final boolean ascending;
+
+   		/*
+   		 * Constructor for a RangeIterator starting at first (null if the range is empty). O(1) complexity.
+   		 */
+   		RangeIterator(IAVLNode first, int lo, int hi, boolean ascending) {
+   			this.lo = lo;
+   			this.hi = hi;
+   			this.ascending = ascending;
+   			this.next = this.inRange(first) ? first : null;
+   		}
+
+   		/*
+   		 * Returns true if node isn't null and its key is in [lo, hi). O(1) complexity.
+   		 */
+   		private boolean inRange(IAVLNode node) {
+   			return node != null && node.getKey() >= this.lo && node.getKey() < this.hi;
+   		}
+
+   		public boolean hasNext() {
+   			return this.next != null;
+   		}
+
+   		public IAVLNode next() {
+   			IAVLNode node = this.next;
+   			if (node == null) {
+   				throw new NoSuchElementException();
+   			}
+   			IAVLNode following = this.ascending ? findSuccessor(node) : findPredecessor(node);
+   			this.next = this.inRange(following) ? following : null;
+   			return node;
+   		}
+   	}
+   
+   	/** 
+	 * public interface IAVLNode
+	 * ! Do not delete or modify this - otherwise all tests will fail !
+	 */
+	public interface IAVLNode{	
+		public int getKey(); // Returns this's key (for virtual node return -1).
+		public String getValue(); // Returns this's value [info], for virtual node returns null.
+		public void setLeft(IAVLNode node); // Sets left child.
+		public IAVLNode getLeft(); // Returns left child, if there is no left child returns null.
+		public void setRight(IAVLNode node); // Sets right child.
+		public IAVLNode getRight(); // Returns right child, if there is no right child return null.
+		public void setParent(IAVLNode node); // Sets parent.
+		public IAVLNode getParent(); // Returns the parent, if there is no parent return null.
+		public boolean isRealNode(); // Returns True if this is a non-virtual AVL node.
+    	public void setHeight(int height); // Sets the height of this.
+    	public int getHeight(); // Returns the height of this (-1 for virtual nodes).
+    	public void setSize(int size); // Sets the size of the sub-tree rooted by this.
+    	public int getSize(); // Returns the size of the sub-tree rooted by this.
+    	public void setMin(IAVLNode node); // Sets the minimal node in the sub-tree rooted by this.
+    	public IAVLNode getMin(); // Returns the minimal node in the sub-tree rooted by this.
+    	public void setMax(IAVLNode node); // Sets the maximal node in the sub-tree rooted by this.
+    	public IAVLNode getMax(); // Returns the maximal node in the sub-tree rooted by this.
+	}
+
+	/** 
+	 * public class AVLNode
+	 *
+	 * If you wish to implement classes other than AVLTree
+	 * (for example AVLNode), do it in this file, not in another file. 
+	 * 
+	 * This class can and MUST be modified (It must implement IAVLNode).
+	 */
+	public class AVLNode implements IAVLNode{
+		/* Each node holds a key, a value, its height, its size, its sons and its parent.
+		 * height(node) = max(height(left), height(right)) + 1
+		 * size(node) = 1 + size(left) + size(right)
+	  	 * Each node also holds the minimal and maximal nodes of its sub-tree,
+	  	 * and the aggregate of its sub-tree if the tree has an augmentation.
+	  	 */
+	  	int key, height, size;  
+		long aggregate;
+		String value;
+		IAVLNode left, right, parent, min, max;
+
+		/*
+		 * A constructor for an AVLNode. O(1) complexity.
+		 * Special case - the node is virtual (hence its size is 0, its height is -1 and
+		 * its l and r sons are null)
+		 */
+		public AVLNode(int k, String v, IAVLNode l, IAVLNode r, IAVLNode p) {
+			this.left = l;
+			this.right = r;
+			this.parent = p;
+			this.min = this.max = this;
+			if (l == null && r == null) {
+				this.key = -1; // As IAVLNode says, though isRealNode() tests the height (-1 is a valid key)
+				this.height = -1;
+				this.size = 0;
+			}
+			else {
+				this.height = Math.max(l.getHeight(), r.getHeight()) + 1;
+				this.size = 1 + l.getSize() + r.getSize();
+				this.key = k;
+				this.value = v;
+			}
+		}
+	  
+		/*
+		 * Returns the key of an AVLNode. O(1) complexity.
+		 */
+	  	public int getKey()
+		{
+			return this.key;
+		}
+	  	
+		/*
+		 * Returns the value of an AVLNode. O(1) complexity.
+		 */	  	
+		public String getValue()
+		{
+			return this.value;
+		}
+		
+		/*
+		 * Sets the left child of an AVLNode. O(1) complexity.
+		 */
+		public void setLeft(IAVLNode node)
+		{
+			this.left = node;
+		}
+		
+		/*
+		 * Returns the left child of an AVLNode. O(1) complexity.
+		 */
+		public IAVLNode getLeft()
+		{
+			return this.left;
+		}
+		
+		/*
+		 * Sets the right child of an AVLNode. O(1) complexity.
+		 */
+		public void setRight(IAVLNode node)
+		{
+			this.right = node;
+		}
+		
+		/*
+		 * Returns the right child of an AVLNode. O(1) complexity.
+		 */
+		public IAVLNode getRight()
+		{
+			return this.right;
+		}
+		
+		/*
+		 * Sets the parent of an AVLNode. O(1) complexity.
+		 */
+		public void setParent(IAVLNode node)
+		{
+			this.parent = node;
+		}
+		
+		/*
+		 * Returns the parent of an AVLNode. O(1) complexity.
+		 */
+		public IAVLNode getParent()
+		{
+			return this.parent;
+		}
+		
+		/*
+		 * Returns true if the node isn't virtual. O(1) complexity.
+		 */
+		public boolean isRealNode()
+		{
+			return this.height > -1;
+		}
+	    
+		/*
+		 * Sets the height of an AVLNode. O(1) complexity.
+		 */
+		public void setHeight(int height)
+	    {
+			this.height = height;
+	    }
+	    
+		/*
+		 * Returns the height of an AVLNode. O(1) complexity.
+		 */
+		public int getHeight()
+	    {
+	      return this.height;
+	    }
+		
+		/*
+		 * Sets the size of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 */
+		public void setSize(int size) {
+			this.size = size;
+		}
+		
+		/*
+		 * Returns the size of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 */
+		public int getSize() {
+			return this.size;
+		}
+		
+		/*
+		 * Sets the minimal node of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 * Maintenance is kept by insert(), delete(), join(), split().
+		 */
+		public void setMin(IAVLNode node) {
+			this.min = node;
+		}
+		
+		/*
+		 * Returns the minimal node of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 * Maintenance is kept by insert(), delete(), join(), split().
+		 */
+		public IAVLNode getMin() {
+			return this.min;
+		}
+
+		/*
+		 * Sets the maximal node of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 * Maintenance is kept by insert(), delete(), join(), split().
+		 */
+		public void setMax(IAVLNode node) {
+			this.max = node;
+		}
+		
+		/*
+		 * Returns the maximal node of the sub-tree rooted by an AVLNode. O(1) complexity.
+		 * Maintenance is kept by insert(), delete(), join(), split().
+		 */
+		public IAVLNode getMax() {
+			return this.max;
+		}
+	}
+}
@@ -0,0 +1,425 @@
+package avl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ *
+ * AVLTreeSnapshot
+ *
+ * A read-only, memory-mapped binary snapshot of an AVLTree.
+ * write() saves a tree in O(n), and open() maps a saved snapshot in O(1) (nothing is read up front):
+ * the snapshot answers search() directly from the mapping with a binary search, or toTree()
+ * bulk-loads it back into an AVLTree in O(n), instead of n insertions.
+ *
+ * File layout (little-endian, every section 8-byte aligned):
+ *   header   magic "AVLS", version, n (ints), then the length of the blob (long)
+ *   keys     the n keys in increasing order (ints)
+ *   ends     for every item, the offset in the blob at which its info ends (longs).
+ *            The info of item i starts at ends[i - 1] (0 for the first), and an item whose info
+ *            is null has an empty info and its end stored complemented (~end).
+ *   blob     the UTF-8 bytes of all of the info, in key order
+ *
+ * Files of any size are mapped in chunks of up to 1GB, so the only limit is n < 2^31.
+ * A snapshot can be read from any number of threads.
+ *
+ */
+
+public class AVLTreeSnapshot implements Closeable {
+	static final int MAGIC = 0x534C5641; // "AVLS" in little-endian
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 24;
+	static final int CHUNK_SHIFT = 30; // 1GB per mapping, a multiple of 8 so that no key or end straddles two chunks
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] chunks;
+	private final int size;
+	private final long keysOffset, endsOffset, blobOffset;
+
+	/*
+	 * Constructor for a snapshot of size items, mapped from channel.
+	 * Complexity O(1).
+	 */
+	private AVLTreeSnapshot(FileChannel channel, MappedByteBuffer[] chunks, int size) {
+		this.channel = channel;
+		this.chunks = chunks;
+		this.size = size;
+		this.keysOffset = HEADER_BYTES;
+		this.endsOffset = align(this.keysOffset + 4L * size);
+		this.blobOffset = this.endsOffset + 8L * size;
+	}
+
+	/*
+	 * Rounds offset up to a multiple of 8.
+	 */
+	static long align(long offset) {
+		return (offset + 7) & ~7L;
+	}
+
+	/**
+	 * public static void write(AVLTree tree, Path file)
+	 *
+	 * Saves the items of tree to file, replacing it if it exists.
+	 * The snapshot is written to a temporary file in the same directory, forced to the disk,
+	 * and only then moved over file, so that a crash never leaves a partial snapshot behind.
+	 * Complexity O(n), nothing but buffers of fixed size is allocated on the way.
+	 */
+	public static void write(AVLTree tree, Path file) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		int n = tree.size();
+		long endsOffset = align(HEADER_BYTES + 4L * n);
+		long blobOffset = endsOffset + 8L * n;
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Output keys = new Output(channel, HEADER_BYTES);
+			Output ends = new Output(channel, endsOffset);
+			Output blob = new Output(channel, blobOffset);
+			long end = 0;
+			for (AVLTree.IAVLNode node = tree.ceiling(Integer.MIN_VALUE); node != null; node = tree.successor(node)) {
+				keys.putInt(node.getKey());
+				String info = node.getValue();
+				if (info == null) {
+					ends.putLong(~end);
+				}
+				else {
+					byte[] bytes = info.getBytes(StandardCharsets.UTF_8);
+					blob.put(bytes);
+					end += bytes.length;
+					ends.putLong(end);
+				}
+			}
+			keys.flush();
+			ends.flush();
+			blob.flush();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(0).putLong(end).flip();
+			writeFully(channel, header, 0);
+			channel.force(true);
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		forceDirectory(file.toAbsolutePath().getParent());
+	}
+
+	/*
+	 * Helper function for write().
+	 * Forces the entries of directory (e.g. a rename into it) to the disk, so that the new snapshot
+	 * is durable before the caller goes on (DurableAVLTree empties its log right after).
+	 * Best effort: some platforms (e.g. Windows) can't open a directory as a channel, and there the
+	 * IOException is ignored, so the rename is only guaranteed to be durable where a directory fsync is supported.
+	 */
+	private static void forceDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+		catch (IOException e) { // The directory can't be opened or forced on this platform
+		}
+	}
+
+	/*
+	 * Helper function for write().
+	 * Writes all of the remaining bytes of buffer to channel, starting at position.
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * public static AVLTreeSnapshot open(Path file)
+	 *
+	 * Maps the snapshot saved in file, after checking its header and length.
+	 * Throws an IOException if file isn't a valid snapshot.
+	 * Complexity O(1) (pages are read by the OS when they are first accessed).
+	 */
+	public static AVLTreeSnapshot open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			if (length < HEADER_BYTES) {
+				throw new IOException(file + " is not an AVLTree snapshot (too short)");
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				channel.read(header, header.position()); // The file is long enough, so this never hits its end
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException(file + " is not an AVLTree snapshot (bad magic)");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(file + " has unsupported snapshot version " + version);
+			}
+			int n = header.getInt();
+			header.getInt();
+			long blobLength = header.getLong();
+			if (n < 0 || blobLength < 0 || length != align(HEADER_BYTES + 4L * n) + 8L * n + blobLength) {
+				throw new IOException(file + " is truncated or corrupt (length " + length + ")");
+			}
+			MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+			for (int c = 0; c < chunks.length; c++) {
+				long start = (long) c << CHUNK_SHIFT;
+				chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << CHUNK_SHIFT, length - start));
+				chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new AVLTreeSnapshot(channel, chunks, n);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * public void close()
+	 *
+	 * Closes the file of the snapshot. The mapping itself is released by the JVM
+	 * once the snapshot is unreachable, and the snapshot must not be used after it was closed.
+	 * Complexity O(1).
+	 */
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of items in the snapshot.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the snapshot has no items.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	private int getInt(long position) {
+		return this.chunks[(int) (position >>> CHUNK_SHIFT)].getInt((int) (position & ((1 << CHUNK_SHIFT) - 1)));
+	}
+
+	private long getLong(long position) {
+		return this.chunks[(int) (position >>> CHUNK_SHIFT)].getLong((int) (position & ((1 << CHUNK_SHIFT) - 1)));
+	}
+
+	/**
+	 * public int key(int i)
+	 *
+	 * Returns the key of the item of rank i (0 <= i < size()), i.e. the i-th smallest key.
+	 * Complexity O(1).
+	 */
+	public int key(int i) {
+		return this.getInt(this.keysOffset + 4L * checkIndex(i, this.size));
+	}
+
+	/*
+	 * Helper function for key() & info().
+	 */
+	private static int checkIndex(int i, int size) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("rank " + i + " out of [0, " + size + ")");
+		}
+		return i;
+	}
+
+	/**
+	 * public String info(int i)
+	 *
+	 * Returns the info of the item of rank i (0 <= i < size()).
+	 * Complexity O(length of the info).
+	 */
+	public String info(int i) {
+		long end = this.getLong(this.endsOffset + 8L * checkIndex(i, this.size));
+		if (end < 0) {
+			return null;
+		}
+		long start = (i == 0) ? 0 : this.getLong(this.endsOffset + 8L * (i - 1));
+		if (start < 0) {
+			start = ~start;
+		}
+		byte[] bytes = new byte[(int) (end - start)];
+		long position = this.blobOffset + start;
+		for (int copied = 0; copied < bytes.length; ) { // The info may straddle two chunks
+			int offset = (int) (position & ((1 << CHUNK_SHIFT) - 1));
+			MappedByteBuffer chunk = this.chunks[(int) (position >>> CHUNK_SHIFT)];
+			int count = Math.min(bytes.length - copied, chunk.limit() - offset);
+			chunk.get(offset, bytes, copied, count);
+			copied += count;
+			position += count;
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * public int rank(int k)
+	 *
+	 * Returns the number of keys in the snapshot which are strictly lesser than k.
+	 * Complexity O(log n).
+	 */
+	public int rank(int k) {
+		int lo = 0, hi = this.size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (this.getInt(this.keysOffset + 4L * mid) < k) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the snapshot.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		int i = this.rank(k);
+		return (i < this.size && this.key(i) == k) ? this.info(i) : null;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the snapshot,
+	 * or null if the snapshot is empty.
+	 * Complexity O(1).
+	 */
+	public String min() {
+		return this.empty() ? null : this.info(0);
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the snapshot,
+	 * or null if the snapshot is empty.
+	 * Complexity O(1).
+	 */
+	public String max() {
+		return this.empty() ? null : this.info(this.size - 1);
+	}
+
+	/**
+	 * public AVLTree toTree()
+	 *
+	 * Returns a new AVLTree holding the items of the snapshot, bulk-loaded in key order.
+	 * Complexity O(n).
+	 */
+	public AVLTree toTree() {
+		return this.toTree(null);
+	}
+
+	/**
+	 * public AVLTree toTree(Augmentation augmentation)
+	 *
+	 * Same as toTree(), maintaining the given augmentation for every sub-tree.
+	 * Complexity O(n).
+	 */
+	public AVLTree toTree(Augmentation augmentation) {
+		PrimitiveIterator.OfInt keys = new PrimitiveIterator.OfInt() {
+			int next = 0;
+
+			public boolean hasNext() {
+				return this.next < AVLTreeSnapshot.this.size;
+			}
+
+			public int nextInt() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return AVLTreeSnapshot.this.key(this.next++);
+			}
+		};
+		Iterator<String> values = new Iterator<String>() {
+			int next = 0;
+
+			public boolean hasNext() {
+				return this.next < AVLTreeSnapshot.this.size;
+			}
+
+			public String next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return AVLTreeSnapshot.this.info(this.next++);
+			}
+		};
+		return new AVLTree(keys, values, this.size, augmentation);
+	}
+
+	/**
+	 * private static final class Output
+	 *
+	 * A buffered writer of one section of the file, at consecutive positions of a channel.
+	 */
+	private static final class Output {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		private long position;
+
+		Output(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		void putInt(int value) throws IOException {
+			if (this.buffer.remaining() < 4) {
+				this.flush();
+			}
+			this.buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			if (this.buffer.remaining() < 8) {
+				this.flush();
+			}
+			this.buffer.putLong(value);
+		}
+
+		void put(byte[] bytes) throws IOException {
+			if (this.buffer.remaining() < bytes.length) {
+				this.flush();
+				if (bytes.length > this.buffer.capacity()) { // Too large to be buffered
+					writeFully(this.channel, ByteBuffer.wrap(bytes), this.position);
+					this.position += bytes.length;
+					return;
+				}
+			}
+			this.buffer.put(bytes);
+		}
+
+		void flush() throws IOException {
+			this.buffer.flip();
+			int count = this.buffer.remaining();
+			writeFully(this.channel, this.buffer, this.position);
+			this.position += count;
+			this.buffer.clear();
+		}
+	}
+}
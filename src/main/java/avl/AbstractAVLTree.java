@@ -0,0 +1,312 @@
+package avl;
+
+/**
+ *
+ * AbstractAVLTree
+ *
+ * The key-independent part of an AVL Tree of linked nodes: linking and unlinking nodes,
+ * rotations and re-balancing, sizes, and in-order navigation.
+ * Subclasses hold the keys and info in their own node type (so that primitive keys aren't boxed),
+ * search for keys, and copy an item from a node to another.
+ *
+ * Rebalancing follows the same rules as AVLTree, so insertions and deletions
+ * return the same number of re-balancing operations for the same sequence of operations.
+ * Missing sons are null (height -1, size 0) instead of a virtual node.
+ *
+ */
+
+abstract class AbstractAVLTree<N extends AbstractAVLTree.Node<N>> {
+	N root; // null if the tree is empty
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.root == null;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of nodes in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return size(this.root);
+	}
+
+	/*
+	 * Copies the key and info of from into to (used when a node with two sons is deleted:
+	 * it takes over the item of its successor, and the successor is removed instead).
+	 */
+	abstract void copyItem(N from, N to);
+
+	static int height(Node<?> node) {
+		return (node == null) ? -1 : node.height;
+	}
+
+	static int size(Node<?> node) {
+		return (node == null) ? 0 : node.size;
+	}
+
+	/*
+	 * Helper function for rotate().
+	 * Given a node, corrects its height and size from its sons.
+	 * Complexity O(1).
+	 */
+	private void fieldCorrect(N node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		node.size = 1 + size(node.left) + size(node.right);
+	}
+
+	/*
+	 * Given a child node, rotates the child and its parent, and corrects both of their fields.
+	 * Sets the root if node became the root.
+	 * Complexity O(1).
+	 */
+	private void rotate(N node) {
+		N parent = node.parent;
+		N grandParent = parent.parent;
+		if (parent.right == node) { // If node is on the right of parent.
+			N inner = node.left;
+			parent.right = inner;
+			if (inner != null) {
+				inner.parent = parent;
+			}
+			node.left = parent;
+		}
+		else { // If node is on the left of parent.
+			N inner = node.right;
+			parent.left = inner;
+			if (inner != null) {
+				inner.parent = parent;
+			}
+			node.right = parent;
+		}
+		if (grandParent == null) {
+			this.root = node;
+		}
+		else if (grandParent.left == parent) {
+			grandParent.left = node;
+		}
+		else {
+			grandParent.right = node;
+		}
+		node.parent = grandParent;
+		parent.parent = node;
+		this.fieldCorrect(parent);
+		this.fieldCorrect(node);
+	}
+
+	/*
+	 * Helper function for link() & unlink().
+	 * Adds delta to the sizes of node and all of its ancestors.
+	 * Complexity O(log n).
+	 */
+	private static void addToSizes(Node<?> node, int delta) {
+		while (node != null) {
+			node.size += delta;
+			node = node.parent;
+		}
+	}
+
+	/*
+	 * Links the new leaf child under parent (the last node met when searching for its key,
+	 * or null if the tree is empty), on the left if onLeft, and re-balances the tree.
+	 * Returns the number of re-balancing operations made.
+	 * Complexity O(log n).
+	 */
+	int link(N parent, N child, boolean onLeft) {
+		child.parent = parent;
+		if (parent == null) { // Special case for insertion when tree is empty.
+			this.root = child;
+			return 0;
+		}
+		if (onLeft) {
+			parent.left = child;
+		}
+		else {
+			parent.right = child;
+		}
+		addToSizes(parent, 1);
+		return this.insertRebalance(child);
+	}
+
+	/*
+	 * Helper function for link().
+	 * Given inserted node, re-balances the tree upwards until it is balanced
+	 * (sizes are already correct). Return # of re-balance operations made.
+	 * Complexity O(log n).
+	 */
+	private int insertRebalance(N node) {
+		int count = 0;
+		N parent = node.parent;
+		while (parent != null && parent.height == node.height) {
+			boolean onLeft = parent.left == node;
+			N other = onLeft ? parent.right : parent.left;
+			if (parent.height == height(other) + 1) { // Promote parent and re-balance upwards.
+				parent.height++;
+				count += 1;
+				node = parent;
+				parent = node.parent;
+				continue;
+			}
+			N outer = onLeft ? node.left : node.right;
+			N inner = onLeft ? node.right : node.left;
+			if (node.height == height(outer) + 1 && node.height == height(inner) + 2) { // Single rotation
+				this.rotate(node);
+				count += 3;
+			}
+			else { // Double rotation
+				this.rotate(inner);
+				this.rotate(inner);
+				count += 5;
+			}
+			break; // The rotated sub-tree has its old height, so the problem is solved.
+		}
+		return count;
+	}
+
+	/*
+	 * Removes node from the tree and re-balances it. A node with two sons takes over the item
+	 * of its successor (see copyItem()), and the successor is removed instead.
+	 * Returns the number of re-balancing operations made.
+	 * Complexity O(log n).
+	 */
+	int unlink(N node) {
+		if (node.left != null && node.right != null) { // Two sons - take over the successor
+			N successor = minNode(node.right);
+			this.copyItem(successor, node);
+			node = successor;
+		}
+		N child = (node.left != null) ? node.left : node.right;
+		N parent = node.parent;
+		if (child != null) {
+			child.parent = parent;
+		}
+		if (parent == null) {
+			this.root = child;
+		}
+		else if (parent.left == node) {
+			parent.left = child;
+		}
+		else {
+			parent.right = child;
+		}
+		node.parent = node.left = node.right = null;
+		if (parent == null) { // No re-balancing when the root is removed
+			return 0;
+		}
+		addToSizes(parent, -1);
+		return this.deleteRebalance(parent);
+	}
+
+	/*
+	 * Helper function for unlink().
+	 * Given the parent of a removed node, re-balances the tree upwards until it is balanced
+	 * (sizes are already correct). Return # of re-balance operations made.
+	 * Complexity O(log n).
+	 */
+	private int deleteRebalance(N node) {
+		int count = 0;
+		while (node != null) {
+			N leftNode = node.left, rightNode = node.right;
+			int leftDiff = node.height - height(leftNode);
+			int rightDiff = node.height - height(rightNode);
+			if (leftDiff == 2 && rightDiff == 2) { // Demote node, the problem may move up
+				node.height--;
+				count += 1;
+				node = node.parent;
+			}
+			else if (leftDiff == 3 && rightDiff == 1) {
+				int rightLeftDiff = rightNode.height - height(rightNode.left);
+				int rightRightDiff = rightNode.height - height(rightNode.right);
+				if (rightRightDiff == 1) { // (1,1) or (2,1) - single rotation
+					this.rotate(rightNode);
+					count += 3;
+					node = (rightLeftDiff == 1) ? null : rightNode.parent; // Height is kept only in the (1,1) case
+				}
+				else { // (1,2) - double rotation
+					N rightLeftNode = rightNode.left;
+					this.rotate(rightLeftNode);
+					this.rotate(rightLeftNode);
+					count += 5;
+					node = rightLeftNode.parent;
+				}
+			}
+			else if (leftDiff == 1 && rightDiff == 3) { // Symmetric
+				int leftRightDiff = leftNode.height - height(leftNode.right);
+				int leftLeftDiff = leftNode.height - height(leftNode.left);
+				if (leftLeftDiff == 1) {
+					this.rotate(leftNode);
+					count += 3;
+					node = (leftRightDiff == 1) ? null : leftNode.parent;
+				}
+				else {
+					N leftRightNode = leftNode.right;
+					this.rotate(leftRightNode);
+					this.rotate(leftRightNode);
+					count += 5;
+					node = leftRightNode.parent;
+				}
+			}
+			else { // Height of node didn't change, the tree is balanced
+				break;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Returns the minimal node in the sub-tree rooted by node (null if it is empty). Complexity O(log n).
+	 */
+	static <N extends Node<N>> N minNode(N node) {
+		if (node != null) {
+			while (node.left != null) {
+				node = node.left;
+			}
+		}
+		return node;
+	}
+
+	/*
+	 * Returns the maximal node in the sub-tree rooted by node (null if it is empty). Complexity O(log n).
+	 */
+	static <N extends Node<N>> N maxNode(N node) {
+		if (node != null) {
+			while (node.right != null) {
+				node = node.right;
+			}
+		}
+		return node;
+	}
+
+	/*
+	 * Returns the in-order successor of node, or null if node is the maximum.
+	 * Complexity O(log n), O(1) amortized over a traversal.
+	 */
+	static <N extends Node<N>> N successor(N node) {
+		if (node.right != null) {
+			return minNode(node.right);
+		}
+		N parent = node.parent;
+		while (parent != null && parent.right == node) {
+			node = parent;
+			parent = node.parent;
+		}
+		return parent;
+	}
+
+	/**
+	 * static abstract class Node
+	 *
+	 * The links and fields of a node. Subclasses add the key and info.
+	 */
+	abstract static class Node<N extends Node<N>> {
+		N left, right, parent;
+		int height, size = 1; // A new node is a leaf
+	}
+}
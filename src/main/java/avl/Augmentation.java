@@ -0,0 +1,128 @@
+package avl;
+
+import java.util.function.ToLongFunction;
+
+/**
+ *
+ * Augmentation
+ *
+ * An associative aggregate (a monoid over longs) that an AVLTree maintains for every sub-tree,
+ * next to its size, min and max: the aggregate of a node is
+ * combine(combine(aggregate(left), lift(key, info)), aggregate(right)).
+ * It is kept up to date through insertions, deletions, rotations, joins and splits,
+ * so that AVLTree.aggregate(lo, hi) answers a range query in O(log n).
+ *
+ * combine() must be associative and identity() must be its neutral element.
+ * It doesn't have to be commutative: items are always combined in key order.
+ *
+ */
+
+public interface Augmentation {
+	/*
+	 * Returns the aggregate of no items.
+	 */
+	long identity();
+
+	/*
+	 * Returns the aggregate of the single item (key, info).
+	 */
+	long lift(int key, String info);
+
+	/*
+	 * Returns the aggregate of the items aggregated to left followed by the items aggregated to right.
+	 */
+	long combine(long left, long right);
+
+	/*
+	 * The number of items (with size() that's redundant, but handy for testing).
+	 */
+	Augmentation COUNT = new Augmentation() {
+		public long identity() {
+			return 0;
+		}
+
+		public long lift(int key, String info) {
+			return 1;
+		}
+
+		public long combine(long left, long right) {
+			return left + right;
+		}
+	};
+
+	/*
+	 * The sum of the keys.
+	 */
+	Augmentation SUM_OF_KEYS = sum((key, info) -> key);
+
+	/*
+	 * Item-to-long mapping used by the factories below.
+	 */
+	interface ItemToLong {
+		long apply(int key, String info);
+	}
+
+	/*
+	 * Returns the sum of f over the items (e.g. sum((k, i) -> Long.parseLong(i)) sums numeric info).
+	 */
+	static Augmentation sum(ItemToLong f) {
+		return new Augmentation() {
+			public long identity() {
+				return 0;
+			}
+
+			public long lift(int key, String info) {
+				return f.apply(key, info);
+			}
+
+			public long combine(long left, long right) {
+				return left + right;
+			}
+		};
+	}
+
+	/*
+	 * Returns the maximum of f over the items (Long.MIN_VALUE for no items).
+	 */
+	static Augmentation max(ItemToLong f) {
+		return new Augmentation() {
+			public long identity() {
+				return Long.MIN_VALUE;
+			}
+
+			public long lift(int key, String info) {
+				return f.apply(key, info);
+			}
+
+			public long combine(long left, long right) {
+				return Math.max(left, right);
+			}
+		};
+	}
+
+	/*
+	 * Returns the bitwise or of f over the items (e.g. a bitmap of flags, or of histogram buckets).
+	 */
+	static Augmentation bitwiseOr(ItemToLong f) {
+		return new Augmentation() {
+			public long identity() {
+				return 0;
+			}
+
+			public long lift(int key, String info) {
+				return f.apply(key, info);
+			}
+
+			public long combine(long left, long right) {
+				return left | right;
+			}
+		};
+	}
+
+	/*
+	 * Returns the sum of a numeric function of the info alone.
+	 */
+	static Augmentation sumOfInfo(ToLongFunction<String> f) {
+		return sum((key, info) -> f.applyAsLong(info));
+	}
+}
@@ -0,0 +1,709 @@
+package avl;
+
+import java.util.Arrays;
+
+/**
+ *
+ * BPlusTree
+ *
+ * A B+-tree with distinct integer keys and info, offering the operations of AVLTree:
+ * search(), insert(), delete(), min(), max(), keysToArray(), infoToArray(), split() and join().
+ *
+ * Items are kept in leaves of up to CAPACITY sorted keys (a primitive int array next to an
+ * array of info), under inner nodes of up to CAPACITY children. A search visits about
+ * log_32(n) nodes (5 for 10M keys instead of ~24 AVLTree nodes), and inside a node it
+ * binary-searches a contiguous int array, so it touches far fewer cache lines.
+ *
+ * Every node but the root is at least half full, and all of the leaves have the same depth.
+ * split() and join() cut and concatenate the trees along a root-to-leaf path, in O(log n) nodes.
+ *
+ */
+
+public class BPlusTree {
+	static final int CAPACITY = 64; // Maximal number of items of a leaf, and of children of an inner node
+	static final int MIN_FILL = CAPACITY / 2; // Minimal number of them in a node other than the root
+	static final int MAX_HEIGHT = 16; // Inner nodes other than the root have 32 children or more, so heights stay below 8
+
+	private Node root; // null if the tree is empty
+	private final Inner[] pathNodes = new Inner[MAX_HEIGHT]; // Inner nodes of the last descent, from the root
+	private final int[] pathIndex = new int[MAX_HEIGHT]; // Index of the child taken at each of them
+	private int pathDepth; // Number of inner nodes on the path of the last descent
+	private int splitKey; // Separator of the two halves made by the last splitNode()
+	private Inner splitRoot; // New root made by the last splitUpwards(), null if the root wasn't split
+
+	/*
+	 * Constructor for an empty BPlusTree. Complexity O(1).
+	 */
+	public BPlusTree() {
+		this.root = null;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.root == null;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of items in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return (this.root == null) ? 0 : this.root.size;
+	}
+
+	/*
+	 * Returns the height of the sub-tree rooted by node (0 for a leaf, -1 for an empty tree).
+	 */
+	static int height(Node node) {
+		return (node == null) ? -1 : node.height;
+	}
+
+	/*
+	 * Returns the index of the first key of leaf which is greater than or equal to k
+	 * (leaf.count if there is none). Complexity O(log CAPACITY).
+	 */
+	static int leafIndex(Leaf leaf, int k) {
+		int[] keys = leaf.keys;
+		int lo = 0, hi = leaf.count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] < k) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/*
+	 * Returns the index of the child of node whose sub-tree may hold k,
+	 * i.e. the number of separators which are lesser than or equal to k. Complexity O(log CAPACITY).
+	 */
+	static int childIndex(Inner node, int k) {
+		int[] keys = node.keys;
+		int lo = 0, hi = node.count - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] <= k) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		Node node = this.root;
+		if (node == null) {
+			return null;
+		}
+		for (int h = node.height; h > 0; h--) {
+			Inner inner = (Inner) node;
+			node = inner.children[childIndex(inner, k)];
+		}
+		Leaf leaf = (Leaf) node;
+		int i = leafIndex(leaf, k);
+		return (i < leaf.count && leaf.keys[i] == k) ? leaf.values[i] : null;
+	}
+
+	/*
+	 * Helper function for insert() & delete().
+	 * Descends from the (non-empty) root to the leaf whose range holds k, recording the path
+	 * in pathNodes, pathIndex and pathDepth. Returns the leaf.
+	 * Complexity O(log n).
+	 */
+	private Leaf descend(int k) {
+		Node node = this.root;
+		int d = 0;
+		for (int h = node.height; h > 0; h--) {
+			Inner inner = (Inner) node;
+			int i = childIndex(inner, k);
+			this.pathNodes[d] = inner;
+			this.pathIndex[d++] = i;
+			node = inner.children[i];
+		}
+		this.pathDepth = d;
+		return (Leaf) node;
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the tree.
+	 * Returns the number of nodes that were split to make room for it,
+	 * or -1 if an item with key k already exists in the tree.
+	 * Complexity O(log n).
+	 */
+	public int insert(int k, String i) {
+		if (this.root == null) { // Special case for insertion when tree is empty.
+			this.root = leaf(k, i);
+			return 0;
+		}
+		Leaf leaf = this.descend(k);
+		int index = leafIndex(leaf, k);
+		if (index < leaf.count && leaf.keys[index] == k) { // Make sure key isn't in tree
+			return -1;
+		}
+		System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.count - index);
+		System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+		leaf.keys[index] = k;
+		leaf.values[index] = i;
+		leaf.count++;
+		leaf.size++;
+		for (int d = 0; d < this.pathDepth; d++) {
+			this.pathNodes[d].size++;
+		}
+		int count = this.splitUpwards(leaf, this.pathDepth - 1);
+		if (this.splitRoot != null) {
+			this.root = this.splitRoot;
+		}
+		return count;
+	}
+
+	/*
+	 * Helper function for insert() & concat().
+	 * Splits node while it has more than CAPACITY items or children, inserting the new right half
+	 * into the parent (pathNodes[d]), which may then be split in turn. A root that is split gets
+	 * a new parent, which is left in splitRoot for the caller (the tree may not be this.root, see concat()).
+	 * Returns the number of nodes split.
+	 * Complexity O(log n).
+	 */
+	private int splitUpwards(Node node, int d) {
+		int count = 0;
+		this.splitRoot = null;
+		while (node.count > CAPACITY) {
+			Node right = this.splitNode(node);
+			count++;
+			if (d < 0) { // node was the root
+				this.splitRoot = parentOf(node, this.splitKey, right);
+				break;
+			}
+			insertChild(this.pathNodes[d], this.pathIndex[d] + 1, this.splitKey, right);
+			node = this.pathNodes[d--];
+		}
+		return count;
+	}
+
+	/*
+	 * Moves the upper half of the items (or children) of node to a new right sibling, which is returned,
+	 * and stores the key separating them in splitKey. Complexity O(CAPACITY).
+	 */
+	private Node splitNode(Node node) {
+		int mid = node.count / 2;
+		if (node.height == 0) {
+			Leaf leaf = (Leaf) node;
+			Leaf right = new Leaf();
+			right.count = right.size = leaf.count - mid;
+			System.arraycopy(leaf.keys, mid, right.keys, 0, right.count);
+			System.arraycopy(leaf.values, mid, right.values, 0, right.count);
+			Arrays.fill(leaf.values, mid, leaf.count, null);
+			leaf.count = leaf.size = mid;
+			this.splitKey = right.keys[0];
+			return right;
+		}
+		Inner inner = (Inner) node;
+		Inner right = new Inner(inner.height);
+		right.count = inner.count - mid;
+		System.arraycopy(inner.children, mid, right.children, 0, right.count);
+		System.arraycopy(inner.keys, mid, right.keys, 0, right.count - 1);
+		this.splitKey = inner.keys[mid - 1];
+		Arrays.fill(inner.children, mid, inner.count, null);
+		inner.count = mid;
+		right.size = sumOfSizes(right);
+		inner.size -= right.size;
+		return right;
+	}
+
+	/*
+	 * Returns the sum of the sizes of the children of node. Complexity O(CAPACITY).
+	 */
+	private static int sumOfSizes(Inner node) {
+		int size = 0;
+		for (int i = 0; i < node.count; i++) {
+			size += node.children[i].size;
+		}
+		return size;
+	}
+
+	/*
+	 * Returns a new leaf holding the single item (k, i).
+	 */
+	private static Leaf leaf(int k, String i) {
+		Leaf leaf = new Leaf();
+		leaf.keys[0] = k;
+		leaf.values[0] = i;
+		leaf.count = leaf.size = 1;
+		return leaf;
+	}
+
+	/*
+	 * Returns a new inner node whose children are left and right, separated by key.
+	 */
+	private static Inner parentOf(Node left, int key, Node right) {
+		Inner node = new Inner(left.height + 1);
+		node.children[0] = left;
+		node.children[1] = right;
+		node.keys[0] = key;
+		node.count = 2;
+		node.size = left.size + right.size;
+		return node;
+	}
+
+	/*
+	 * Inserts child as the index-th child of node (index > 0), separated from the previous child by key.
+	 * The size of node isn't changed. Complexity O(CAPACITY).
+	 */
+	private static void insertChild(Inner node, int index, int key, Node child) {
+		System.arraycopy(node.children, index, node.children, index + 1, node.count - index);
+		System.arraycopy(node.keys, index - 1, node.keys, index, node.count - index);
+		node.children[index] = child;
+		node.keys[index - 1] = key;
+		node.count++;
+	}
+
+	/*
+	 * Removes the index-th child of node (index > 0), and the separator before it.
+	 * The size of node isn't changed. Complexity O(CAPACITY).
+	 */
+	private static void removeChild(Inner node, int index) {
+		System.arraycopy(node.children, index + 1, node.children, index, node.count - index - 1);
+		System.arraycopy(node.keys, index, node.keys, index - 1, node.count - index - 1);
+		node.children[--node.count] = null;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * Deletes an item with key k from the tree, if it is there.
+	 * Returns the number of nodes that were merged or re-filled from a sibling,
+	 * or -1 if an item with key k was not found in the tree.
+	 * Complexity O(log n).
+	 */
+	public int delete(int k) {
+		if (this.root == null) {
+			return -1;
+		}
+		Leaf leaf = this.descend(k);
+		int index = leafIndex(leaf, k);
+		if (index == leaf.count || leaf.keys[index] != k) {
+			return -1;
+		}
+		System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.count - index - 1);
+		System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index - 1);
+		leaf.values[--leaf.count] = null;
+		leaf.size--;
+		for (int d = 0; d < this.pathDepth; d++) {
+			this.pathNodes[d].size--;
+		}
+		if (this.pathDepth == 0) { // The root is a leaf
+			if (leaf.count == 0) {
+				this.root = null;
+			}
+			return 0;
+		}
+		int count = 0;
+		Node node = leaf;
+		for (int d = this.pathDepth - 1; d >= 0 && node.count < MIN_FILL; d--) { // The root may be less than half full
+			this.fixUnderflow(this.pathNodes[d], this.pathIndex[d]);
+			count++;
+			node = this.pathNodes[d];
+		}
+		if (this.root.count == 1 && this.root.height > 0) { // The root lost its last sibling
+			this.root = ((Inner) this.root).children[0];
+		}
+		return count;
+	}
+
+	/*
+	 * Given that the index-th child of node has too few items or children, merges it with a sibling
+	 * if they fit in a single node, and otherwise evens them out between the two.
+	 * Both of them are at least half full afterwards. Complexity O(CAPACITY).
+	 */
+	private void fixUnderflow(Inner node, int index) {
+		int l = (index > 0) ? index - 1 : index; // The pair is children[l] and children[l + 1]
+		Node left = node.children[l], right = node.children[l + 1];
+		int total = left.count + right.count;
+		if (left.height == 0) {
+			Leaf a = (Leaf) left, b = (Leaf) right;
+			if (total <= CAPACITY) { // Merge b into a
+				System.arraycopy(b.keys, 0, a.keys, a.count, b.count);
+				System.arraycopy(b.values, 0, a.values, a.count, b.count);
+				a.count = a.size = total;
+				removeChild(node, l + 1);
+				return;
+			}
+			int move = total / 2 - a.count; // Items moving from b to a (negative: from a to b)
+			if (move > 0) {
+				System.arraycopy(b.keys, 0, a.keys, a.count, move);
+				System.arraycopy(b.values, 0, a.values, a.count, move);
+				System.arraycopy(b.keys, move, b.keys, 0, b.count - move);
+				System.arraycopy(b.values, move, b.values, 0, b.count - move);
+				Arrays.fill(b.values, b.count - move, b.count, null);
+			}
+			else {
+				move = -move;
+				System.arraycopy(b.keys, 0, b.keys, move, b.count);
+				System.arraycopy(b.values, 0, b.values, move, b.count);
+				System.arraycopy(a.keys, a.count - move, b.keys, 0, move);
+				System.arraycopy(a.values, a.count - move, b.values, 0, move);
+				Arrays.fill(a.values, a.count - move, a.count, null);
+			}
+			a.count = a.size = total / 2;
+			b.count = b.size = total - total / 2;
+			node.keys[l] = b.keys[0];
+			return;
+		}
+		Inner a = (Inner) left, b = (Inner) right;
+		if (total <= CAPACITY) { // Merge b into a, with the separator of the pair between their keys
+			a.keys[a.count - 1] = node.keys[l];
+			System.arraycopy(b.keys, 0, a.keys, a.count, b.count - 1);
+			System.arraycopy(b.children, 0, a.children, a.count, b.count);
+			a.count = total;
+			a.size += b.size;
+			removeChild(node, l + 1);
+			return;
+		}
+		// Lay the children and separators of both out in a row, and cut the row in its middle
+		Node[] children = new Node[total];
+		int[] keys = new int[total - 1];
+		System.arraycopy(a.children, 0, children, 0, a.count);
+		System.arraycopy(b.children, 0, children, a.count, b.count);
+		System.arraycopy(a.keys, 0, keys, 0, a.count - 1);
+		keys[a.count - 1] = node.keys[l];
+		System.arraycopy(b.keys, 0, keys, a.count, b.count - 1);
+		int half = total / 2;
+		Arrays.fill(a.children, null);
+		Arrays.fill(b.children, null);
+		System.arraycopy(children, 0, a.children, 0, half);
+		System.arraycopy(keys, 0, a.keys, 0, half - 1);
+		node.keys[l] = keys[half - 1];
+		System.arraycopy(children, half, b.children, 0, total - half);
+		System.arraycopy(keys, half, b.keys, 0, total - half - 1);
+		a.count = half;
+		b.count = total - half;
+		int size = a.size + b.size;
+		a.size = sumOfSizes(a);
+		b.size = size - a.size;
+	}
+
+	/*
+	 * Returns the smallest key of the (non-empty) sub-tree rooted by node. Complexity O(log n).
+	 */
+	private static int minKey(Node node) {
+		while (node.height > 0) {
+			node = ((Inner) node).children[0];
+		}
+		return ((Leaf) node).keys[0];
+	}
+
+	/*
+	 * Returns the leftmost leaf of the (non-empty) sub-tree rooted by node. Complexity O(log n).
+	 */
+	private static Leaf minLeaf(Node node) {
+		while (node.height > 0) {
+			node = ((Inner) node).children[0];
+		}
+		return (Leaf) node;
+	}
+
+	/*
+	 * Returns the rightmost leaf of the (non-empty) sub-tree rooted by node. Complexity O(log n).
+	 */
+	private static Leaf maxLeaf(Node node) {
+		while (node.height > 0) {
+			Inner inner = (Inner) node;
+			node = inner.children[inner.count - 1];
+		}
+		return (Leaf) node;
+	}
+
+	/*
+	 * Helper function for join() & split().
+	 * Concatenates the trees rooted by l and r (either may be null, and only their roots may be less
+	 * than half full), where keys(l) < keys(r), and returns the root of the result. The lower tree
+	 * is hung from the side of the higher one at the level of its root, as in AVLTree.join().
+	 * Complexity O(|height(l) - height(r)| + 1) nodes.
+	 */
+	private Node concat(Node l, Node r) {
+		if (l == null) {
+			return r;
+		}
+		if (r == null) {
+			return l;
+		}
+		int hl = l.height, hr = r.height;
+		if (hl == hr) { // A new root over both
+			Inner top = parentOf(l, minKey(r), r);
+			if (l.count < MIN_FILL || r.count < MIN_FILL) {
+				this.fixUnderflow(top, (l.count < MIN_FILL) ? 0 : 1);
+			}
+			return (top.count == 1) ? top.children[0] : top;
+		}
+		int depth = 0;
+		Node node = (hl > hr) ? l : r;
+		Node lower = (hl > hr) ? r : l;
+		while (node.height > lower.height + 1) { // Go down the facing spine of the higher tree
+			Inner inner = (Inner) node;
+			int i = (hl > hr) ? inner.count - 1 : 0;
+			this.pathNodes[depth] = inner;
+			this.pathIndex[depth++] = i;
+			inner.size += lower.size;
+			node = inner.children[i];
+		}
+		Inner parent = (Inner) node;
+		parent.size += lower.size;
+		if (hl > hr) { // r becomes the last child of parent
+			insertChild(parent, parent.count, minKey(r), r);
+			if (r.count < MIN_FILL) {
+				this.fixUnderflow(parent, parent.count - 1);
+			}
+		}
+		else { // l becomes the first child of parent
+			int key = minKey(parent.children[0]);
+			System.arraycopy(parent.children, 0, parent.children, 1, parent.count);
+			System.arraycopy(parent.keys, 0, parent.keys, 1, parent.count - 1);
+			parent.children[0] = l;
+			parent.keys[0] = key;
+			parent.count++;
+			if (l.count < MIN_FILL) {
+				this.fixUnderflow(parent, 0);
+			}
+		}
+		this.splitUpwards(parent, depth - 1);
+		return (this.splitRoot != null) ? this.splitRoot : (hl > hr) ? l : r;
+	}
+
+	/**
+	 * public int join(int k, String i, BPlusTree t)
+	 *
+	 * Joins t and a new item with key k and info i with the tree.
+	 * Returns the complexity of the operation (|tree.rank - t.rank| + 1), as AVLTree.join().
+	 * t is left empty.
+	 *
+	 * precondition: keys(t) < k < keys() or keys(t) > k > keys()
+	 * Complexity O(|tree.rank - t.rank| + 1) nodes.
+	 */
+	public int join(int k, String i, BPlusTree t) {
+		int h1 = height(this.root), h2 = height(t.root);
+		int cost = Math.abs(h1 - h2) + 1; // An empty tree is of rank -1
+		boolean thisOnLeft = (this.root == null) ? (t.root == null || minKey(t.root) > k) : minKey(this.root) < k;
+		Node l = thisOnLeft ? this.root : t.root;
+		Node r = thisOnLeft ? t.root : this.root;
+		this.root = this.concat(this.concat(l, leaf(k, i)), r);
+		t.root = null;
+		return cost;
+	}
+
+	/**
+	 * public BPlusTree[] split(int x)
+	 *
+	 * splits the tree into 2 trees according to the key x.
+	 * Returns an array [t1, t2] with two trees. keys(t1) < x < keys(t2), and the item with key x
+	 * (if exists) is removed. This tree is left empty.
+	 * Every node on the path to x is cut in two, and the pieces on each side are concatenated
+	 * from the bottom up, so the costs of the concatenations add up to the height of the tree.
+	 * Complexity O(log n) nodes.
+	 */
+	public BPlusTree[] split(int x) {
+		BPlusTree smaller = new BPlusTree(), bigger = new BPlusTree();
+		Node node = this.root;
+		this.root = null;
+		if (node != null) {
+			int height = node.height;
+			Node[] lefts = new Node[height + 1], rights = new Node[height + 1]; // Pieces by height
+			for (int h = height; h > 0; h--) {
+				Inner inner = (Inner) node;
+				int i = childIndex(inner, x);
+				lefts[h] = piece(inner, 0, i);
+				rights[h] = piece(inner, i + 1, inner.count);
+				node = inner.children[i];
+			}
+			Leaf leaf = (Leaf) node;
+			int i = leafIndex(leaf, x);
+			lefts[0] = piece(leaf, 0, i);
+			rights[0] = piece(leaf, (i < leaf.count && leaf.keys[i] == x) ? i + 1 : i, leaf.count);
+			Node l = null, r = null;
+			for (int h = 0; h <= height; h++) {
+				l = smaller.concat(lefts[h], l);
+				r = bigger.concat(r, rights[h]);
+			}
+			smaller.root = l;
+			bigger.root = r;
+		}
+		return new BPlusTree[] {smaller, bigger};
+	}
+
+	/*
+	 * Helper function for split().
+	 * Returns a node holding the children [from, to) of node (and the separators between them),
+	 * the only child if there is one, or null if there is none. Complexity O(CAPACITY).
+	 */
+	private static Node piece(Inner node, int from, int to) {
+		if (to - from <= 1) {
+			return (to > from) ? node.children[from] : null;
+		}
+		Inner piece = new Inner(node.height);
+		System.arraycopy(node.children, from, piece.children, 0, to - from);
+		System.arraycopy(node.keys, from, piece.keys, 0, to - from - 1);
+		piece.count = to - from;
+		piece.size = sumOfSizes(piece);
+		return piece;
+	}
+
+	/*
+	 * Helper function for split().
+	 * Returns a leaf holding the items [from, to) of leaf, or null if there is none. Complexity O(CAPACITY).
+	 */
+	private static Leaf piece(Leaf leaf, int from, int to) {
+		if (to <= from) {
+			return null;
+		}
+		Leaf piece = new Leaf();
+		System.arraycopy(leaf.keys, from, piece.keys, 0, to - from);
+		System.arraycopy(leaf.values, from, piece.values, 0, to - from);
+		piece.count = piece.size = to - from;
+		return piece;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String min() {
+		return (this.root == null) ? null : minLeaf(this.root).values[0];
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String max() {
+		if (this.root == null) {
+			return null;
+		}
+		Leaf leaf = maxLeaf(this.root);
+		return leaf.values[leaf.count - 1];
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		int[] arr = new int[this.size()];
+		if (this.root != null) {
+			fill(this.root, arr, null, 0);
+		}
+		return arr;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		String[] arr = new String[this.size()];
+		if (this.root != null) {
+			fill(this.root, null, arr, 0);
+		}
+		return arr;
+	}
+
+	/*
+	 * Helper function for keysToArray() & infoToArray().
+	 * Copies the keys (if keys isn't null) or the info of the sub-tree rooted by node, from index from on.
+	 * Returns the index that follows them. Complexity O(size of the sub-tree).
+	 */
+	private static int fill(Node node, int[] keys, String[] values, int from) {
+		if (node.height == 0) {
+			Leaf leaf = (Leaf) node;
+			if (keys != null) {
+				System.arraycopy(leaf.keys, 0, keys, from, leaf.count);
+			}
+			else {
+				System.arraycopy(leaf.values, 0, values, from, leaf.count);
+			}
+			return from + leaf.count;
+		}
+		Inner inner = (Inner) node;
+		for (int i = 0; i < inner.count; i++) {
+			from = fill(inner.children[i], keys, values, from);
+		}
+		return from;
+	}
+
+	/**
+	 * abstract static class Node
+	 *
+	 * The fields shared by leaves and inner nodes.
+	 */
+	abstract static class Node {
+		final int height; // 0 for a leaf, all of the leaves have the same depth
+		int count; // Number of items of a leaf, or of children of an inner node
+		int size; // Number of items in the sub-tree
+
+		Node(int height) {
+			this.height = height;
+		}
+	}
+
+	/**
+	 * static final class Leaf
+	 *
+	 * A leaf, holding count items in increasing key order.
+	 */
+	static final class Leaf extends Node {
+		final int[] keys = new int[CAPACITY + 1]; // One extra slot, so that a node can overflow before it is split
+		final String[] values = new String[CAPACITY + 1];
+
+		Leaf() {
+			super(0);
+		}
+	}
+
+	/**
+	 * static final class Inner
+	 *
+	 * An inner node with count children, where keys[i] separates children[i] and children[i + 1]:
+	 * keys(children[i]) < keys[i] <= keys(children[i + 1]).
+	 */
+	static final class Inner extends Node {
+		final int[] keys = new int[CAPACITY];
+		final Node[] children = new Node[CAPACITY + 1];
+
+		Inner(int height) {
+			super(height);
+		}
+	}
+}
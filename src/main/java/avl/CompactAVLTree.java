@@ -0,0 +1,795 @@
+package avl;
+
+import java.util.Arrays;
+
+/**
+ *
+ * CompactAVLTree
+ *
+ * An AVL Tree with distinct integer keys and info, whose nodes are not objects
+ * but integer handles into parallel primitive arrays (see ArrayNodes), or into
+ * off-heap memory (see OffHeapAVLTree).
+ * A node costs ~25 bytes (plus its info) instead of a full AVLNode object,
+ * and deleted nodes are recycled through a free list, so a steady workload allocates nothing.
+ *
+ * Rebalancing follows the same rules as AVLTree, so insert() and delete()
+ * return the same number of re-balancing operations for the same sequence of operations.
+ *
+ */
+
+public class CompactAVLTree {
+	static final int NIL = 0; // Handle of the virtual node (height -1, size 0)
+
+	final Nodes nodes;
+	int root;
+
+	/*
+	 * Constructor for an empty CompactAVLTree. Complexity O(1).
+	 */
+	public CompactAVLTree() {
+		this(new ArrayNodes(16));
+	}
+
+	/*
+	 * Constructor for an empty CompactAVLTree with room for capacity nodes
+	 * before its arrays have to grow. Complexity O(capacity).
+	 */
+	public CompactAVLTree(int capacity) {
+		this(new ArrayNodes(capacity));
+	}
+
+	/*
+	 * Constructor for an empty CompactAVLTree allocating its nodes from the given storage.
+	 * Complexity O(1).
+	 */
+	CompactAVLTree(Nodes nodes) {
+		this.nodes = nodes;
+		this.root = NIL;
+	}
+
+	/*
+	 * Constructor for a CompactAVLTree whose root is the given handle of the given storage.
+	 * Complexity O(1).
+	 */
+	CompactAVLTree(Nodes nodes, int root) {
+		this.nodes = nodes;
+		this.root = root;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.root == NIL;
+	}
+
+	/*
+	 * Helper function for search(), insert() & delete().
+	 * Returns the handle whose key is k, or the last handle encountered if k isn't in the tree.
+	 * Returns NIL if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	private int nodeSearch(int k) {
+		Nodes n = this.nodes;
+		int node = this.root, last = NIL;
+		while (node != NIL) {
+			last = node;
+			int key = n.key(node);
+			if (key == k) {
+				return node;
+			}
+			node = (k < key) ? n.left(node) : n.right(node);
+		}
+		return last;
+	}
+
+	/*
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		int node = this.nodeSearch(k);
+		if (node == NIL || this.nodes.key(node) != k) {
+			return null;
+		}
+		return this.nodes.value(node);
+	}
+
+	/*
+	 * Helper function for rotate() & rebalanceNode().
+	 * Given a node, corrects its height and size from its sons.
+	 * Complexity O(1).
+	 */
+	private void fieldCorrect(int node) {
+		Nodes n = this.nodes;
+		int l = n.left(node), r = n.right(node);
+		n.setHeight(node, 1 + Math.max(n.height(l), n.height(r)));
+		n.setSize(node, 1 + n.size(l) + n.size(r));
+	}
+
+	/*
+	 * Given a child node, rotates the child and its parent, and corrects both of their fields.
+	 * The root of the tree is not updated, callers do that (see climbToRoot()).
+	 * Complexity O(1).
+	 */
+	private void rotate(int node) {
+		Nodes n = this.nodes;
+		int parent = n.parent(node);
+		int grandParent = n.parent(parent);
+		if (n.right(parent) == node) { // If node is on the right of parent.
+			int inner = n.left(node);
+			n.setRight(parent, inner);
+			n.setParent(inner, parent);
+			n.setLeft(node, parent);
+		}
+		else { // If node is on the left of parent.
+			int inner = n.right(node);
+			n.setLeft(parent, inner);
+			n.setParent(inner, parent);
+			n.setRight(node, parent);
+		}
+		if (grandParent != NIL) {
+			if (n.left(grandParent) == parent) {
+				n.setLeft(grandParent, node);
+			}
+			else {
+				n.setRight(grandParent, node);
+			}
+		}
+		n.setParent(node, grandParent);
+		n.setParent(parent, node);
+		this.fieldCorrect(parent);
+		this.fieldCorrect(node);
+	}
+
+	/*
+	 * Given a node that used to be the root, returns the root after rotations
+	 * may have moved it down. Complexity O(1) (a root moves down at most two levels).
+	 */
+	private int climbToRoot(int node) {
+		Nodes n = this.nodes;
+		while (n.parent(node) != NIL) {
+			node = n.parent(node);
+		}
+		return node;
+	}
+
+	/*
+	 * Helper function for insert() & delete().
+	 * Adds delta to the sizes of node and all of its ancestors.
+	 * Complexity O(log n).
+	 */
+	private void addToSizes(int node, int delta) {
+		Nodes n = this.nodes;
+		while (node != NIL) {
+			n.setSize(node, n.size(node) + delta);
+			node = n.parent(node);
+		}
+	}
+
+	/*
+	 * Helper function for insert().
+	 * Given inserted node, re-balances the tree upwards until it is balanced
+	 * (sizes are already correct). Return # of re-balance operations made.
+	 * Complexity O(log n).
+	 */
+	private int insertRebalance(int node) {
+		Nodes n = this.nodes;
+		int count = 0;
+		int parent = n.parent(node);
+		while (parent != NIL && n.height(parent) == n.height(node)) {
+			boolean onLeft = n.left(parent) == node;
+			int other = onLeft ? n.right(parent) : n.left(parent);
+			if (n.height(parent) == n.height(other) + 1) { // Promote parent and re-balance upwards.
+				n.setHeight(parent, n.height(parent) + 1);
+				count += 1;
+				node = parent;
+				parent = n.parent(node);
+				continue;
+			}
+			int outer = onLeft ? n.left(node) : n.right(node);
+			int inner = onLeft ? n.right(node) : n.left(node);
+			if (n.height(node) == n.height(outer) + 1 && n.height(node) == n.height(inner) + 2) { // Single rotation
+				this.rotate(node);
+				count += 3;
+			}
+			else { // Double rotation
+				this.rotate(inner);
+				this.rotate(inner);
+				count += 5;
+			}
+			break; // The rotated sub-tree has its old height, so the problem is solved.
+		}
+		return count;
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.insert()),
+	 * or -1 if an item with key k already exists in the tree.
+	 * Complexity O(log n).
+	 */
+	public int insert(int k, String i) {
+		Nodes n = this.nodes;
+		int parent = this.nodeSearch(k);
+		if (parent != NIL && n.key(parent) == k) { // Make sure key isn't in tree
+			return -1;
+		}
+		int child = n.allocate(k, i);
+		n.setParent(child, parent);
+		if (parent == NIL) { // Special case for insertion when tree is empty.
+			this.root = child;
+			return 0;
+		}
+		if (k < n.key(parent)) {
+			n.setLeft(parent, child);
+		}
+		else {
+			n.setRight(parent, child);
+		}
+		this.addToSizes(parent, 1);
+		int count = this.insertRebalance(child);
+		this.root = this.climbToRoot(this.root);
+		return count;
+	}
+
+	/*
+	 * Helper function for delete().
+	 * Given the parent of a removed node, re-balances the tree upwards until it is balanced
+	 * (sizes are already correct). Return # of re-balance operations made.
+	 * Complexity O(log n).
+	 */
+	private int deleteRebalance(int node) {
+		Nodes n = this.nodes;
+		int count = 0;
+		while (node != NIL) {
+			int leftNode = n.left(node), rightNode = n.right(node);
+			int leftDiff = n.height(node) - n.height(leftNode);
+			int rightDiff = n.height(node) - n.height(rightNode);
+			if (leftDiff == 2 && rightDiff == 2) { // Demote node, the problem may move up
+				n.setHeight(node, n.height(node) - 1);
+				count += 1;
+				node = n.parent(node);
+			}
+			else if (leftDiff == 3 && rightDiff == 1) {
+				int rightLeftDiff = n.height(rightNode) - n.height(n.left(rightNode));
+				int rightRightDiff = n.height(rightNode) - n.height(n.right(rightNode));
+				if (rightRightDiff == 1) { // (1,1) or (2,1) - single rotation
+					this.rotate(rightNode);
+					count += 3;
+					node = (rightLeftDiff == 1) ? NIL : n.parent(rightNode); // Height is kept only in the (1,1) case
+				}
+				else { // (1,2) - double rotation
+					int rightLeftNode = n.left(rightNode);
+					this.rotate(rightLeftNode);
+					this.rotate(rightLeftNode);
+					count += 5;
+					node = n.parent(rightLeftNode);
+				}
+			}
+			else if (leftDiff == 1 && rightDiff == 3) { // Symmetric
+				int leftRightDiff = n.height(leftNode) - n.height(n.right(leftNode));
+				int leftLeftDiff = n.height(leftNode) - n.height(n.left(leftNode));
+				if (leftLeftDiff == 1) {
+					this.rotate(leftNode);
+					count += 3;
+					node = (leftRightDiff == 1) ? NIL : n.parent(leftNode);
+				}
+				else {
+					int leftRightNode = n.right(leftNode);
+					this.rotate(leftRightNode);
+					this.rotate(leftRightNode);
+					count += 5;
+					node = n.parent(leftRightNode);
+				}
+			}
+			else { // Height of node didn't change, the tree is balanced
+				break;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * Deletes an item with key k from the tree, if it is there.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.delete()),
+	 * or -1 if an item with key k was not found in the tree.
+	 * A node with two sons takes the key and info of its successor, and the successor is removed instead.
+	 * Complexity O(log n).
+	 */
+	public int delete(int k) {
+		Nodes n = this.nodes;
+		int node = this.nodeSearch(k);
+		if (node == NIL || n.key(node) != k) {
+			return -1;
+		}
+		if (n.left(node) != NIL && n.right(node) != NIL) { // Two sons - take over the successor
+			int successor = n.right(node);
+			while (n.left(successor) != NIL) {
+				successor = n.left(successor);
+			}
+			n.moveItem(successor, node);
+			node = successor;
+		}
+		int child = (n.left(node) != NIL) ? n.left(node) : n.right(node);
+		int parent = n.parent(node);
+		n.setParent(child, parent);
+		if (parent == NIL) {
+			this.root = child;
+		}
+		else if (n.left(parent) == node) {
+			n.setLeft(parent, child);
+		}
+		else {
+			n.setRight(parent, child);
+		}
+		n.free(node);
+		if (parent == NIL) { // No re-balancing when the root is removed
+			return 0;
+		}
+		this.addToSizes(parent, -1);
+		int count = this.deleteRebalance(parent);
+		this.root = this.climbToRoot(this.root);
+		return count;
+	}
+
+	/*
+	 * Returns the handle of the minimal node in the sub-tree rooted by node. Complexity O(log n).
+	 */
+	private int minNode(int node) {
+		Nodes n = this.nodes;
+		while (n.left(node) != NIL) {
+			node = n.left(node);
+		}
+		return node;
+	}
+
+	/*
+	 * Returns the handle of the maximal node in the sub-tree rooted by node. Complexity O(log n).
+	 */
+	private int maxNode(int node) {
+		Nodes n = this.nodes;
+		while (n.right(node) != NIL) {
+			node = n.right(node);
+		}
+		return node;
+	}
+
+	/*
+	 * Returns the in-order successor of node, or NIL if node is the maximum.
+	 * Complexity O(log n), O(1) amortized over a traversal.
+	 */
+	private int successor(int node) {
+		Nodes n = this.nodes;
+		if (n.right(node) != NIL) {
+			return this.minNode(n.right(node));
+		}
+		int parent = n.parent(node);
+		while (parent != NIL && n.right(parent) == node) {
+			node = parent;
+			parent = n.parent(node);
+		}
+		return parent;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String min() {
+		return this.empty() ? null : this.nodes.value(this.minNode(this.root));
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String max() {
+		return this.empty() ? null : this.nodes.value(this.maxNode(this.root));
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		int[] arr = new int[this.size()];
+		if (this.empty()) {
+			return arr;
+		}
+		int pointer = 0;
+		for (int node = this.minNode(this.root); node != NIL; node = this.successor(node)) {
+			arr[pointer++] = this.nodes.key(node);
+		}
+		return arr;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		String[] arr = new String[this.size()];
+		if (this.empty()) {
+			return arr;
+		}
+		int pointer = 0;
+		for (int node = this.minNode(this.root); node != NIL; node = this.successor(node)) {
+			arr[pointer++] = this.nodes.value(node);
+		}
+		return arr;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of nodes in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return this.nodes.size(this.root);
+	}
+
+	/*
+	 * Helper function for joinNodes().
+	 * Standard AVL re-balance of a single node whose sons are balanced and differ in height by at most 2.
+	 * Returns the node that took node's place.
+	 * Complexity O(1).
+	 */
+	private int rebalanceNode(int node) {
+		Nodes n = this.nodes;
+		int l = n.left(node), r = n.right(node);
+		int balance = n.height(l) - n.height(r);
+		if (balance > 1) {
+			if (n.height(n.left(l)) < n.height(n.right(l))) {
+				this.rotate(n.right(l));
+			}
+			int top = n.left(node);
+			this.rotate(top);
+			return top;
+		}
+		if (balance < -1) {
+			if (n.height(n.right(r)) < n.height(n.left(r))) {
+				this.rotate(n.left(r));
+			}
+			int top = n.right(node);
+			this.rotate(top);
+			return top;
+		}
+		this.fieldCorrect(node);
+		return node;
+	}
+
+	/*
+	 * Helper function for join() & split().
+	 * Joins the detached sub-trees rooted by l and r (keys(l) < key(x) < keys(r)) using x as the pivot,
+	 * and returns the root of the result. All of the nodes are reused.
+	 * Complexity O(|height(l) - height(r)| + 1).
+	 */
+	private int joinNodes(int l, int x, int r) {
+		Nodes n = this.nodes;
+		int hl = n.height(l), hr = n.height(r);
+		if (Math.abs(hl - hr) <= 1) { // x can simply be the new root
+			n.setLeft(x, l);
+			n.setRight(x, r);
+			n.setParent(l, x);
+			n.setParent(r, x);
+			n.setParent(x, NIL);
+			this.fieldCorrect(x);
+			return x;
+		}
+		int parent = NIL;
+		int node;
+		if (hl > hr) { // Go down the right spine of l to the first node whose height is at most hr + 1
+			node = l;
+			while (n.height(node) > hr + 1) {
+				parent = node;
+				node = n.right(node);
+			}
+			n.setLeft(x, node);
+			n.setRight(x, r);
+			n.setRight(parent, x);
+		}
+		else { // Go down the left spine of r to the first node whose height is at most hl + 1
+			node = r;
+			while (n.height(node) > hl + 1) {
+				parent = node;
+				node = n.left(node);
+			}
+			n.setLeft(x, l);
+			n.setRight(x, node);
+			n.setLeft(parent, x);
+		}
+		n.setParent(node, x);
+		n.setParent(hl > hr ? r : l, x);
+		n.setParent(x, parent);
+		this.fieldCorrect(x);
+		int top = parent;
+		while (true) { // Climb to the root, fixing fields and rotating where needed
+			top = this.rebalanceNode(top);
+			if (n.parent(top) == NIL) {
+				return top;
+			}
+			top = n.parent(top);
+		}
+	}
+
+	/*
+	 * public int join(int k, String i, CompactAVLTree t)
+	 *
+	 * Joins t and a new item with key k and info i with the tree.
+	 * Returns the complexity of the operation (|tree.rank - t.rank| + 1).
+	 * t is left empty.
+	 *
+	 * precondition: keys(t) < k < keys() or keys(t) > k > keys(), and t shares this tree's
+	 * storage (i.e. it was produced by split() on this tree or on a tree produced by it).
+	 * Complexity O(|tree.rank - t.rank| + 1).
+	 */
+	public int join(int k, String i, CompactAVLTree t) {
+		if (t.nodes != this.nodes) {
+			throw new IllegalArgumentException("trees don't share the same storage");
+		}
+		Nodes n = this.nodes;
+		int h1 = n.height(this.root), h2 = n.height(t.root);
+		int cost = (this.empty() || t.empty()) ? Math.max(h1, h2) + 1 : Math.abs(h1 - h2) + 1;
+		int x = n.allocate(k, i);
+		boolean thisOnLeft = this.empty() ? (t.empty() || n.key(t.root) > k) : n.key(this.root) < k;
+		int l = thisOnLeft ? this.root : t.root;
+		int r = thisOnLeft ? t.root : this.root;
+		this.root = this.joinNodes(l, x, r);
+		t.root = NIL;
+		return cost;
+	}
+
+	/*
+	 * public CompactAVLTree[] split(int x)
+	 *
+	 * splits the tree into 2 trees according to the key x.
+	 * Returns an array [t1, t2] with two trees. keys(t1) < x < keys(t2), and the item with key x
+	 * (if exists) is removed. Both trees share this tree's storage, and this tree is left empty.
+	 * Ancestors of x are reused as the join pivots, so nothing is allocated besides the two trees.
+	 * Complexity O(log n).
+	 */
+	public CompactAVLTree[] split(int x) {
+		Nodes n = this.nodes;
+		int node = this.nodeSearch(x);
+		int smallers = NIL, biggers = NIL;
+		int up = node;
+		if (node != NIL && n.key(node) == x) {
+			smallers = n.left(node);
+			biggers = n.right(node);
+			up = n.parent(node);
+			n.free(node);
+		}
+		while (up != NIL) {
+			int next = n.parent(up);
+			n.setParent(smallers, NIL);
+			n.setParent(biggers, NIL);
+			if (x < n.key(up)) {
+				int other = n.right(up);
+				n.setParent(other, NIL);
+				biggers = this.joinNodes(biggers, up, other);
+			}
+			else {
+				int other = n.left(up);
+				n.setParent(other, NIL);
+				smallers = this.joinNodes(other, up, smallers);
+			}
+			up = next;
+		}
+		n.setParent(smallers, NIL);
+		n.setParent(biggers, NIL);
+		this.root = NIL;
+		return new CompactAVLTree[] {new CompactAVLTree(n, smallers), new CompactAVLTree(n, biggers)};
+	}
+
+	/**
+	 * Nodes
+	 *
+	 * Storage for the nodes of CompactAVLTrees, which the tree logic only sees through these accessors.
+	 * A node is an int handle. Handle 0 is the virtual node (NIL), whose height is -1 and size is 0,
+	 * so that it can be read like any other node. Freed handles are reused by later allocations.
+	 * ArrayNodes keeps the nodes in parallel arrays on the heap, and OffHeapAVLTree.OffHeapNodes
+	 * in direct memory.
+	 */
+	abstract static class Nodes {
+		/*
+		 * Returns the handle of a new leaf with key k and info v (its parent is NIL).
+		 * Complexity O(1) amortized.
+		 */
+		abstract int allocate(int k, String v);
+
+		/*
+		 * Releases node (and its info), so that its handle can be reused. Complexity O(1).
+		 */
+		abstract void free(int node);
+
+		/*
+		 * Moves the key and info of from into to (whose own info is dropped). from is about to be freed.
+		 * Complexity O(1).
+		 */
+		abstract void moveItem(int from, int to);
+
+		abstract int key(int node);
+
+		abstract String value(int node);
+
+		abstract int height(int node);
+
+		abstract void setHeight(int node, int h);
+
+		abstract int size(int node);
+
+		abstract void setSize(int node, int s);
+
+		abstract int left(int node);
+
+		abstract void setLeft(int node, int l);
+
+		abstract int right(int node);
+
+		abstract void setRight(int node, int r);
+
+		abstract int parent(int node);
+
+		abstract void setParent(int node, int p);
+	}
+
+	/**
+	 * ArrayNodes
+	 *
+	 * Parallel-array storage for the nodes of CompactAVLTrees.
+	 * A node is an index into the arrays.
+	 * Freed handles are kept in a free list linked through the left array.
+	 */
+	static final class ArrayNodes extends Nodes {
+		int[] key, size, left, right, parent;
+		byte[] height; // AVL heights are below 64 for any int-sized tree
+		String[] value;
+		int next = 1; // Lowest never-used handle
+		int free = NIL; // Head of the free list
+
+		/*
+		 * Constructor for a storage with room for capacity nodes. Complexity O(capacity).
+		 */
+		ArrayNodes(int capacity) {
+			capacity = Math.max(capacity, 1) + 1;
+			this.key = new int[capacity];
+			this.size = new int[capacity];
+			this.left = new int[capacity];
+			this.right = new int[capacity];
+			this.parent = new int[capacity];
+			this.height = new byte[capacity];
+			this.value = new String[capacity];
+			this.height[NIL] = -1;
+		}
+
+		/*
+		 * Returns the handle of a new leaf with key k and info v (its parent is NIL).
+		 * Complexity O(1) amortized (arrays grow by half when full).
+		 */
+		int allocate(int k, String v) {
+			int node = this.free;
+			if (node != NIL) {
+				this.free = this.left[node];
+			}
+			else {
+				if (this.next == this.key.length) {
+					this.grow();
+				}
+				node = this.next++;
+			}
+			this.key[node] = k;
+			this.value[node] = v;
+			this.height[node] = 0;
+			this.size[node] = 1;
+			this.left[node] = NIL;
+			this.right[node] = NIL;
+			this.parent[node] = NIL;
+			return node;
+		}
+
+		/*
+		 * Returns node to the free list. Complexity O(1).
+		 */
+		void free(int node) {
+			this.value[node] = null; // Don't keep the info reachable
+			this.left[node] = this.free;
+			this.free = node;
+		}
+
+		/*
+		 * Grows all of the arrays by half. Complexity O(capacity).
+		 */
+		private void grow() {
+			int capacity = this.key.length;
+			if (capacity == Integer.MAX_VALUE - 8) {
+				throw new IllegalStateException("node storage is full");
+			}
+			capacity = (int) Math.min(capacity + (capacity >> 1) + 1L, Integer.MAX_VALUE - 8);
+			this.key = Arrays.copyOf(this.key, capacity);
+			this.size = Arrays.copyOf(this.size, capacity);
+			this.left = Arrays.copyOf(this.left, capacity);
+			this.right = Arrays.copyOf(this.right, capacity);
+			this.parent = Arrays.copyOf(this.parent, capacity);
+			this.height = Arrays.copyOf(this.height, capacity);
+			this.value = Arrays.copyOf(this.value, capacity);
+		}
+
+		int key(int node) {
+			return this.key[node];
+		}
+
+		String value(int node) {
+			return this.value[node];
+		}
+
+		void moveItem(int from, int to) {
+			this.key[to] = this.key[from];
+			this.value[to] = this.value[from];
+		}
+
+		int height(int node) {
+			return this.height[node];
+		}
+
+		void setHeight(int node, int h) {
+			this.height[node] = (byte) h;
+		}
+
+		int size(int node) {
+			return this.size[node];
+		}
+
+		void setSize(int node, int s) {
+			this.size[node] = s;
+		}
+
+		int left(int node) {
+			return this.left[node];
+		}
+
+		void setLeft(int node, int l) {
+			this.left[node] = l;
+		}
+
+		int right(int node) {
+			return this.right[node];
+		}
+
+		void setRight(int node, int r) {
+			this.right[node] = r;
+		}
+
+		int parent(int node) {
+			return this.parent[node];
+		}
+
+		void setParent(int node, int p) {
+			this.parent[node] = p;
+		}
+	}
+}
@@ -0,0 +1,255 @@
+package avl;
+
+import java.util.concurrent.locks.StampedLock;
+
+import avl.AVLTree.IAVLNode;
+
+/**
+ *
+ * ConcurrentAVLTree
+ *
+ * A thread-safe AVLTree. Readers don't lock: search(), min(), max(), size() and empty()
+ * run optimistically against the tree and validate a StampedLock stamp afterwards,
+ * falling back to a shared read lock only if a writer got in the way. Writers are serialized
+ * by the write lock, and run the unchanged AVLTree insert() and delete().
+ *
+ * Writers are not locked per node (as in Bronson et al.'s relaxed AVL tree) because every node
+ * of an AVLTree holds the size, min and max of its sub-tree: any insert() or delete() updates
+ * every node up to the root, so the root would serialize the writers anyway. What this tree
+ * buys over a synchronized AVLTree is that readers scale with the cores and never block each other.
+ *
+ */
+
+public class ConcurrentAVLTree {
+	static final int OPTIMISTIC_ATTEMPTS = 2; // Optimistic reads before falling back to the read lock
+	static final int MAX_DEPTH = 64; // Bound of an optimistic descent (an AVL tree of 2^31 nodes is < 46 high)
+
+	private final AVLTree tree;
+	private final StampedLock lock = new StampedLock();
+
+	/*
+	 * Constructor for an empty ConcurrentAVLTree. Complexity O(1).
+	 */
+	public ConcurrentAVLTree() {
+		this(new AVLTree());
+	}
+
+	/*
+	 * Constructor for a ConcurrentAVLTree over the given tree, which must no longer
+	 * be used directly. Complexity O(1).
+	 * Throws IllegalArgumentException if the tree has a SearchCache or TreeMetrics, since readers
+	 * holding the shared read lock would update them concurrently.
+	 */
+	public ConcurrentAVLTree(AVLTree tree) {
+		if (tree.searchCache() != null) {
+			throw new IllegalArgumentException("a ConcurrentAVLTree can't have a SearchCache");
+		}
+		if (tree.metrics() != null) {
+			throw new IllegalArgumentException("a ConcurrentAVLTree can't have TreeMetrics");
+		}
+		this.tree = tree;
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Doesn't lock unless a writer runs concurrently.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+			long stamp = this.lock.tryOptimisticRead();
+			if (stamp == 0) { // A writer holds the lock
+				Thread.onSpinWait();
+				continue;
+			}
+			String value = this.optimisticSearch(k);
+			if (this.lock.validate(stamp)) {
+				return value;
+			}
+		}
+		long stamp = this.lock.readLock();
+		try {
+			return this.tree.search(k);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/*
+	 * Helper function for search().
+	 * Descends the tree towards k without locking. The result is only meaningful if the
+	 * stamp validates afterwards: a concurrent writer may leave nodes half-linked (null sons,
+	 * or cycles in the middle of a rotation), so the descent is bounded and checks for null.
+	 * Complexity O(log n).
+	 */
+	private String optimisticSearch(int k) {
+		IAVLNode node = this.tree.getRoot();
+		for (int depth = 0; depth < MAX_DEPTH && node != null && node.isRealNode(); depth++) {
+			int key = node.getKey();
+			if (key == k) {
+				return node.getValue();
+			}
+			node = (k < key) ? node.getLeft() : node.getRight();
+		}
+		return null;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public String min() {
+		return this.optimisticExtreme(true);
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public String max() {
+		return this.optimisticExtreme(false);
+	}
+
+	/*
+	 * Helper function for min() & max().
+	 * Reads the min (or max) node of the root optimistically, with the same fallback as search().
+	 * Complexity O(1).
+	 */
+	private String optimisticExtreme(boolean min) {
+		for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+			long stamp = this.lock.tryOptimisticRead();
+			if (stamp == 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			IAVLNode root = this.tree.getRoot();
+			IAVLNode node = (root == null) ? null : (min ? root.getMin() : root.getMax());
+			String value = (node == null) ? null : node.getValue();
+			if (this.lock.validate(stamp)) {
+				return value;
+			}
+		}
+		long stamp = this.lock.readLock();
+		try {
+			return min ? this.tree.min() : this.tree.max();
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of nodes in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		long stamp = this.lock.tryOptimisticRead();
+		if (stamp != 0) {
+			IAVLNode root = this.tree.getRoot();
+			int size = (root == null) ? 0 : root.getSize();
+			if (this.lock.validate(stamp)) {
+				return size;
+			}
+		}
+		stamp = this.lock.readLock();
+		try {
+			return this.tree.size();
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree.
+	 * Returns the number of re-balancing operations, or -1 if an item with key k already exists
+	 * in the tree (see AVLTree.insert()). Takes the write lock.
+	 * Complexity O(log n).
+	 */
+	public int insert(int k, String i) {
+		long stamp = this.lock.writeLock();
+		try {
+			return this.tree.insert(k, i);
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * Deletes an item with key k from the tree if it exists.
+	 * Returns the number of re-balancing operations, or -1 if an item with key k was not found
+	 * in the tree (see AVLTree.delete()). Takes the write lock.
+	 * Complexity O(log n).
+	 */
+	public int delete(int k) {
+		long stamp = this.lock.writeLock();
+		try {
+			return this.tree.delete(k);
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty. Takes the read lock.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		long stamp = this.lock.readLock();
+		try {
+			return this.tree.keysToArray();
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty. Takes the read lock.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		long stamp = this.lock.readLock();
+		try {
+			return this.tree.infoToArray();
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+}
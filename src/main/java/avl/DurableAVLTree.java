@@ -0,0 +1,538 @@
+package avl;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ *
+ * DurableAVLTree
+ *
+ * An AVLTree whose updates survive crashes. Every successful insert() and delete() is appended
+ * to a write-ahead log, and the log is forced to the disk according to a SyncPolicy:
+ * after every operation, once per N operations, once per T milliseconds (by a background thread),
+ * or never (leaving it to the OS). Forcing once per group of operations is what makes durability
+ * affordable: an fsync costs about as much as tens of thousands of in-memory operations.
+ * An operation is durable once the log was forced after it, or once sync() returned.
+ *
+ * checkpoint() saves the tree as an AVLTreeSnapshot and empties the log, and open() recovers
+ * the tree by loading the last snapshot and replaying the log on top of it.
+ * Every log record carries a CRC32C of its content, so a record torn by a crash is detected,
+ * and the log is cut right before it. A bad record with more of the log after it can't be a torn
+ * append, so open() fails on it instead, leaving the log as it is.
+ *
+ * Like AVLTree, a DurableAVLTree is used by one thread at a time (the background thread only
+ * touches the log). After an IOException the tree can still be read, but it rejects updates.
+ *
+ */
+
+public class DurableAVLTree implements Closeable {
+	static final String SNAPSHOT_FILE = "tree.avls";
+	static final String LOG_FILE = "tree.wal";
+	static final byte INSERT = 1, DELETE = 2;
+	static final int RECORD_HEADER_BYTES = 8; // Length and CRC of the content
+	static final int MAX_RECORD_BYTES = 1 << 30;
+	private static final int BUFFER_BYTES = 1 << 16; // Pending records are written (not forced) beyond this
+
+	private final Path directory;
+	private final AVLTree tree;
+	private final SyncPolicy policy;
+	private final FileChannel log;
+	private final ScheduledExecutorService syncer; // null unless the policy forces by time
+	private final CRC32C crc = new CRC32C(); // Only used by the updating thread
+	private ByteBuffer pending = ByteBuffer.allocate(BUFFER_BYTES); // Records not written yet, guarded by this
+	private int unsyncedOperations; // Operations appended since the last force, guarded by this
+	private volatile IOException failure; // The first I/O error, after which updates are rejected
+
+	/*
+	 * Constructor for a DurableAVLTree over the recovered tree, appending to log.
+	 * Complexity O(1).
+	 */
+	private DurableAVLTree(Path directory, AVLTree tree, SyncPolicy policy, FileChannel log) {
+		this.directory = directory;
+		this.tree = tree;
+		this.policy = policy;
+		this.log = log;
+		if (policy.maxDelayMillis > 0) {
+			this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "DurableAVLTree-sync " + directory);
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.syncer.scheduleWithFixedDelay(this::backgroundSync, policy.maxDelayMillis, policy.maxDelayMillis,
+					TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.syncer = null;
+		}
+	}
+
+	/**
+	 * public static DurableAVLTree open(Path directory, SyncPolicy policy)
+	 *
+	 * Opens the durable tree kept in directory (creating both if needed): loads the snapshot
+	 * of the last checkpoint, if any, and replays the operations logged since then.
+	 * A torn record at the end of the log (from a crash while it was written) is discarded.
+	 * Throws an IOException, without changing the log, if a record that isn't the last one is corrupt.
+	 * Complexity O(n + m) for n items in the snapshot and m operations in the log.
+	 */
+	public static DurableAVLTree open(Path directory, SyncPolicy policy) throws IOException {
+		Files.createDirectories(directory);
+		Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+		AVLTree tree;
+		if (Files.exists(snapshotFile)) {
+			try (AVLTreeSnapshot snapshot = AVLTreeSnapshot.open(snapshotFile)) {
+				tree = snapshot.toTree();
+			}
+		}
+		else {
+			tree = new AVLTree();
+		}
+		FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long end = replay(log, tree);
+			if (end < log.size()) { // Cut the torn tail, so that new records follow the last valid one
+				log.truncate(end);
+				log.force(true);
+			}
+			log.position(end);
+		}
+		catch (IOException | RuntimeException e) {
+			log.close();
+			throw e;
+		}
+		return new DurableAVLTree(directory, tree, policy, log);
+	}
+
+	/*
+	 * Helper function for open().
+	 * Applies the records of log to tree, in order, up to the first one that is incomplete or corrupt.
+	 * Returns the length of the valid prefix of the log. A bad record is only a torn tail if it runs
+	 * up to the end of the log (or, if its length itself is garbage, if only zeros follow it, as in a
+	 * file that grew before its data was written). Otherwise the log is corrupt, and an IOException is thrown.
+	 *
+	 * Replaying is idempotent, so a log that was already applied to the snapshot (after a crash
+	 * between saving the snapshot and emptying the log in checkpoint()) is harmless: a key's successful
+	 * operations alternate between insertions and deletions, so replaying them on the final state
+	 * ends in that same state (only the last one matters, and the one before it lets it succeed).
+	 * Complexity O(m log n).
+	 */
+	private static long replay(FileChannel log, AVLTree tree) throws IOException {
+		long size = log.size();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0)), BUFFER_BYTES));
+		CRC32C crc = new CRC32C();
+		long end = 0;
+		byte[] content = new byte[64];
+		while (true) {
+			int length, checksum;
+			try {
+				length = in.readInt();
+				checksum = in.readInt();
+				if (length < 5 || length > MAX_RECORD_BYTES) {
+					if (onlyZerosFrom(log, end)) {
+						return end;
+					}
+					throw corrupt(end, size, "bad record length " + length);
+				}
+				if (content.length < length) {
+					content = new byte[Math.max(length, 2 * content.length)];
+				}
+				in.readFully(content, 0, length);
+			}
+			catch (EOFException e) { // The record runs past the end of the log
+				return end;
+			}
+			long next = end + RECORD_HEADER_BYTES + length;
+			crc.reset();
+			crc.update(content, 0, length);
+			if ((int) crc.getValue() != checksum) {
+				if (next >= size) {
+					return end;
+				}
+				throw corrupt(end, size, "CRC mismatch");
+			}
+			ByteBuffer record = ByteBuffer.wrap(content, 0, length);
+			byte op = record.get();
+			int k = record.getInt();
+			if (op == INSERT && length >= 9) {
+				int infoLength = record.getInt();
+				tree.insert(k, (infoLength < 0) ? null : new String(content, 9, infoLength, StandardCharsets.UTF_8));
+			}
+			else if (op == DELETE) {
+				tree.delete(k);
+			}
+			else {
+				if (next >= size) {
+					return end;
+				}
+				throw corrupt(end, size, "unknown operation " + op);
+			}
+			end = next;
+		}
+	}
+
+	/*
+	 * Helper function for replay().
+	 * Returns true if every byte of log from position on is 0. Complexity O(length of the log - position).
+	 */
+	private static boolean onlyZerosFrom(FileChannel log, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		while (true) {
+			buffer.clear();
+			int read = log.read(buffer, position);
+			if (read < 0) {
+				return true;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) != 0) {
+					return false;
+				}
+			}
+			position += read;
+		}
+	}
+
+	/*
+	 * Helper function for replay().
+	 * Returns the exception reporting a corrupt record at offset end of a log of size bytes.
+	 */
+	private static IOException corrupt(long end, long size, String reason) {
+		return new IOException("corrupt log record at offset " + end + " (" + reason + "), followed by more of the log (" +
+				size + " bytes): refusing to discard acknowledged operations");
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.tree.empty();
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of nodes in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return this.tree.size();
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		return this.tree.search(k);
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public String min() {
+		return this.tree.min();
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public String max() {
+		return this.tree.max();
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		return this.tree.keysToArray();
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		return this.tree.infoToArray();
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the tree, and logs the insertion.
+	 * Returns the number of re-balancing operations (as AVLTree.insert()),
+	 * or -1 if an item with key k already exists in the tree (nothing is logged then).
+	 * Complexity O(log n), plus an fsync when the policy says so.
+	 */
+	public int insert(int k, String i) throws IOException {
+		this.checkNotFailed();
+		int count = this.tree.insert(k, i);
+		if (count != -1) {
+			byte[] info = (i == null) ? null : i.getBytes(StandardCharsets.UTF_8);
+			ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + 9 + ((info == null) ? 0 : info.length));
+			record.position(RECORD_HEADER_BYTES);
+			record.put(INSERT).putInt(k).putInt((info == null) ? -1 : info.length);
+			if (info != null) {
+				record.put(info);
+			}
+			this.append(record);
+		}
+		return count;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * Deletes an item with key k from the tree if it is there, and logs the deletion.
+	 * Returns the number of re-balancing operations (as AVLTree.delete()),
+	 * or -1 if an item with key k was not found in the tree (nothing is logged then).
+	 * Complexity O(log n), plus an fsync when the policy says so.
+	 */
+	public int delete(int k) throws IOException {
+		this.checkNotFailed();
+		int count = this.tree.delete(k);
+		if (count != -1) {
+			ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + 5);
+			record.position(RECORD_HEADER_BYTES);
+			record.put(DELETE).putInt(k);
+			this.append(record);
+		}
+		return count;
+	}
+
+	/*
+	 * Helper function for insert() & delete().
+	 * Fills in the length and CRC of record (whose content follows its header), adds it to the pending records,
+	 * writes them when the buffer is full, and forces the log when the policy's group is complete.
+	 * Complexity O(length of the record), plus the I/O.
+	 */
+	private void append(ByteBuffer record) throws IOException {
+		int length = record.position() - RECORD_HEADER_BYTES;
+		this.crc.reset();
+		this.crc.update(record.array(), RECORD_HEADER_BYTES, length);
+		record.putInt(0, length).putInt(4, (int) this.crc.getValue()).flip();
+		boolean force;
+		synchronized (this) {
+			if (this.pending.remaining() < record.remaining()) {
+				this.writePending();
+				if (this.pending.capacity() < record.remaining()) { // A record larger than the buffer
+					this.pending = ByteBuffer.allocate(record.remaining());
+				}
+			}
+			this.pending.put(record);
+			this.unsyncedOperations++;
+			force = this.policy.maxOperations > 0 && this.unsyncedOperations >= this.policy.maxOperations;
+			if (force) {
+				this.writePending();
+				this.unsyncedOperations = 0;
+			}
+		}
+		if (force) { // Outside of the lock, so that the background thread isn't held by the fsync
+			this.force();
+		}
+	}
+
+	/*
+	 * Writes the pending records to the log (without forcing it). The caller holds the lock of this.
+	 */
+	private void writePending() throws IOException {
+		this.pending.flip();
+		try {
+			while (this.pending.hasRemaining()) {
+				this.log.write(this.pending);
+			}
+		}
+		catch (IOException e) {
+			this.failure = e;
+			throw e;
+		}
+		finally {
+			this.pending.clear();
+		}
+	}
+
+	/*
+	 * Forces the written records to the disk.
+	 */
+	private void force() throws IOException {
+		try {
+			this.log.force(false);
+		}
+		catch (IOException e) {
+			this.failure = e;
+			throw e;
+		}
+	}
+
+	private void checkNotFailed() throws IOException {
+		IOException e = this.failure;
+		if (e != null) {
+			throw new IOException("the log of " + this.directory + " failed, updates are rejected", e);
+		}
+	}
+
+	/*
+	 * The task of the background thread: forces the operations appended since the last force, if any.
+	 */
+	private void backgroundSync() {
+		try {
+			if (this.failure == null) {
+				this.sync();
+			}
+		}
+		catch (IOException e) { // Kept in failure, and reported by the next update
+		}
+	}
+
+	/**
+	 * public void sync()
+	 *
+	 * Writes and forces every logged operation to the disk, whatever the policy.
+	 * Complexity O(1), plus an fsync if there is anything to force.
+	 */
+	public void sync() throws IOException {
+		synchronized (this) {
+			if (this.unsyncedOperations == 0) {
+				return;
+			}
+			this.writePending();
+			this.unsyncedOperations = 0;
+		}
+		this.force();
+	}
+
+	/**
+	 * public void checkpoint()
+	 *
+	 * Saves the tree as the snapshot of directory, and empties the log,
+	 * so that the next open() doesn't have to replay the operations made so far.
+	 * Complexity O(n).
+	 */
+	public void checkpoint() throws IOException {
+		this.checkNotFailed();
+		this.sync();
+		AVLTreeSnapshot.write(this.tree, this.directory.resolve(SNAPSHOT_FILE));
+		synchronized (this) {
+			this.log.truncate(0);
+			this.log.position(0);
+		}
+		this.force();
+	}
+
+	/**
+	 * public void close()
+	 *
+	 * Stops the background thread, forces every logged operation to the disk, and closes the log.
+	 * Complexity O(1), plus an fsync.
+	 */
+	public void close() throws IOException {
+		if (this.syncer != null) {
+			this.syncer.shutdown();
+			try {
+				this.syncer.awaitTermination(1, TimeUnit.MINUTES);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			if (this.failure == null) {
+				this.sync();
+			}
+		}
+		finally {
+			this.log.close();
+		}
+	}
+
+	/**
+	 * public static final class SyncPolicy
+	 *
+	 * When the log is forced to the disk: once maxOperations operations were appended since
+	 * the last force (0 for never), and/or every maxDelayMillis milliseconds by a background thread
+	 * (0 for never). The operations of a group become durable together, with a single fsync.
+	 */
+	public static final class SyncPolicy {
+		/*
+		 * Forces after every operation: nothing acknowledged is ever lost, at one fsync per operation.
+		 */
+		public static final SyncPolicy EVERY_OPERATION = new SyncPolicy(1, 0);
+
+		/*
+		 * Never forces (until sync(), checkpoint() or close()): records are handed to the OS 64KB at a time,
+		 * and the OS writes them back when it wants.
+		 */
+		public static final SyncPolicy NEVER = new SyncPolicy(0, 0);
+
+		final int maxOperations;
+		final long maxDelayMillis;
+
+		private SyncPolicy(int maxOperations, long maxDelayMillis) {
+			if (maxOperations < 0 || maxDelayMillis < 0) {
+				throw new IllegalArgumentException("negative group size or delay");
+			}
+			this.maxOperations = maxOperations;
+			this.maxDelayMillis = maxDelayMillis;
+		}
+
+		/*
+		 * Forces once per n operations: at most n - 1 acknowledged operations can be lost.
+		 */
+		public static SyncPolicy everyOperations(int n) {
+			return new SyncPolicy(n, 0);
+		}
+
+		/*
+		 * Forces every millis milliseconds: at most the operations of the last millis (plus an fsync) can be lost.
+		 */
+		public static SyncPolicy everyMillis(long millis) {
+			return new SyncPolicy(0, millis);
+		}
+
+		/*
+		 * Forces once per n operations, and at least every millis milliseconds.
+		 */
+		public static SyncPolicy groupCommit(int n, long millis) {
+			return new SyncPolicy(n, millis);
+		}
+
+		public String toString() {
+			return "SyncPolicy(maxOperations=" + this.maxOperations + ", maxDelayMillis=" + this.maxDelayMillis + ")";
+		}
+	}
+}
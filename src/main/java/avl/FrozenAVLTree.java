@@ -0,0 +1,296 @@
+package avl;
+
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * FrozenAVLTree
+ *
+ * An immutable, read-only index over the items of an AVLTree, made by AVLTree.freeze().
+ * The keys are laid out in Eytzinger (breadth-first) order in a single int array: the root of the
+ * implicit tree is at index 1, and the children of index i are at 2i and 2i + 1. A search is a loop
+ * of index arithmetic over that array, without a branch on the comparison and without following a
+ * reference, and the first levels of every descent share the same few cache lines. The info is kept
+ * in a parallel array, and the rank of every key in a third one, so that search(), rank() and the range
+ * queries are answered from primitive arrays alone.
+ *
+ * An index holds up to 2^30 - 1 items (so that no index of the descent overflows), takes 8 bytes
+ * per item besides the reference to its info, and can be read from any number of threads.
+ *
+ */
+
+public class FrozenAVLTree {
+	static final int MAX_SIZE = (1 << 30) - 1;
+
+	private final int size;
+	private final int[] keys; // keys[i] for 1 <= i <= size, in Eytzinger order
+	private final String[] values; // values[i] is the info of keys[i]
+	private final int[] ranks; // ranks[i] is the rank of keys[i], and ranks[0] = size (past the last key)
+
+	/*
+	 * Constructor for an index over keys[i] with info values[i] for every i.
+	 * keys must be strictly increasing (as returned by AVLTree.keysToArray()).
+	 * Complexity O(n).
+	 */
+	FrozenAVLTree(int[] keys, String[] values) {
+		if (keys.length > MAX_SIZE) {
+			throw new IllegalArgumentException("too many items to freeze: " + keys.length);
+		}
+		this.size = keys.length;
+		this.keys = new int[this.size + 1];
+		this.values = new String[this.size + 1];
+		this.ranks = new int[this.size + 1];
+		this.ranks[0] = this.size;
+		this.layOut(keys, values, 1, 0);
+	}
+
+	/*
+	 * Helper function for the constructor.
+	 * Places the items of keys and values from rank next on (in increasing order) in the sub-tree
+	 * rooted by index i, by an in-order walk of the implicit tree.
+	 * Returns the rank that follows them.
+	 * Complexity O(size of the sub-tree), and a recursion depth of O(log n).
+	 */
+	private int layOut(int[] keys, String[] values, int i, int next) {
+		if (i > this.size) {
+			return next;
+		}
+		next = this.layOut(keys, values, 2 * i, next);
+		this.keys[i] = keys[next];
+		this.values[i] = values[next];
+		this.ranks[i] = next;
+		return this.layOut(keys, values, 2 * i + 1, next + 1);
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the index is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of items in the index.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/*
+	 * Returns the index of the smallest key which is greater than or equal to k, or 0 if there is none.
+	 * The descent goes right (2i + 1) while keys[i] < k and left (2i) otherwise, without a branch:
+	 * the bit is the sign of keys[i] - k, computed in longs so that it can't overflow. The index it ends at
+	 * is below the leaves; shifting out its trailing 1 bits (the right turns at the end of the path) and
+	 * the left turn before them gives the last node at which the descent went left, i.e. the answer.
+	 * Complexity O(log n).
+	 */
+	private int lowerBound(int k) {
+		int[] keys = this.keys;
+		int n = this.size;
+		int i = 1;
+		while (i <= n) {
+			i = 2 * i + (int) (((long) keys[i] - k) >>> 63);
+		}
+		return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+	}
+
+	/*
+	 * Returns the index which follows i in increasing key order, or 0 if i holds the largest key.
+	 * Complexity O(log n) worst case, O(1) amortized over a scan.
+	 */
+	private int successor(int i) {
+		if (2 * i + 1 <= this.size) { // The leftmost node of the right sub-tree
+			i = 2 * i + 1;
+			while (2 * i <= this.size) {
+				i = 2 * i;
+			}
+			return i;
+		}
+		return i >>> (Integer.numberOfTrailingZeros(~i) + 1); // The first ancestor reached from its left
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the index.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		int i = this.lowerBound(k);
+		return (i != 0 && this.keys[i] == k) ? this.values[i] : null;
+	}
+
+	/**
+	 * public boolean contains(int k)
+	 *
+	 * Returns true if and only if an item with key k exists in the index.
+	 * Complexity O(log n).
+	 */
+	public boolean contains(int k) {
+		int i = this.lowerBound(k);
+		return i != 0 && this.keys[i] == k;
+	}
+
+	/**
+	 * public int rank(int k)
+	 *
+	 * Returns the number of keys in the index which are smaller than k
+	 * (i.e. the 0-based position k has, or would have, in keysToArray()).
+	 * Complexity O(log n).
+	 */
+	public int rank(int k) {
+		return this.ranks[this.lowerBound(k)];
+	}
+
+	/**
+	 * public int countInRange(int lo, int hi)
+	 *
+	 * Returns the number of keys k in the index such that lo <= k < hi.
+	 * Complexity O(log n).
+	 */
+	public int countInRange(int lo, int hi) {
+		if (lo >= hi) {
+			return 0;
+		}
+		return this.rank(hi) - this.rank(lo);
+	}
+
+	/**
+	 * public int[] keysInRange(int lo, int hi)
+	 *
+	 * Returns a sorted array of the keys k in the index such that lo <= k < hi.
+	 * Complexity O(log n + m), where m is the number of keys returned.
+	 */
+	public int[] keysInRange(int lo, int hi) {
+		int[] arr = new int[this.countInRange(lo, hi)];
+		int i = this.lowerBound(lo);
+		for (int j = 0; j < arr.length; j++) {
+			arr[j] = this.keys[i];
+			i = this.successor(i);
+		}
+		return arr;
+	}
+
+	/**
+	 * public String[] infoInRange(int lo, int hi)
+	 *
+	 * Returns the info of the items whose keys k satisfy lo <= k < hi,
+	 * sorted by their respective keys.
+	 * Complexity O(log n + m), where m is the number of items returned.
+	 */
+	public String[] infoInRange(int lo, int hi) {
+		String[] arr = new String[this.countInRange(lo, hi)];
+		int i = this.lowerBound(lo);
+		for (int j = 0; j < arr.length; j++) {
+			arr[j] = this.values[i];
+			i = this.successor(i);
+		}
+		return arr;
+	}
+
+	/**
+	 * public int minKey()
+	 *
+	 * Returns the smallest key in the index.
+	 * Throws NoSuchElementException if the index is empty.
+	 * Complexity O(1).
+	 */
+	public int minKey() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		return this.keys[Integer.highestOneBit(this.size)]; // The end of the leftmost path
+	}
+
+	/**
+	 * public int maxKey()
+	 *
+	 * Returns the largest key in the index.
+	 * Throws NoSuchElementException if the index is empty.
+	 * Complexity O(1).
+	 */
+	public int maxKey() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		return this.keys[this.maxIndex()];
+	}
+
+	/*
+	 * Returns the index of the largest key (the end of the rightmost path, 2^j - 1 for the largest
+	 * such one which is at most size). Complexity O(1).
+	 */
+	private int maxIndex() {
+		return Integer.highestOneBit(this.size + 1) - 1;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the index,
+	 * or null if the index is empty.
+	 * Complexity O(1).
+	 */
+	public String min() {
+		return (this.size == 0) ? null : this.values[Integer.highestOneBit(this.size)];
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the index,
+	 * or null if the index is empty.
+	 * Complexity O(1).
+	 */
+	public String max() {
+		return (this.size == 0) ? null : this.values[this.maxIndex()];
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the index,
+	 * or an empty array if the index is empty.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		int[] arr = new int[this.size];
+		for (int i = 1; i <= this.size; i++) {
+			arr[this.ranks[i]] = this.keys[i];
+		}
+		return arr;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the index,
+	 * sorted by their respective keys,
+	 * or an empty array if the index is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		String[] arr = new String[this.size];
+		for (int i = 1; i <= this.size; i++) {
+			arr[this.ranks[i]] = this.values[i];
+		}
+		return arr;
+	}
+
+	/**
+	 * public AVLTree toTree()
+	 *
+	 * Returns a new AVLTree holding the items of the index (bulk-loaded).
+	 * Complexity O(n).
+	 */
+	public AVLTree toTree() {
+		return new AVLTree(this.keysToArray(), this.infoToArray());
+	}
+}
@@ -0,0 +1,154 @@
+package avl;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Histogram
+ *
+ * A histogram of non-negative long values (latencies in nanoseconds, search depths) with a fixed
+ * relative precision, laid out as in HdrHistogram: values below 64 have a bucket each, and every
+ * power of two above them is cut into 32 buckets, so a value is known to within 1/32 (~3%) of itself.
+ * Recording is O(1) with no allocation, and the whole range of long takes 1888 buckets.
+ * Like the tree that fills it, a histogram is not thread-safe.
+ *
+ */
+
+public final class Histogram {
+	static final int SUB_BITS = 5;
+	static final int SUB_BUCKETS = 1 << SUB_BITS; // Buckets per power of two
+	static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS; // Enough for Long.MAX_VALUE
+
+	private final long[] counts = new long[BUCKETS];
+	private long count, sum, max;
+
+	/*
+	 * Returns the bucket of value v >= 0. Complexity O(1).
+	 */
+	static int bucket(long v) {
+		if (v < 2 * SUB_BUCKETS) {
+			return (int) v;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS; // >= 1, so that v >>> shift is in [32, 64)
+		return shift * SUB_BUCKETS + (int) (v >>> shift);
+	}
+
+	/*
+	 * Returns the largest value that falls into bucket b. Complexity O(1).
+	 */
+	static long highestValue(int b) {
+		if (b < 2 * SUB_BUCKETS) {
+			return b;
+		}
+		int shift = b / SUB_BUCKETS - 1;
+		long sub = b % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/*
+	 * Records value v (negative values are recorded as 0). Complexity O(1).
+	 */
+	void record(long v) {
+		v = Math.max(v, 0);
+		this.counts[bucket(v)]++;
+		this.count++;
+		this.sum += v;
+		this.max = Math.max(this.max, v);
+	}
+
+	/*
+	 * Forgets all of the recorded values. Complexity O(BUCKETS).
+	 */
+	void reset() {
+		Arrays.fill(this.counts, 0);
+		this.count = this.sum = this.max = 0;
+	}
+
+	/*
+	 * Returns a copy of the histogram. Complexity O(BUCKETS).
+	 */
+	Histogram copy() {
+		Histogram copy = new Histogram();
+		System.arraycopy(this.counts, 0, copy.counts, 0, BUCKETS);
+		copy.count = this.count;
+		copy.sum = this.sum;
+		copy.max = this.max;
+		return copy;
+	}
+
+	/**
+	 * public long count()
+	 *
+	 * Returns the number of recorded values.
+	 * Complexity O(1).
+	 */
+	public long count() {
+		return this.count;
+	}
+
+	/**
+	 * public long max()
+	 *
+	 * Returns the largest recorded value (exactly), or 0 if there is none.
+	 * Complexity O(1).
+	 */
+	public long max() {
+		return this.max;
+	}
+
+	/**
+	 * public double mean()
+	 *
+	 * Returns the mean of the recorded values (exactly), or 0 if there is none.
+	 * Complexity O(1).
+	 */
+	public double mean() {
+		return (this.count == 0) ? 0 : (double) this.sum / this.count;
+	}
+
+	/**
+	 * public long countOf(long v)
+	 *
+	 * Returns the number of recorded values that fall into the same bucket as v
+	 * (exactly the number of values equal to v, for v < 64).
+	 * Complexity O(1).
+	 */
+	public long countOf(long v) {
+		return (v < 0) ? 0 : this.counts[bucket(v)];
+	}
+
+	/**
+	 * public long percentile(double p)
+	 *
+	 * Returns the p-th percentile of the recorded values (nearest-rank method, 0 <= p <= 100),
+	 * as the largest value of its bucket (but never more than max()), or 0 if there are none.
+	 * Throws IllegalArgumentException if p is out of range.
+	 * Complexity O(BUCKETS).
+	 */
+	public long percentile(double p) {
+		if (!(p >= 0 && p <= 100)) {
+			throw new IllegalArgumentException("p must be in [0, 100]: " + p);
+		}
+		if (this.count == 0) {
+			return 0;
+		}
+		long rank = Math.max((long) Math.ceil(p / 100 * this.count), 1);
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += this.counts[b];
+			if (seen >= rank) {
+				return Math.min(highestValue(b), this.max);
+			}
+		}
+		return this.max;
+	}
+
+	/*
+	 * Returns the count, mean, median, 99th percentile and max of the histogram.
+	 */
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.1f p50=%d p99=%d max=%d",
+				this.count, this.mean(), this.percentile(50), this.percentile(99), this.max);
+	}
+}
@@ -0,0 +1,160 @@
+package avl;
+
+/**
+ *
+ * LongAVLTree
+ *
+ * An AVL Tree with distinct long keys (e.g. 64-bit IDs or timestamps) and info.
+ * Keys are kept as primitives in the nodes, so nothing is boxed on the way.
+ *
+ * Rebalancing follows the same rules as AVLTree, so insert() and delete()
+ * return the same number of re-balancing operations for the same sequence of operations.
+ *
+ */
+
+public class LongAVLTree extends AbstractAVLTree<LongAVLTree.LongNode> {
+
+	/*
+	 * Constructor for an empty LongAVLTree. Complexity O(1).
+	 */
+	public LongAVLTree() {
+		this.root = null;
+	}
+
+	/*
+	 * Helper function for search(), insert() & delete().
+	 * Returns the node whose key is k, or the last node encountered if k isn't in the tree.
+	 * Returns null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	private LongNode nodeSearch(long k) {
+		LongNode node = this.root, last = null;
+		while (node != null) {
+			last = node;
+			if (node.key == k) {
+				return node;
+			}
+			node = (k < node.key) ? node.left : node.right;
+		}
+		return last;
+	}
+
+	/**
+	 * public String search(long k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(long k) {
+		LongNode node = this.nodeSearch(k);
+		return (node != null && node.key == k) ? node.value : null;
+	}
+
+	/**
+	 * public int insert(long k, String i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.insert()),
+	 * or -1 if an item with key k already exists in the tree.
+	 * Complexity O(log n).
+	 */
+	public int insert(long k, String i) {
+		LongNode parent = this.nodeSearch(k);
+		if (parent != null && parent.key == k) { // Make sure key isn't in tree
+			return -1;
+		}
+		return this.link(parent, new LongNode(k, i), parent != null && k < parent.key);
+	}
+
+	/**
+	 * public int delete(long k)
+	 *
+	 * Deletes an item with key k from the tree, if it is there.
+	 * Returns the number of re-balancing operations (counted as in AVLTree.delete()),
+	 * or -1 if an item with key k was not found in the tree.
+	 * Complexity O(log n).
+	 */
+	public int delete(long k) {
+		LongNode node = this.nodeSearch(k);
+		if (node == null || node.key != k) {
+			return -1;
+		}
+		return this.unlink(node);
+	}
+
+	void copyItem(LongNode from, LongNode to) {
+		to.key = from.key;
+		to.value = from.value;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String min() {
+		return this.empty() ? null : minNode(this.root).value;
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String max() {
+		return this.empty() ? null : maxNode(this.root).value;
+	}
+
+	/**
+	 * public long[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public long[] keysToArray() {
+		long[] arr = new long[this.size()];
+		int pointer = 0;
+		for (LongNode node = minNode(this.root); node != null; node = successor(node)) {
+			arr[pointer++] = node.key;
+		}
+		return arr;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		String[] arr = new String[this.size()];
+		int pointer = 0;
+		for (LongNode node = minNode(this.root); node != null; node = successor(node)) {
+			arr[pointer++] = node.value;
+		}
+		return arr;
+	}
+
+	/**
+	 * static final class LongNode
+	 *
+	 * A node holding a primitive long key and its info.
+	 */
+	static final class LongNode extends AbstractAVLTree.Node<LongNode> {
+		long key;
+		String value;
+
+		LongNode(long key, String value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+}
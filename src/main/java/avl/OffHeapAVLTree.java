@@ -0,0 +1,345 @@
+package avl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ *
+ * OffHeapAVLTree
+ *
+ * A CompactAVLTree whose nodes and info live outside of the Java heap, in direct ByteBuffers
+ * managed by the tree (see OffHeapNodes). The garbage collector neither scans nor copies them,
+ * so a tree of tens of millions of items adds nothing to GC pauses. The tree logic
+ * (insert(), delete(), rotations, join() and split()) is CompactAVLTree's, unchanged.
+ *
+ * Info is stored as UTF-8 bytes, so search(), min() and max() decode a new String on every call,
+ * and an info can't be longer than 16MB.
+ * The memory is allocated when the tree grows, recycled through free lists when items are deleted,
+ * and returned to the OS by close(), after which neither this tree nor the trees split from it
+ * (which share its storage) may be used.
+ *
+ */
+
+public class OffHeapAVLTree extends CompactAVLTree implements AutoCloseable {
+
+	/*
+	 * Constructor for an empty OffHeapAVLTree. Complexity O(1).
+	 */
+	public OffHeapAVLTree() {
+		super(new OffHeapNodes());
+	}
+
+	/**
+	 * public long offHeapBytes()
+	 *
+	 * Returns the number of bytes of direct memory held by the tree (and the trees split from it).
+	 * Complexity O(1).
+	 */
+	public long offHeapBytes() {
+		return ((OffHeapNodes) this.nodes).allocatedBytes();
+	}
+
+	/**
+	 * public void close()
+	 *
+	 * Frees the direct memory of the tree, and of the trees split from it. Calling it again does nothing.
+	 * Complexity O(number of chunks).
+	 */
+	public void close() {
+		((OffHeapNodes) this.nodes).close();
+		this.root = NIL;
+	}
+
+	/**
+	 * OffHeapNodes
+	 *
+	 * Node storage in direct memory. Node records take 32 bytes, in chunks of 2^16 records:
+	 *   key, size, left, right, parent (ints), block (int), length (int), height (int)
+	 * where block is the address of the UTF-8 bytes of the info (in units of 8 bytes),
+	 * and length is their number (-1 for a null info).
+	 *
+	 * Info bytes are kept in 16MB chunks, in blocks of 8 * 2^c bytes. Freed blocks are kept in
+	 * one free list per size class c, linked through their first 4 bytes, and freed records
+	 * in a free list linked through their left field.
+	 */
+	static final class OffHeapNodes extends CompactAVLTree.Nodes {
+		static final int RECORD_SHIFT = 5; // 32 bytes per record
+		static final int KEY = 0, SIZE = 4, LEFT = 8, RIGHT = 12, PARENT = 16, BLOCK = 20, LENGTH = 24, HEIGHT = 28;
+		static final int RECORD_CHUNK_SHIFT = 16; // Records per chunk, 2MB
+		static final int UNIT_SHIFT = 3; // Blocks are addressed in units of 8 bytes
+		static final int BLOCK_CHUNK_SHIFT = 24 - UNIT_SHIFT; // Units per chunk, 16MB
+		static final int SIZE_CLASSES = BLOCK_CHUNK_SHIFT + 1; // Blocks of 1 to 2^BLOCK_CHUNK_SHIFT units
+		private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+		private ByteBuffer[] records = new ByteBuffer[1];
+		private ByteBuffer[] blocks = new ByteBuffer[0];
+		private int next = 1; // Lowest never-used handle
+		private int free = NIL; // Head of the free list of records
+		private int top = 0; // Lowest never-used block unit
+		private final int[] freeBlocks = new int[SIZE_CLASSES]; // Head of the free list of each size class, -1 if empty
+
+		/*
+		 * Constructor for a storage holding only the virtual node. Complexity O(1).
+		 */
+		OffHeapNodes() {
+			this.records[0] = newChunk(1 << (RECORD_CHUNK_SHIFT + RECORD_SHIFT));
+			Arrays.fill(this.freeBlocks, -1);
+			this.setHeight(NIL, -1);
+			this.setSize(NIL, 0);
+			this.setInt(NIL, LENGTH, -1);
+		}
+
+		/*
+		 * Returns Unsafe.invokeCleaner(), which frees the memory of a direct buffer right away,
+		 * or null if the JVM doesn't expose it (the memory is then freed once the buffer is collected).
+		 */
+		private static MethodHandle invokeCleaner() {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				return MethodHandles.lookup()
+						.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+						.bindTo(field.get(null));
+			}
+			catch (ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+
+		private static ByteBuffer newChunk(int bytes) {
+			return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+		}
+
+		/*
+		 * Frees every chunk. Complexity O(number of chunks).
+		 */
+		void close() {
+			if (this.records == null) {
+				return;
+			}
+			if (INVOKE_CLEANER != null) {
+				try {
+					for (ByteBuffer chunk : this.records) {
+						if (chunk != null) {
+							INVOKE_CLEANER.invokeExact(chunk);
+						}
+					}
+					for (ByteBuffer chunk : this.blocks) {
+						INVOKE_CLEANER.invokeExact(chunk);
+					}
+				}
+				catch (Throwable e) { // Only thrown for buffers that aren't direct, which these are
+					throw new IllegalStateException(e);
+				}
+			}
+			this.records = null;
+			this.blocks = null;
+		}
+
+		long allocatedBytes() {
+			if (this.records == null) {
+				return 0;
+			}
+			long recordChunks = ((this.next - 1) >>> RECORD_CHUNK_SHIFT) + 1;
+			return (recordChunks << (RECORD_CHUNK_SHIFT + RECORD_SHIFT))
+					+ ((long) this.blocks.length << (BLOCK_CHUNK_SHIFT + UNIT_SHIFT));
+		}
+
+		private int getInt(int node, int field) {
+			return this.records[node >>> RECORD_CHUNK_SHIFT]
+					.getInt(((node & ((1 << RECORD_CHUNK_SHIFT) - 1)) << RECORD_SHIFT) + field);
+		}
+
+		private void setInt(int node, int field, int value) {
+			this.records[node >>> RECORD_CHUNK_SHIFT]
+					.putInt(((node & ((1 << RECORD_CHUNK_SHIFT) - 1)) << RECORD_SHIFT) + field, value);
+		}
+
+		int allocate(int k, String v) {
+			int node = this.free;
+			if (node != NIL) {
+				this.free = this.getInt(node, LEFT);
+			}
+			else {
+				node = this.next;
+				int chunk = node >>> RECORD_CHUNK_SHIFT;
+				if (chunk == this.records.length) {
+					this.records = Arrays.copyOf(this.records, 2 * chunk);
+				}
+				if (this.records[chunk] == null) {
+					this.records[chunk] = newChunk(1 << (RECORD_CHUNK_SHIFT + RECORD_SHIFT));
+				}
+				if (++this.next < 0) {
+					this.next--;
+					throw new IllegalStateException("node storage is full");
+				}
+			}
+			this.setInt(node, KEY, k);
+			this.setInt(node, SIZE, 1);
+			this.setInt(node, LEFT, NIL);
+			this.setInt(node, RIGHT, NIL);
+			this.setInt(node, PARENT, NIL);
+			this.setInt(node, HEIGHT, 0);
+			this.storeValue(node, v);
+			return node;
+		}
+
+		/*
+		 * Helper function for allocate().
+		 * Copies the UTF-8 bytes of v into a new block, and points node at it.
+		 * Complexity O(length of v).
+		 */
+		private void storeValue(int node, String v) {
+			if (v == null) {
+				this.setInt(node, LENGTH, -1);
+				return;
+			}
+			byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+			this.setInt(node, LENGTH, bytes.length);
+			if (bytes.length == 0) {
+				return;
+			}
+			int block = this.allocateBlock(bytes.length);
+			this.blocks[block >>> BLOCK_CHUNK_SHIFT].put(blockOffset(block), bytes);
+			this.setInt(node, BLOCK, block);
+		}
+
+		private static int blockOffset(int block) {
+			return (block & ((1 << BLOCK_CHUNK_SHIFT) - 1)) << UNIT_SHIFT;
+		}
+
+		/*
+		 * Returns the smallest size class whose blocks hold bytes bytes.
+		 */
+		private static int sizeClass(int bytes) {
+			int units = (bytes + (1 << UNIT_SHIFT) - 1) >>> UNIT_SHIFT;
+			return (units <= 1) ? 0 : 32 - Integer.numberOfLeadingZeros(units - 1);
+		}
+
+		/*
+		 * Returns the address of a free block of at least bytes bytes: the head of the free list of its size class,
+		 * or a new block at the end of the last chunk (the rest of a chunk that is too short is cut into free blocks).
+		 * Complexity O(1) amortized.
+		 */
+		private int allocateBlock(int bytes) {
+			int c = sizeClass(bytes);
+			if (c >= SIZE_CLASSES) {
+				throw new IllegalArgumentException("info of " + bytes + " bytes is longer than 16MB");
+			}
+			int block = this.freeBlocks[c];
+			if (block != -1) {
+				this.freeBlocks[c] = this.blocks[block >>> BLOCK_CHUNK_SHIFT].getInt(blockOffset(block));
+				return block;
+			}
+			int units = 1 << c;
+			long chunkEnd = (long) this.blocks.length << BLOCK_CHUNK_SHIFT;
+			if (this.top + units > chunkEnd) {
+				while (this.top < chunkEnd) { // Keep the rest of the chunk as free blocks, largest first
+					int rest = 31 - Integer.numberOfLeadingZeros((int) (chunkEnd - this.top));
+					this.freeBlock(this.top, rest);
+					this.top += 1 << rest;
+				}
+				if (chunkEnd + (1 << BLOCK_CHUNK_SHIFT) > Integer.MAX_VALUE) {
+					throw new IllegalStateException("info storage is full");
+				}
+				this.blocks = Arrays.copyOf(this.blocks, this.blocks.length + 1);
+				this.blocks[this.blocks.length - 1] = newChunk(1 << (BLOCK_CHUNK_SHIFT + UNIT_SHIFT));
+			}
+			block = this.top;
+			this.top += units;
+			return block;
+		}
+
+		private void freeBlock(int block, int c) {
+			this.blocks[block >>> BLOCK_CHUNK_SHIFT].putInt(blockOffset(block), this.freeBlocks[c]);
+			this.freeBlocks[c] = block;
+		}
+
+		/*
+		 * Returns the block of node to its free list, if it has one.
+		 */
+		private void dropValue(int node) {
+			int length = this.getInt(node, LENGTH);
+			if (length > 0) {
+				this.freeBlock(this.getInt(node, BLOCK), sizeClass(length));
+			}
+			this.setInt(node, LENGTH, -1);
+		}
+
+		void free(int node) {
+			this.dropValue(node);
+			this.setInt(node, LEFT, this.free);
+			this.free = node;
+		}
+
+		void moveItem(int from, int to) {
+			this.dropValue(to);
+			this.setInt(to, KEY, this.getInt(from, KEY));
+			this.setInt(to, BLOCK, this.getInt(from, BLOCK));
+			this.setInt(to, LENGTH, this.getInt(from, LENGTH));
+			this.setInt(from, LENGTH, -1); // The block now belongs to to
+		}
+
+		int key(int node) {
+			return this.getInt(node, KEY);
+		}
+
+		String value(int node) {
+			int length = this.getInt(node, LENGTH);
+			if (length <= 0) {
+				return (length == 0) ? "" : null;
+			}
+			int block = this.getInt(node, BLOCK);
+			byte[] bytes = new byte[length];
+			this.blocks[block >>> BLOCK_CHUNK_SHIFT].get(blockOffset(block), bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		int height(int node) {
+			return this.getInt(node, HEIGHT);
+		}
+
+		void setHeight(int node, int h) {
+			this.setInt(node, HEIGHT, h);
+		}
+
+		int size(int node) {
+			return this.getInt(node, SIZE);
+		}
+
+		void setSize(int node, int s) {
+			this.setInt(node, SIZE, s);
+		}
+
+		int left(int node) {
+			return this.getInt(node, LEFT);
+		}
+
+		void setLeft(int node, int l) {
+			this.setInt(node, LEFT, l);
+		}
+
+		int right(int node) {
+			return this.getInt(node, RIGHT);
+		}
+
+		void setRight(int node, int r) {
+			this.setInt(node, RIGHT, r);
+		}
+
+		int parent(int node) {
+			return this.getInt(node, PARENT);
+		}
+
+		void setParent(int node, int p) {
+			this.setInt(node, PARENT, p);
+		}
+	}
+}
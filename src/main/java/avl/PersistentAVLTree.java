@@ -0,0 +1,339 @@
+package avl;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ *
+ * PersistentAVLTree
+ *
+ * A persistent (copy-on-write) AVL Tree with distinct integer keys and info.
+ * Nodes are immutable and have no parent pointers: an update copies the O(log n) nodes
+ * on the path from the root to the changed node, and shares every other node with the
+ * previous version, which is left untouched.
+ *
+ * snapshot() is therefore O(1), and a snapshot can be read (e.g. scanned) from any thread,
+ * without locks, while this tree keeps being updated. Updates themselves are not synchronized:
+ * a given tree must have a single writer at a time.
+ *
+ */
+
+public class PersistentAVLTree {
+	private volatile Node root; // null for the empty tree. Volatile, so that a published version is seen whole.
+
+	/*
+	 * Constructor for an empty PersistentAVLTree. Complexity O(1).
+	 */
+	public PersistentAVLTree() {
+		this.root = null;
+	}
+
+	/*
+	 * Constructor for a PersistentAVLTree whose root is the given (immutable) node.
+	 * Complexity O(1).
+	 */
+	private PersistentAVLTree(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * public PersistentAVLTree snapshot()
+	 *
+	 * Returns the current version of the tree as an independent tree.
+	 * Later updates of this tree aren't seen by the snapshot and vice versa.
+	 * Complexity O(1).
+	 */
+	public PersistentAVLTree snapshot() {
+		return new PersistentAVLTree(this.root);
+	}
+
+	/**
+	 * public boolean empty()
+	 *
+	 * Returns true if and only if the tree is empty.
+	 * Complexity O(1).
+	 */
+	public boolean empty() {
+		return this.root == null;
+	}
+
+	/**
+	 * public String search(int k)
+	 *
+	 * Returns the info of an item with key k if it exists in the tree.
+	 * otherwise, returns null.
+	 * Complexity O(log n).
+	 */
+	public String search(int k) {
+		Node node = this.root;
+		while (node != null) {
+			if (k == node.key) {
+				return node.value;
+			}
+			node = (k < node.key) ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * public int insert(int k, String i)
+	 *
+	 * Inserts an item with key k and info i to the AVL tree, as a new version.
+	 * Returns 0, or -1 if an item with key k already exists in the tree.
+	 * (Every node on the path is copied anyway, so re-balancing operations aren't counted.)
+	 * Complexity O(log n) time and new nodes.
+	 */
+	public int insert(int k, String i) {
+		Node old = this.root;
+		Node updated = insert(old, k, i);
+		if (updated == old) { // Key is already in the tree
+			return -1;
+		}
+		this.root = updated;
+		return 0;
+	}
+
+	/**
+	 * public int delete(int k)
+	 *
+	 * Deletes an item with key k from the tree, as a new version.
+	 * Returns 0, or -1 if an item with key k was not found in the tree.
+	 * Complexity O(log n) time and new nodes.
+	 */
+	public int delete(int k) {
+		Node old = this.root;
+		Node updated = delete(old, k);
+		if (updated == old) { // Key isn't in the tree
+			return -1;
+		}
+		this.root = updated;
+		return 0;
+	}
+
+	/**
+	 * public String min()
+	 *
+	 * Returns the info of the item with the smallest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String min() {
+		Node node = this.root;
+		if (node == null) {
+			return null;
+		}
+		while (node.left != null) {
+			node = node.left;
+		}
+		return node.value;
+	}
+
+	/**
+	 * public String max()
+	 *
+	 * Returns the info of the item with the largest key in the tree,
+	 * or null if the tree is empty.
+	 * Complexity O(log n).
+	 */
+	public String max() {
+		Node node = this.root;
+		if (node == null) {
+			return null;
+		}
+		while (node.right != null) {
+			node = node.right;
+		}
+		return node.value;
+	}
+
+	/**
+	 * public int[] keysToArray()
+	 *
+	 * Returns a sorted array which contains all keys in the tree,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public int[] keysToArray() {
+		Node node = this.root;
+		int[] arr = new int[size(node)];
+		int[] index = {0};
+		forEach(node, Integer.MIN_VALUE, Integer.MAX_VALUE, (value, key) -> arr[index[0]++] = key);
+		return arr;
+	}
+
+	/**
+	 * public String[] infoToArray()
+	 *
+	 * Returns an array which contains all info in the tree,
+	 * sorted by their respective keys,
+	 * or an empty array if the tree is empty.
+	 * Complexity O(n).
+	 */
+	public String[] infoToArray() {
+		Node node = this.root;
+		String[] arr = new String[size(node)];
+		int[] index = {0};
+		forEach(node, Integer.MIN_VALUE, Integer.MAX_VALUE, (value, key) -> arr[index[0]++] = value);
+		return arr;
+	}
+
+	/**
+	 * public void forEach(int lo, int hi, ObjIntConsumer<? super String> action)
+	 *
+	 * Performs action on the info and key of every item with lo <= key <= hi, in ascending key order.
+	 * The scan runs over the version current when it starts, whatever happens to the tree meanwhile.
+	 * Complexity O(log n + k) where k is the number of items in range.
+	 */
+	public void forEach(int lo, int hi, ObjIntConsumer<? super String> action) {
+		forEach(this.root, lo, hi, action);
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of nodes in the tree.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return size(this.root);
+	}
+
+	/*
+	 * Helper function for forEach(), keysToArray() & infoToArray().
+	 * In-order traversal of the sub-tree rooted by node, skipping the sub-trees out of [lo, hi].
+	 * Complexity O(log n + k).
+	 */
+	private static void forEach(Node node, int lo, int hi, ObjIntConsumer<? super String> action) {
+		while (node != null) {
+			if (node.key < lo) {
+				node = node.right;
+			}
+			else if (node.key > hi) {
+				node = node.left;
+			}
+			else {
+				forEach(node.left, lo, hi, action);
+				action.accept(node.value, node.key);
+				node = node.right; // Loop on the right son instead of recursing, the depth stays O(log n)
+			}
+		}
+	}
+
+	/*
+	 * Helper function for insert().
+	 * Returns the root of a copy of the sub-tree rooted by node with (k, i) inserted,
+	 * or node itself if k is already in it.
+	 * Complexity O(log n).
+	 */
+	private static Node insert(Node node, int k, String i) {
+		if (node == null) {
+			return new Node(k, i, null, null);
+		}
+		if (k < node.key) {
+			Node left = insert(node.left, k, i);
+			return (left == node.left) ? node : balance(node.key, node.value, left, node.right);
+		}
+		if (k > node.key) {
+			Node right = insert(node.right, k, i);
+			return (right == node.right) ? node : balance(node.key, node.value, node.left, right);
+		}
+		return node;
+	}
+
+	/*
+	 * Helper function for delete().
+	 * Returns the root of a copy of the sub-tree rooted by node without k,
+	 * or node itself if k isn't in it.
+	 * Complexity O(log n).
+	 */
+	private static Node delete(Node node, int k) {
+		if (node == null) {
+			return null;
+		}
+		if (k < node.key) {
+			Node left = delete(node.left, k);
+			return (left == node.left) ? node : balance(node.key, node.value, left, node.right);
+		}
+		if (k > node.key) {
+			Node right = delete(node.right, k);
+			return (right == node.right) ? node : balance(node.key, node.value, node.left, right);
+		}
+		if (node.left == null) { // Leaf or unary node, its son takes its place
+			return node.right;
+		}
+		if (node.right == null) {
+			return node.left;
+		}
+		Node successor = node.right; // Otherwise, the successor takes its place
+		while (successor.left != null) {
+			successor = successor.left;
+		}
+		return balance(successor.key, successor.value, node.left, deleteMin(node.right));
+	}
+
+	/*
+	 * Helper function for delete().
+	 * Returns the root of a copy of the sub-tree rooted by node without its minimal item.
+	 * Complexity O(log n).
+	 */
+	private static Node deleteMin(Node node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		return balance(node.key, node.value, deleteMin(node.left), node.right);
+	}
+
+	/*
+	 * Helper function for insert() & delete().
+	 * Returns the root of a balanced sub-tree holding the item (k, i) between the sub-trees l and r,
+	 * which are balanced and differ in height by at most 2. Only new nodes are created.
+	 * Complexity O(1).
+	 */
+	private static Node balance(int k, String i, Node l, Node r) {
+		int hl = height(l), hr = height(r);
+		if (hl > hr + 1) { // Left-heavy: single or double right rotation
+			if (height(l.left) >= height(l.right)) {
+				return new Node(l.key, l.value, l.left, new Node(k, i, l.right, r));
+			}
+			Node lr = l.right;
+			return new Node(lr.key, lr.value, new Node(l.key, l.value, l.left, lr.left), new Node(k, i, lr.right, r));
+		}
+		if (hr > hl + 1) { // Symmetric
+			if (height(r.right) >= height(r.left)) {
+				return new Node(r.key, r.value, new Node(k, i, l, r.left), r.right);
+			}
+			Node rl = r.left;
+			return new Node(rl.key, rl.value, new Node(k, i, l, rl.left), new Node(r.key, r.value, rl.right, r.right));
+		}
+		return new Node(k, i, l, r);
+	}
+
+	private static int height(Node node) {
+		return (node == null) ? -1 : node.height;
+	}
+
+	private static int size(Node node) {
+		return (node == null) ? 0 : node.size;
+	}
+
+	/**
+	 * private static final class Node
+	 *
+	 * An immutable node: its fields are final, so a node published through the root
+	 * is safely seen by every thread.
+	 */
+	private static final class Node {
+		final int key;
+		final String value;
+		final Node left, right;
+		final int height, size;
+
+		Node(int key, String value, Node left, Node right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.height = 1 + Math.max(height(left), height(right));
+			this.size = 1 + size(left) + size(right);
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package avl;
+
+import java.util.Arrays;
+
+/**
+ *
+ * SearchCache
+ *
+ * A bounded cache of the info of recently searched keys, put in front of AVLTree.search()
+ * by AVLTree.enableSearchCache(). A hit costs one hash and a probe or two in primitive arrays
+ * instead of a descent from the root, which pays off when the lookups are skewed (e.g. Zipfian).
+ *
+ * The cache is an open-addressing table with linear probing, at most half full, whose entries
+ * are removed by backward shifting (so there are no tombstones). When it is full, an entry is
+ * evicted by CLOCK: a hand sweeps the table, clearing the referenced bit that every hit sets,
+ * and evicts the first entry whose bit is already clear.
+ *
+ * Only items with non-null info are cached. The tree keeps the cache coherent: deleting a key
+ * removes it, and the operations which take items out of the tree in bulk clear it.
+ * Like the tree, a cache is not thread-safe.
+ *
+ */
+
+public class SearchCache {
+	private final int capacity; // Maximal number of entries
+	private final int mask; // Number of slots - 1, the number of slots being a power of 2
+	private final int shift; // 32 - log2(number of slots), for the multiplicative hash
+	private final int[] keys;
+	private final String[] values; // null for an empty slot
+	private final boolean[] referenced; // Set by a hit, cleared by the CLOCK hand
+	private int size;
+	private int hand; // Next slot the CLOCK hand looks at
+	private long hits, misses;
+
+	/*
+	 * Constructor for an empty cache of up to capacity entries. Complexity O(capacity).
+	 */
+	SearchCache(int capacity) {
+		if (capacity < 1 || capacity > (1 << 29)) {
+			throw new IllegalArgumentException("capacity must be in [1, 2^29]: " + capacity);
+		}
+		int slots = Integer.highestOneBit(2 * capacity - 1) << 1; // The first power of 2 >= 2 * capacity
+		this.capacity = capacity;
+		this.mask = slots - 1;
+		this.shift = 32 - Integer.numberOfTrailingZeros(slots);
+		this.keys = new int[slots];
+		this.values = new String[slots];
+		this.referenced = new boolean[slots];
+	}
+
+	/*
+	 * Returns the home slot of key k (Fibonacci hashing). Complexity O(1).
+	 */
+	private int home(int k) {
+		return (k * 0x9E3779B9) >>> this.shift;
+	}
+
+	/*
+	 * Returns the slot holding key k, or -1 if k isn't in the cache.
+	 * Complexity O(1) expected.
+	 */
+	private int find(int k) {
+		for (int i = this.home(k); this.values[i] != null; i = (i + 1) & this.mask) {
+			if (this.keys[i] == k) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Returns the cached info of key k, or null if it isn't cached, counting a hit or a miss.
+	 * Complexity O(1) expected.
+	 */
+	String get(int k) {
+		int i = this.find(k);
+		if (i < 0) {
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		this.referenced[i] = true;
+		return this.values[i];
+	}
+
+	/*
+	 * Caches info v for key k (nothing if v is null), evicting an entry if the cache is full.
+	 * Complexity O(1) expected (the CLOCK hand moves O(1) slots amortized).
+	 */
+	void put(int k, String v) {
+		if (v == null) {
+			return;
+		}
+		int i = this.find(k);
+		if (i >= 0) {
+			this.values[i] = v;
+			return;
+		}
+		if (this.size == this.capacity) {
+			this.evict();
+		}
+		i = this.home(k);
+		while (this.values[i] != null) {
+			i = (i + 1) & this.mask;
+		}
+		this.keys[i] = k;
+		this.values[i] = v;
+		this.referenced[i] = false; // A new entry must be hit once before it survives a sweep
+		this.size++;
+	}
+
+	/*
+	 * Removes key k from the cache, if it is there. Complexity O(1) expected.
+	 */
+	void remove(int k) {
+		int i = this.find(k);
+		if (i >= 0) {
+			this.removeAt(i);
+		}
+	}
+
+	/*
+	 * Removes all of the entries (the counters are kept). Complexity O(capacity).
+	 */
+	void clear() {
+		if (this.size > 0) {
+			Arrays.fill(this.values, null);
+			Arrays.fill(this.referenced, false);
+			this.size = 0;
+		}
+	}
+
+	/*
+	 * Helper function for put().
+	 * Advances the CLOCK hand to the first entry that wasn't hit since the hand last passed it, and removes it.
+	 * Complexity O(1) amortized.
+	 */
+	private void evict() {
+		while (true) {
+			int i = this.hand;
+			this.hand = (i + 1) & this.mask;
+			if (this.values[i] == null) {
+				continue;
+			}
+			if (this.referenced[i]) { // Second chance
+				this.referenced[i] = false;
+				continue;
+			}
+			this.removeAt(i);
+			return;
+		}
+	}
+
+	/*
+	 * Helper function for remove() & evict().
+	 * Empties slot i, shifting back the entries of the probe run that follows it
+	 * whose home slot isn't between the hole and them.
+	 * Complexity O(1) expected.
+	 */
+	private void removeAt(int i) {
+		int j = i;
+		while (true) {
+			j = (j + 1) & this.mask;
+			if (this.values[j] == null) {
+				break;
+			}
+			if (((j - this.home(this.keys[j])) & this.mask) >= ((j - i) & this.mask)) { // Its probe passed the hole
+				this.keys[i] = this.keys[j];
+				this.values[i] = this.values[j];
+				this.referenced[i] = this.referenced[j];
+				i = j;
+			}
+		}
+		this.values[i] = null;
+		this.referenced[i] = false;
+		this.size--;
+	}
+
+	/**
+	 * public int capacity()
+	 *
+	 * Returns the maximal number of entries of the cache.
+	 * Complexity O(1).
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * public int size()
+	 *
+	 * Returns the number of entries in the cache.
+	 * Complexity O(1).
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * public long hits()
+	 *
+	 * Returns the number of searches answered by the cache since it was created
+	 * (or since the last resetCounters()).
+	 * Complexity O(1).
+	 */
+	public long hits() {
+		return this.hits;
+	}
+
+	/**
+	 * public long misses()
+	 *
+	 * Returns the number of searches that went on to the tree since the cache was created
+	 * (or since the last resetCounters()).
+	 * Complexity O(1).
+	 */
+	public long misses() {
+		return this.misses;
+	}
+
+	/**
+	 * public void resetCounters()
+	 *
+	 * Sets the hit and miss counters back to 0.
+	 * Complexity O(1).
+	 */
+	public void resetCounters() {
+		this.hits = 0;
+		this.misses = 0;
+	}
+}
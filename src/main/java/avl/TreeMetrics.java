@@ -0,0 +1,211 @@
+package avl;
+
+import java.util.Arrays;
+
+/**
+ *
+ * TreeMetrics
+ *
+ * Hot-path metrics of an AVLTree, collected only after AVLTree.enableMetrics(): a latency histogram
+ * (in nanoseconds) and the sum of the returned re-balance counts for every timed operation, the
+ * rotations and the height changes (promotions and demotions) made while re-balancing, the depths at
+ * which search() descents end, and the number of nodes allocated.
+ * A tree without metrics pays a single null check per operation.
+ *
+ * Rotations and height changes are counted as they happen to the nodes, so they don't add up to the
+ * re-balance counts, which follow the conventions of insert() and delete(). The re-balancing done
+ * inside the join-based set operations (union() and the like) isn't counted.
+ * snapshot() returns a copy that can be exported while the tree keeps going.
+ * Like the tree, the metrics are not thread-safe.
+ *
+ */
+
+public final class TreeMetrics {
+	/**
+	 * public enum Operation
+	 *
+	 * The operations whose latency is recorded.
+	 */
+	public enum Operation {
+		SEARCH, INSERT, DELETE, JOIN, SPLIT
+	}
+
+	final Histogram[] latencies = new Histogram[Operation.values().length];
+	final long[] rebalances = new long[Operation.values().length];
+	final Histogram depths = new Histogram();
+	long rotations, promotions, demotions, allocations;
+
+	/*
+	 * Constructor for empty metrics. Complexity O(1).
+	 */
+	TreeMetrics() {
+		for (int i = 0; i < this.latencies.length; i++) {
+			this.latencies[i] = new Histogram();
+		}
+	}
+
+	/*
+	 * Records an operation that started at start (System.nanoTime()) and just returned result,
+	 * which is its re-balance count if it has one (a negative result isn't counted).
+	 * Complexity O(1).
+	 */
+	void record(Operation op, long start, int result) {
+		this.latencies[op.ordinal()].record(System.nanoTime() - start);
+		if (result > 0 && op != Operation.SEARCH) {
+			this.rebalances[op.ordinal()] += result;
+		}
+	}
+
+	/*
+	 * Records a rotation, and the height changes it made to the two nodes it rotated.
+	 * Complexity O(1).
+	 */
+	void rotated(int parentHeightChange, int nodeHeightChange) {
+		this.rotations++;
+		this.heightChanged(parentHeightChange);
+		this.heightChanged(nodeHeightChange);
+	}
+
+	/*
+	 * Records a change of delta to the height of a node. Complexity O(1).
+	 */
+	void heightChanged(int delta) {
+		if (delta > 0) {
+			this.promotions += delta;
+		}
+		else {
+			this.demotions -= delta;
+		}
+	}
+
+	/**
+	 * public void reset()
+	 *
+	 * Forgets everything recorded so far.
+	 * Complexity O(1) (the histograms are of a fixed size).
+	 */
+	public void reset() {
+		for (Histogram h : this.latencies) {
+			h.reset();
+		}
+		Arrays.fill(this.rebalances, 0);
+		this.depths.reset();
+		this.rotations = this.promotions = this.demotions = this.allocations = 0;
+	}
+
+	/**
+	 * public Snapshot snapshot()
+	 *
+	 * Returns a copy of the metrics recorded so far, which isn't affected by later operations.
+	 * Complexity O(1) (the histograms are of a fixed size).
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * public static final class Snapshot
+	 *
+	 * An immutable copy of TreeMetrics, to be exported.
+	 */
+	public static final class Snapshot {
+		private final Histogram[] latencies;
+		private final long[] rebalances;
+		private final Histogram depths;
+		private final long rotations, promotions, demotions, allocations;
+
+		private Snapshot(TreeMetrics metrics) {
+			this.latencies = new Histogram[metrics.latencies.length];
+			for (int i = 0; i < this.latencies.length; i++) {
+				this.latencies[i] = metrics.latencies[i].copy();
+			}
+			this.rebalances = metrics.rebalances.clone();
+			this.depths = metrics.depths.copy();
+			this.rotations = metrics.rotations;
+			this.promotions = metrics.promotions;
+			this.demotions = metrics.demotions;
+			this.allocations = metrics.allocations;
+		}
+
+		/**
+		 * public Histogram latency(Operation op)
+		 *
+		 * Returns the latencies of op, in nanoseconds (a copy, so that the snapshot stays unchanged).
+		 */
+		public Histogram latency(Operation op) {
+			return this.latencies[op.ordinal()].copy();
+		}
+
+		/**
+		 * public long rebalances(Operation op)
+		 *
+		 * Returns the sum of the re-balance counts of the calls to op
+		 * (the values returned by insert() and delete(), and the re-balancing steps of join()).
+		 */
+		public long rebalances(Operation op) {
+			return this.rebalances[op.ordinal()];
+		}
+
+		/**
+		 * public Histogram searchDepths()
+		 *
+		 * Returns the depths (the root being at depth 0) of the nodes at which the search() descents ended.
+		 */
+		public Histogram searchDepths() {
+			return this.depths.copy();
+		}
+
+		/**
+		 * public long rotations()
+		 *
+		 * Returns the number of single rotations (a double rotation is two).
+		 */
+		public long rotations() {
+			return this.rotations;
+		}
+
+		/**
+		 * public long promotions()
+		 *
+		 * Returns the sum of the height increases of nodes during re-balancing.
+		 */
+		public long promotions() {
+			return this.promotions;
+		}
+
+		/**
+		 * public long demotions()
+		 *
+		 * Returns the sum of the height decreases of nodes during re-balancing.
+		 */
+		public long demotions() {
+			return this.demotions;
+		}
+
+		/**
+		 * public long allocations()
+		 *
+		 * Returns the number of nodes allocated by insert() and insertAll()
+		 * (nodes reused from the node pool aren't allocated).
+		 */
+		public long allocations() {
+			return this.allocations;
+		}
+
+		/*
+		 * Returns the metrics as text, one line per histogram.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for (Operation op : Operation.values()) {
+				sb.append(op).append(": ").append(this.latencies[op.ordinal()])
+						.append(" rebalances=").append(this.rebalances[op.ordinal()]).append('\n');
+			}
+			sb.append("depth: ").append(this.depths).append('\n');
+			sb.append("rotations=").append(this.rotations).append(" promotions=").append(this.promotions)
+					.append(" demotions=").append(this.demotions).append(" allocations=").append(this.allocations);
+			return sb.toString();
+		}
+	}
+}
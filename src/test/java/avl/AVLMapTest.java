@@ -0,0 +1,175 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks AVLMap (with its natural order and with a custom Comparator) and LongAVLTree (with keys beyond
+ * the int range) against a TreeMap, and the links, heights and sizes of their nodes. Both share their
+ * re-balancing with AbstractAVLTree, so their re-balance counts must also be those of AVLTree.
+ */
+class AVLMapTest {
+
+	@Test
+	void naturalOrderMatchesTreeMap() {
+		Random random = new Random(1);
+		AVLMap<String, Integer> tree = new AVLMap<>();
+		TreeMap<String, Integer> map = new TreeMap<>();
+		for (int i = 0; i < 20_000; i++) {
+			String k = Integer.toString(random.nextInt(5_000), 36);
+			if (random.nextInt(3) > 0) {
+				assertEquals(map.containsKey(k), tree.insert(k, i) == -1);
+				map.putIfAbsent(k, i);
+			}
+			else {
+				assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+				map.remove(k);
+			}
+			if (i % 97 == 0) {
+				assertEquals(map.get(k), tree.search(k));
+			}
+		}
+		check(tree, map);
+	}
+
+	@Test
+	void customComparatorMatchesTreeMap() {
+		Comparator<String> order = Comparator.comparing(String::length).thenComparing(Comparator.reverseOrder());
+		Random random = new Random(2);
+		AVLMap<String, String> tree = new AVLMap<>(order);
+		TreeMap<String, String> map = new TreeMap<>(order);
+		assertSame(order, tree.comparator());
+		for (int i = 0; i < 20_000; i++) {
+			String k = "k".repeat(random.nextInt(4)) + random.nextInt(2_000);
+			if (random.nextInt(3) > 0) {
+				assertEquals(map.containsKey(k), tree.insert(k, "v" + i) == -1);
+				map.putIfAbsent(k, "v" + i);
+			}
+			else {
+				assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+				map.remove(k);
+			}
+		}
+		check(tree, map);
+		assertThrows(NullPointerException.class, () -> new AVLMap<String, String>(null));
+	}
+
+	@Test
+	void longKeysBeyondTheIntRangeMatchTreeMap() {
+		Random random = new Random(3);
+		long[] edges = {Long.MIN_VALUE, Integer.MIN_VALUE - 1L, Integer.MIN_VALUE, -1, 0,
+				Integer.MAX_VALUE, Integer.MAX_VALUE + 1L, 1L << 32, Long.MAX_VALUE};
+		LongAVLTree tree = new LongAVLTree();
+		TreeMap<Long, String> map = new TreeMap<>();
+		for (long k : edges) {
+			tree.insert(k, "v" + k);
+			map.put(k, "v" + k);
+		}
+		for (int i = 0; i < 30_000; i++) {
+			long k = (random.nextBoolean()) ? random.nextLong() >> random.nextInt(64) // Spread over all magnitudes
+					: edges[random.nextInt(edges.length)] + random.nextInt(5) - 2;
+			if (random.nextInt(3) > 0) {
+				assertEquals(map.containsKey(k), tree.insert(k, "v" + i) == -1);
+				map.putIfAbsent(k, "v" + i);
+			}
+			else {
+				assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+				map.remove(k);
+			}
+			if (i % 89 == 0) {
+				assertEquals(map.get(k), tree.search(k));
+			}
+		}
+		assertEquals(map.size(), tree.size());
+		assertArrayEquals(map.keySet().stream().mapToLong(Long::longValue).toArray(), tree.keysToArray());
+		assertArrayEquals(map.values().toArray(new String[0]), tree.infoToArray());
+		assertEquals(map.firstEntry().getValue(), tree.min());
+		assertEquals(map.lastEntry().getValue(), tree.max());
+		checkNodes(tree.root, null);
+
+		// Keys differing only above bit 31 are distinct
+		LongAVLTree high = new LongAVLTree();
+		high.insert(5, "low");
+		assertTrue(high.insert(5 + (1L << 32), "high") >= 0);
+		assertEquals("low", high.search(5));
+		assertEquals("high", high.search(5 + (1L << 32)));
+	}
+
+	@Test
+	void rebalanceCountsMatchAVLTree() {
+		Random random = new Random(4);
+		AVLTree tree = new AVLTree();
+		AVLMap<Integer, String> generic = new AVLMap<>();
+		LongAVLTree longs = new LongAVLTree();
+		for (int i = 0; i < 50_000; i++) {
+			int k = random.nextInt(3_000) - 1_500;
+			if (random.nextBoolean()) {
+				int expected = tree.insert(k, "v");
+				assertEquals(expected, generic.insert(k, "v"));
+				assertEquals(expected, longs.insert(k, "v"));
+			}
+			else {
+				int expected = tree.delete(k);
+				assertEquals(expected, generic.delete(k));
+				assertEquals(expected, longs.delete(k));
+			}
+		}
+	}
+
+	@Test
+	void emptyTrees() {
+		AVLMap<Integer, String> map = new AVLMap<>();
+		assertTrue(map.empty());
+		assertNull(map.search(1));
+		assertNull(map.min());
+		assertEquals(-1, map.delete(1));
+		assertTrue(map.keys().isEmpty());
+		LongAVLTree longs = new LongAVLTree();
+		assertTrue(longs.empty());
+		assertNull(longs.max());
+		assertEquals(0, longs.keysToArray().length);
+	}
+
+	/*
+	 * Asserts that tree holds exactly the items of map (which has the same order), and that its nodes are valid.
+	 */
+	private static <K, V> void check(AVLMap<K, V> tree, TreeMap<K, V> map) {
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.isEmpty(), tree.empty());
+		assertEquals(new ArrayList<>(map.keySet()), tree.keys());
+		assertEquals(new ArrayList<>(map.values()), tree.values());
+		if (!map.isEmpty()) {
+			assertEquals(map.firstEntry().getValue(), tree.min());
+			assertEquals(map.lastEntry().getValue(), tree.max());
+		}
+		checkNodes(tree.root, null);
+	}
+
+	/*
+	 * Asserts the AVL balance, heights, sizes and parent links of the sub-tree rooted by node
+	 * (the key order is checked by comparing the in-order keys with the TreeMap).
+	 */
+	static <N extends AbstractAVLTree.Node<N>> void checkNodes(N node, N parent) {
+		if (node == null) {
+			return;
+		}
+		assertSame(parent, node.parent);
+		int left = AbstractAVLTree.height(node.left), right = AbstractAVLTree.height(node.right);
+		assertTrue(Math.abs(left - right) <= 1, "unbalanced node");
+		assertEquals(Math.max(left, right) + 1, node.height);
+		assertEquals(AbstractAVLTree.size(node.left) + AbstractAVLTree.size(node.right) + 1, node.size);
+		checkNodes(node.left, node);
+		checkNodes(node.right, node);
+	}
+}
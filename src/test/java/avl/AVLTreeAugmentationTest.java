@@ -0,0 +1,161 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks aggregate() and aggregate(lo, hi) of AVLTree against a fold over a TreeMap, with an Augmentation
+ * that isn't commutative (so that any item combined out of key order shows), through inserts, deletes,
+ * split(), join() and the set operations, including empty ranges and the full one.
+ */
+class AVLTreeAugmentationTest {
+	private static final long P = 32_749; // A prime below 2^15, so that each matrix entry fits 16 bits
+
+	/*
+	 * Products of the 2x2 matrices [[key mod P, 1], [1, 0]] mod P, packed 16 bits per entry:
+	 * associative, but swapping two different items changes the product.
+	 */
+	private static final Augmentation MATRIX_PRODUCT = new Augmentation() {
+		public long identity() {
+			return pack(1, 0, 0, 1);
+		}
+
+		public long lift(int key, String info) {
+			return pack(Math.floorMod(key, P), 1, 1, 0);
+		}
+
+		public long combine(long left, long right) {
+			long a = entry(left, 0), b = entry(left, 1), c = entry(left, 2), d = entry(left, 3);
+			long e = entry(right, 0), f = entry(right, 1), g = entry(right, 2), h = entry(right, 3);
+			return pack((a * e + b * g) % P, (a * f + b * h) % P, (c * e + d * g) % P, (c * f + d * h) % P);
+		}
+	};
+
+	@Test
+	void combineIsNotCommutative() {
+		long x = MATRIX_PRODUCT.lift(3, null), y = MATRIX_PRODUCT.lift(5, null);
+		assertNotEquals(MATRIX_PRODUCT.combine(x, y), MATRIX_PRODUCT.combine(y, x));
+	}
+
+	@Test
+	void rangeAggregatesMatchTreeMap() {
+		Random random = new Random(1);
+		for (int round = 0; round < 30; round++) {
+			AVLTree tree = new AVLTree(MATRIX_PRODUCT);
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 15) ? 50 : 5_000);
+			for (int i = 0; i < 3 * n; i++) {
+				int k = random.nextInt(2 * n + 1) - n;
+				if (random.nextInt(3) > 0) {
+					tree.insert(k, "v" + k);
+					map.putIfAbsent(k, "v" + k);
+				}
+				else {
+					tree.delete(k);
+					map.remove(k);
+				}
+			}
+			checkAggregates(tree, map, random, n);
+		}
+	}
+
+	@Test
+	void aggregatesSurviveSplitJoinAndSetOperations() {
+		Random random = new Random(2);
+		for (int round = 0; round < 30; round++) {
+			int n = random.nextInt(3_000) + 1;
+			TreeMap<Integer, String> map = new TreeMap<>(), other = new TreeMap<>();
+			AVLTree tree = randomTree(random, n, map), t = randomTree(random, random.nextInt(3_000), other);
+			switch (round % 4) {
+				case 0:
+					tree.union(t, random.nextBoolean());
+					other.putAll(map);
+					map = other;
+					break;
+				case 1:
+					tree.intersect(t, random.nextBoolean());
+					map.keySet().retainAll(other.keySet());
+					break;
+				case 2:
+					tree.difference(t, random.nextBoolean());
+					map.keySet().removeAll(other.keySet());
+					break;
+				default: // Split at a key of the tree and join back around it
+					int x = map.ceilingKey(random.nextInt(2 * n + 1) - n - 1);
+					AVLTree[] parts = tree.split(x);
+					checkAggregates(parts[0], new TreeMap<>(map.headMap(x)), random, n);
+					checkAggregates(parts[1], new TreeMap<>(map.tailMap(x, false)), random, n);
+					parts[0].join(parts[0].new AVLNode(x, "x", parts[0].VIRTUAL_NODE, parts[0].VIRTUAL_NODE, null),
+							parts[1]);
+					tree = (parts[0].size() > parts[1].size()) ? parts[0] : parts[1];
+					map.put(x, "x");
+			}
+			checkAggregates(tree, map, random, n);
+		}
+	}
+
+	@Test
+	void treesWithDifferentAugmentationsDontMix() {
+		AVLTree tree = new AVLTree(MATRIX_PRODUCT), counted = new AVLTree(Augmentation.COUNT);
+		tree.insert(1, "a");
+		counted.insert(5, "b");
+		assertThrows(IllegalArgumentException.class, () -> tree.union(counted));
+		assertThrows(IllegalArgumentException.class, () -> tree.concatenate(counted));
+		assertThrows(IllegalStateException.class, () -> new AVLTree().aggregate(0, 1));
+	}
+
+	/*
+	 * Asserts aggregate() and aggregate(lo, hi) of tree, for the full and empty ranges and random ones
+	 * around [-n, n], against a fold over the items of map in key order.
+	 */
+	private static void checkAggregates(AVLTree tree, TreeMap<Integer, String> map, Random random, int n) {
+		assertEquals(fold(map), tree.aggregate());
+		assertEquals(fold(map), tree.aggregate(Integer.MIN_VALUE, Integer.MAX_VALUE)); // The keys are below MAX
+		assertEquals(MATRIX_PRODUCT.identity(), tree.aggregate(0, 0));
+		assertEquals(MATRIX_PRODUCT.identity(), tree.aggregate(5, -5));
+		if (!map.isEmpty()) { // Up to the smallest key, but without it
+			assertEquals(MATRIX_PRODUCT.identity(), tree.aggregate(Integer.MIN_VALUE, map.firstKey()));
+		}
+		for (int i = 0; i < 300; i++) {
+			int lo = random.nextInt(2 * n + 5) - n - 2, hi = lo + random.nextInt(2 * n + 5 - (lo + n + 2));
+			assertEquals(fold(map.subMap(lo, hi)), tree.aggregate(lo, hi), "[" + lo + ", " + hi + ")");
+		}
+	}
+
+	/*
+	 * Returns a tree with MATRIX_PRODUCT of n distinct random keys in [-n, n], and adds them to map.
+	 */
+	private static AVLTree randomTree(Random random, int n, TreeMap<Integer, String> map) {
+		AVLTree tree = new AVLTree(MATRIX_PRODUCT);
+		while (tree.size() < n) {
+			int k = random.nextInt(2 * n + 1) - n;
+			if (tree.insert(k, "v" + k) != -1) {
+				map.put(k, "v" + k);
+			}
+		}
+		return tree;
+	}
+
+	private static long fold(Map<Integer, String> items) {
+		long aggregate = MATRIX_PRODUCT.identity();
+		for (Map.Entry<Integer, String> e : items.entrySet()) {
+			aggregate = MATRIX_PRODUCT.combine(aggregate, MATRIX_PRODUCT.lift(e.getKey(), e.getValue()));
+		}
+		return aggregate;
+	}
+
+	private static long pack(long a, long b, long c, long d) {
+		return (a << 48) | (b << 32) | (c << 16) | d;
+	}
+
+	private static long entry(long matrix, int i) {
+		return (matrix >>> (48 - 16 * i)) & 0xFFFF;
+	}
+}
@@ -0,0 +1,125 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import avl.AVLTree.Cursor;
+import avl.AVLTree.IAVLNode;
+
+/*
+ * Checks the finger-search Cursor of AVLTree against a TreeMap: clustered and random searches, inserts
+ * and deletes through it, interleaved with updates of the tree itself (which must send its next operation
+ * back to the root), and where current() leaves it.
+ */
+class AVLTreeCursorTest {
+
+	@Test
+	void cursorOperationsMatchTreeMap() {
+		Random random = new Random(1);
+		for (int round = 0; round < 30; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 15) ? 100 : 10_000) + 1;
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n / 2, 0, 2 * n, "v", map);
+			Cursor cursor = tree.cursor();
+			int k = random.nextInt(2 * n);
+			for (int i = 0; i < 5 * n; i++) {
+				// Mostly a short walk from the last key (where the finger helps), sometimes a jump
+				k = (random.nextInt(10) == 0) ? random.nextInt(2 * n) : Math.floorMod(k + random.nextInt(9) - 4, 2 * n);
+				switch (random.nextInt(7)) {
+					case 0:
+					case 1:
+						assertEquals(map.get(k), cursor.search(k));
+						assertCurrentNear(cursor, k, map);
+						break;
+					case 2:
+					case 3:
+						assertEquals(map.containsKey(k), cursor.insert(k, "c" + i) == -1);
+						map.putIfAbsent(k, "c" + i);
+						assertEquals(k, cursor.current().getKey()); // On the inserted (or found) item
+						break;
+					case 4:
+					case 5:
+						assertEquals(!map.containsKey(k), cursor.delete(k) == -1);
+						map.remove(k);
+						if (!map.isEmpty()) {
+							assertNotNull(cursor.current());
+							assertEquals(map.get(cursor.current().getKey()), cursor.current().getValue());
+						}
+						break;
+					default: // An update the cursor doesn't see
+						if (random.nextBoolean()) {
+							if (tree.insert(k, "t" + i) != -1) {
+								map.put(k, "t" + i);
+								assertNull(cursor.current());
+							}
+						}
+						else if (tree.delete(k) != -1) {
+							map.remove(k);
+							assertNull(cursor.current());
+						}
+				}
+			}
+			AVLTreeSetOperationsTest.check(tree, map);
+		}
+	}
+
+	@Test
+	void cursorsOnTheSameTreeInvalidateEachOther() {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		AVLTree tree = AVLTreeSetOperationsTest.ascending(0, 1_000, map);
+		Cursor a = tree.cursor(), b = tree.cursor();
+		assertNull(a.current()); // No operation yet
+		assertEquals("v10", a.search(10));
+		assertEquals("v900", b.search(900));
+		assertEquals(10, a.current().getKey());
+		assertEquals(-1, a.insert(10, "x")); // Not a change
+		assertEquals(900, b.current().getKey());
+		a.delete(11);
+		map.remove(11);
+		assertNull(b.current());
+		assertEquals("v901", b.search(901)); // From the root again
+		assertEquals(901, b.current().getKey());
+		assertEquals(12, a.current().getKey()); // A search changes nothing, and delete() left a on the successor
+		assertNull(a.search(11));
+		AVLTreeSetOperationsTest.check(tree, map);
+	}
+
+	@Test
+	void cursorOnAnEmptyTree() {
+		AVLTree tree = new AVLTree();
+		Cursor cursor = tree.cursor();
+		assertNull(cursor.search(5));
+		assertEquals(-1, cursor.delete(5));
+		assertEquals(0, cursor.insert(5, "five"));
+		assertEquals(5, cursor.current().getKey());
+		assertEquals(0, cursor.delete(5));
+		assertNull(cursor.current());
+		assertNull(tree.getRoot());
+	}
+
+	/*
+	 * Asserts that a search for k left the cursor on k, or on a neighbor of k if k isn't in the tree.
+	 */
+	private static void assertCurrentNear(Cursor cursor, int k, TreeMap<Integer, String> map) {
+		IAVLNode current = cursor.current();
+		if (map.isEmpty()) {
+			assertNull(current);
+			return;
+		}
+		int key = current.getKey();
+		if (map.containsKey(k)) {
+			assertEquals(k, key);
+		}
+		else {
+			Integer floor = map.floorKey(k), ceiling = map.ceilingKey(k);
+			assertTrue((floor != null && key == floor) || (ceiling != null && key == ceiling));
+		}
+	}
+}
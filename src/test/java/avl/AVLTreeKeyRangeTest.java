@@ -0,0 +1,149 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Regression tests for keys anywhere in the int range: AVLTree used to mark its virtual nodes by key -1,
+ * so -1 (and any negative key) could not be told apart from a missing son. Every operation is checked
+ * around -1, 0 and the int extremes, against a TreeMap and the invariants of AVLTreeSetOperationsTest.check().
+ */
+class AVLTreeKeyRangeTest {
+	private static final int[] EDGE_KEYS = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -2, -1, 0, 1,
+			Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+	@Test
+	void insertAndDeleteEdgeKeysInAnyOrder() {
+		Random random = new Random(1);
+		for (int round = 0; round < 200; round++) {
+			List<Integer> keys = edgeKeysAndNeighbours(random);
+			Collections.shuffle(keys, random);
+			AVLTree tree = new AVLTree();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int k : keys) {
+				assertNull(tree.search(k));
+				assertTrue(tree.insert(k, "v" + k) >= 0);
+				map.put(k, "v" + k);
+			}
+			AVLTreeSetOperationsTest.check(tree, map);
+			for (int k : keys) {
+				assertEquals(-1, tree.insert(k, "again"));
+				assertEquals("v" + k, tree.search(k));
+			}
+			Collections.shuffle(keys, random);
+			for (int k : keys.subList(0, keys.size() / 2)) {
+				assertTrue(tree.delete(k) >= 0);
+				assertEquals(-1, tree.delete(k));
+				assertNull(tree.search(k));
+				map.remove(k);
+			}
+			AVLTreeSetOperationsTest.check(tree, map);
+		}
+	}
+
+	@Test
+	void minusOneIsAnOrdinaryKey() {
+		AVLTree tree = new AVLTree();
+		assertNull(tree.search(-1));
+		tree.insert(5, "five");
+		assertNull(tree.search(-1)); // Not the info of a virtual son
+		assertEquals(-1, tree.delete(-1));
+		assertTrue(tree.insert(-1, "minus one") >= 0);
+		assertEquals("minus one", tree.search(-1));
+		assertEquals("minus one", tree.min());
+		assertTrue(tree.delete(-1) >= 0);
+		assertNull(tree.search(-1));
+		assertEquals(1, tree.size());
+	}
+
+	@Test
+	void splitAndJoinAroundEdgeKeys() {
+		Random random = new Random(2);
+		for (int round = 0; round < 20; round++) {
+			List<Integer> keys = edgeKeysAndNeighbours(random);
+			for (int x : keys) {
+				AVLTree tree = new AVLTree();
+				TreeMap<Integer, String> map = new TreeMap<>();
+				for (int k : keys) {
+					tree.insert(k, "v" + k);
+					map.put(k, "v" + k);
+				}
+				AVLTree[] parts = tree.split(x);
+				AVLTreeSetOperationsTest.check(parts[0], new TreeMap<>(map.headMap(x)));
+				AVLTreeSetOperationsTest.check(parts[1], new TreeMap<>(map.tailMap(x, false)));
+
+				map.put(x, "x");
+				AVLTree into = random.nextBoolean() ? parts[0] : parts[1];
+				AVLTree other = (into == parts[0]) ? parts[1] : parts[0];
+				into.join(into.new AVLNode(x, "x", into.VIRTUAL_NODE, into.VIRTUAL_NODE, null), other);
+				AVLTreeSetOperationsTest.check((into.size() > other.size()) ? into : other, map);
+			}
+		}
+	}
+
+	@Test
+	void bulkOperationsTakeEdgeKeys() {
+		int[] keys = EDGE_KEYS.clone();
+		String[] values = new String[keys.length];
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			values[i] = "v" + keys[i];
+			map.put(keys[i], values[i]);
+		}
+		AVLTreeSetOperationsTest.check(new AVLTree(keys, values), map); // Bulk-loaded
+
+		AVLTree tree = new AVLTree();
+		int[] reversed = new int[keys.length];
+		String[] reversedValues = new String[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			reversed[i] = keys[keys.length - 1 - i];
+			reversedValues[i] = values[keys.length - 1 - i];
+		}
+		assertEquals(keys.length, tree.insertAll(reversed, reversedValues));
+		AVLTreeSetOperationsTest.check(tree, map);
+		assertEquals(3, tree.deleteAll(new int[] {Integer.MAX_VALUE, -1, Integer.MIN_VALUE}));
+		map.remove(Integer.MAX_VALUE);
+		map.remove(-1);
+		map.remove(Integer.MIN_VALUE);
+		AVLTreeSetOperationsTest.check(tree, map);
+	}
+
+	@Test
+	void virtualNodeKeepsTheDocumentedKey() {
+		AVLTree tree = new AVLTree();
+		assertFalse(tree.VIRTUAL_NODE.isRealNode());
+		assertEquals(-1, tree.VIRTUAL_NODE.getKey());
+		tree.insert(-1, "minus one");
+		assertArrayEquals(new int[] {-1}, tree.keysToArray());
+		assertFalse(tree.getRoot().getLeft().isRealNode());
+		assertTrue(tree.getRoot().isRealNode());
+	}
+
+	/*
+	 * Returns the edge keys with a few random keys near each of them, without repeats.
+	 */
+	private static List<Integer> edgeKeysAndNeighbours(Random random) {
+		TreeMap<Integer, Boolean> keys = new TreeMap<>();
+		for (int k : EDGE_KEYS) {
+			keys.put(k, true);
+			for (int i = 0; i < 3; i++) {
+				long near = (long) k + random.nextInt(21) - 10;
+				if (near >= Integer.MIN_VALUE && near <= Integer.MAX_VALUE) {
+					keys.put((int) near, true);
+				}
+			}
+		}
+		return new ArrayList<>(keys.keySet());
+	}
+}
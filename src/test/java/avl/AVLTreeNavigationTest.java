@@ -0,0 +1,104 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import avl.AVLTree.IAVLNode;
+
+/*
+ * Checks floor(), ceiling(), lower(), higher(), predecessor() and successor() of AVLTree against
+ * the same methods of a TreeMap, for keys in the tree, between its keys and beyond both ends.
+ */
+class AVLTreeNavigationTest {
+
+	@Test
+	void neighborsMatchTreeMap() {
+		Random random = new Random(1);
+		for (int round = 0; round < 40; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 20) ? 20 : 5_000);
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, -2 * n, 4 * n + 1, "v", map);
+			for (int i = 0; i < 2_000; i++) {
+				int k = random.nextInt(4 * n + 11) - 2 * n - 5; // A little beyond both ends
+				assertNode(map.floorEntry(k), tree.floor(k));
+				assertNode(map.ceilingEntry(k), tree.ceiling(k));
+				assertNode(map.lowerEntry(k), tree.lower(k));
+				assertNode(map.higherEntry(k), tree.higher(k));
+			}
+			for (int i = 0; i < 200 && random.nextInt(4) > 0; i++) { // Some deletes before the next round of searches
+				int k = random.nextInt(4 * n + 1) - 2 * n;
+				tree.delete(k);
+				map.remove(k);
+			}
+			for (int k = -2 * n - 1; k <= 2 * n + 1; k += 1 + random.nextInt(3)) {
+				assertNode(map.floorEntry(k), tree.floor(k));
+				assertNode(map.higherEntry(k), tree.higher(k));
+			}
+		}
+	}
+
+	@Test
+	void predecessorAndSuccessorWalkTheTree() {
+		Random random = new Random(2);
+		for (int round = 0; round < 20; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt(3_000);
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, 0, 3 * n + 1, "v", map);
+			IAVLNode node = (n == 0) ? null : tree.floor(Integer.MAX_VALUE);
+			for (Integer k : map.descendingKeySet()) { // Down with predecessor()
+				assertEquals(k, node.getKey());
+				node = tree.predecessor(node);
+			}
+			assertNull(node);
+			node = tree.ceiling(Integer.MIN_VALUE);
+			for (Integer k : map.keySet()) { // Up with successor()
+				assertEquals(k, node.getKey());
+				node = tree.successor(node);
+			}
+			assertNull(node);
+
+			// From random nodes
+			for (int i = 0; i < 200 && n > 0; i++) {
+				IAVLNode from = tree.select(random.nextInt(n));
+				assertNode(map.lowerEntry(from.getKey()), tree.predecessor(from));
+				assertNode(map.higherEntry(from.getKey()), tree.successor(from));
+			}
+		}
+	}
+
+	@Test
+	void emptyAndSingleNodeTrees() {
+		AVLTree tree = new AVLTree();
+		assertNull(tree.floor(0));
+		assertNull(tree.ceiling(0));
+		assertNull(tree.lower(0));
+		assertNull(tree.higher(0));
+		tree.insert(7, "seven");
+		assertSame(tree.getRoot(), tree.floor(Integer.MAX_VALUE));
+		assertSame(tree.getRoot(), tree.ceiling(Integer.MIN_VALUE));
+		assertSame(tree.getRoot(), tree.floor(7));
+		assertNull(tree.lower(7));
+		assertNull(tree.higher(7));
+		assertNull(tree.predecessor(tree.getRoot()));
+		assertNull(tree.successor(tree.getRoot()));
+	}
+
+	/*
+	 * Asserts that node is the node of entry (both null, or the same key and info).
+	 */
+	private static void assertNode(Map.Entry<Integer, String> entry, IAVLNode node) {
+		if (entry == null) {
+			assertNull(node);
+			return;
+		}
+		assertEquals(entry.getKey(), node.getKey());
+		assertEquals(entry.getValue(), node.getValue());
+	}
+}
@@ -0,0 +1,129 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import avl.AVLTree.Cursor;
+import avl.AVLTree.IAVLNode;
+
+/*
+ * Checks that an AVLTree with a node pool matches a TreeMap through random insert/delete churn (directly,
+ * through a Cursor and in bulk), that recycled nodes come back with nothing left of their former item
+ * (links, height, size, min, max, aggregate), and that the pool never holds more than its capacity.
+ */
+class AVLTreeNodePoolTest {
+
+	@Test
+	void churnWithAPoolMatchesTreeMap() {
+		Random random = new Random(1);
+		for (int capacity : new int[] {0, 1, 64, 100_000}) {
+			AVLTree tree = new AVLTree(Augmentation.SUM_OF_KEYS); // An aggregate that a stale node would spoil
+			tree.enableNodePool(capacity);
+			Cursor cursor = tree.cursor();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int i = 0; i < 50_000; i++) {
+				int k = random.nextInt(3_000);
+				boolean viaCursor = random.nextInt(4) == 0;
+				if (random.nextBoolean()) {
+					int count = viaCursor ? cursor.insert(k, "v" + i) : tree.insert(k, "v" + i);
+					assertEquals(map.containsKey(k), count == -1);
+					map.putIfAbsent(k, "v" + i);
+				}
+				else {
+					int count = viaCursor ? cursor.delete(k) : tree.delete(k);
+					assertEquals(!map.containsKey(k), count == -1);
+					map.remove(k);
+				}
+				assertTrue(tree.pooledNodes() <= capacity);
+				if (i % 5_000 == 0) {
+					AVLTreeSetOperationsTest.check(tree, map);
+					assertEquals(sumOfKeys(map), tree.aggregate());
+				}
+			}
+			AVLTreeSetOperationsTest.check(tree, map);
+			assertEquals(sumOfKeys(map), tree.aggregate());
+		}
+	}
+
+	@Test
+	void bulkOperationsWithAPoolMatchTreeMap() {
+		Random random = new Random(2);
+		AVLTree tree = new AVLTree(Augmentation.SUM_OF_KEYS);
+		tree.enableNodePool(1_000);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int round = 0; round < 100; round++) {
+			int[] keys = new int[random.nextInt(500)];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = random.nextInt(5_000);
+			}
+			if (random.nextBoolean()) {
+				String[] values = new String[keys.length];
+				for (int i = 0; i < keys.length; i++) {
+					values[i] = "b" + round;
+					map.putIfAbsent(keys[i], values[i]);
+				}
+				tree.insertAll(keys, values, random.nextBoolean());
+			}
+			else {
+				for (int k : keys) {
+					map.remove(k);
+				}
+				tree.deleteAll(keys, random.nextBoolean());
+			}
+			assertTrue(tree.pooledNodes() <= 1_000);
+			AVLTreeSetOperationsTest.check(tree, map);
+			assertEquals(sumOfKeys(map), tree.aggregate());
+		}
+	}
+
+	@Test
+	void deletedNodesAreReused() {
+		AVLTree tree = new AVLTree();
+		tree.enableNodePool(2);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int k = 0; k < 10; k++) {
+			tree.insert(k, "v" + k);
+			map.put(k, "v" + k);
+		}
+		IAVLNode leaf = tree.select(0); // A leaf is unlinked itself (an inner node gives up its successor instead)
+		assertTrue(tree.delete(0) >= 0);
+		assertEquals(1, tree.pooledNodes());
+		tree.insert(100, "new");
+		map.remove(0);
+		map.put(100, "new");
+		assertEquals(0, tree.pooledNodes());
+		assertSame(leaf, tree.select(tree.size() - 1)); // The same object, now holding the new item
+		assertEquals("new", leaf.getValue());
+		AVLTreeSetOperationsTest.check(tree, map);
+
+		for (int k = 1; k <= 5; k++) { // Beyond the capacity
+			tree.delete(k);
+			map.remove(k);
+		}
+		assertEquals(2, tree.pooledNodes());
+		tree.disableNodePool();
+		assertEquals(0, tree.pooledNodes());
+		IAVLNode last = tree.select(tree.size() - 1);
+		tree.delete(last.getKey());
+		tree.insert(last.getKey(), "again");
+		assertNotSame(last, tree.select(tree.size() - 1)); // No pool, no reuse
+		assertThrows(IllegalArgumentException.class, () -> tree.enableNodePool(-1));
+	}
+
+	private static long sumOfKeys(TreeMap<Integer, String> map) {
+		long sum = 0;
+		for (Map.Entry<Integer, String> e : map.entrySet()) {
+			sum += e.getKey();
+		}
+		return sum;
+	}
+}
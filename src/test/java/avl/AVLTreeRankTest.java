@@ -0,0 +1,155 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import avl.AVLTree.IAVLNode;
+
+/*
+ * Checks the rank-based operations of AVLTree (splitAt(), subTree(), subList() and concatenate(),
+ * with rank() and select() under them) against the entries of a TreeMap, and the invariants of
+ * every tree they leave, at random ranks and at both ends.
+ */
+class AVLTreeRankTest {
+
+	@Test
+	void rankAndSelectMatchTreeMap() {
+		Random random = new Random(1);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, 3_000, 0, 10_000, "v", map);
+		List<Integer> keys = new ArrayList<>(map.keySet());
+		for (int i = 0; i < keys.size(); i++) {
+			assertEquals(keys.get(i), tree.select(i).getKey());
+		}
+		for (int k = -1; k <= 10_001; k += 1 + random.nextInt(5)) {
+			assertEquals(map.headMap(k).size(), tree.rank(k));
+		}
+	}
+
+	@Test
+	void splitAtMatchesTreeMap() {
+		Random random = new Random(2);
+		for (int round = 0; round < 60; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 30) ? 30 : 20_000);
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, 0, 3 * n + 1, "v", map);
+			int index = (round % 3 == 0) ? ((round % 2 == 0) ? 0 : n) : random.nextInt(n + 1);
+			AVLTree[] parts = tree.splitAt(index);
+			assertTrue(tree.empty());
+			TreeMap<Integer, String> first = firstItems(map, index);
+			AVLTreeSetOperationsTest.check(parts[0], first);
+			map.keySet().removeAll(first.keySet());
+			AVLTreeSetOperationsTest.check(parts[1], map);
+
+			// And back together
+			parts[0].concatenate(parts[1]);
+			map.putAll(first);
+			AVLTreeSetOperationsTest.check(parts[0], map);
+			AVLTreeSetOperationsTest.check(parts[1], new TreeMap<>());
+		}
+	}
+
+	@Test
+	void subTreeMatchesTreeMap() {
+		Random random = new Random(3);
+		for (int round = 0; round < 60; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 30) ? 30 : 20_000);
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, -n, 3 * n + 1, "v", map);
+			int from = random.nextInt(n + 1), to = from + random.nextInt(n - from + 1);
+			if (round % 5 == 0) { // The full range, or an empty one
+				from = (round % 2 == 0) ? 0 : from;
+				to = (round % 2 == 0) ? n : from;
+			}
+			AVLTree sub = tree.subTree(from, to);
+			TreeMap<Integer, String> taken = firstItems(map, to);
+			taken.keySet().removeAll(firstItems(map, from).keySet());
+			map.keySet().removeAll(taken.keySet());
+			AVLTreeSetOperationsTest.check(sub, taken);
+			AVLTreeSetOperationsTest.check(tree, map);
+		}
+	}
+
+	@Test
+	void subListMatchesTreeMap() {
+		Random random = new Random(4);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, 2_000, 0, 6_000, "v", map);
+		List<Map.Entry<Integer, String>> entries = new ArrayList<>(map.entrySet());
+		for (int round = 0; round < 200; round++) {
+			int from = random.nextInt(entries.size() + 1), to = from + random.nextInt(entries.size() - from + 1);
+			List<IAVLNode> view = tree.subList(from, to);
+			assertEquals(to - from, view.size());
+			Iterator<IAVLNode> iterator = view.iterator();
+			for (int i = from; i < to; i++) {
+				IAVLNode node = iterator.next();
+				assertEquals(entries.get(i).getKey(), node.getKey());
+				assertEquals(entries.get(i).getValue(), node.getValue());
+			}
+			assertFalse(iterator.hasNext());
+			for (int i = 0; i < 5 && from < to; i++) {
+				int j = random.nextInt(to - from);
+				assertEquals(entries.get(from + j).getKey(), view.get(j).getKey());
+			}
+		}
+	}
+
+	@Test
+	void concatenateRandomTrees() {
+		Random random = new Random(5);
+		for (int round = 0; round < 40; round++) {
+			TreeMap<Integer, String> left = new TreeMap<>(), right = new TreeMap<>();
+			int n = random.nextInt(10_000), m = random.nextInt((round % 2 == 0) ? 10 : 10_000); // Of any heights
+			AVLTree a = AVLTreeSetOperationsTest.randomTree(random, n, 0, 2 * n + 1, "a", left);
+			AVLTree b = AVLTreeSetOperationsTest.randomTree(random, m, 2 * n + 1, 2 * m + 1, "b", right);
+			if (random.nextBoolean()) {
+				a.concatenate(b);
+				left.putAll(right);
+				AVLTreeSetOperationsTest.check(a, left);
+				AVLTreeSetOperationsTest.check(b, new TreeMap<>());
+			}
+			else if (n > 0 && m > 0) {
+				assertThrows(IllegalArgumentException.class, () -> b.concatenate(a)); // Out of order
+				AVLTreeSetOperationsTest.check(a, left);
+				AVLTreeSetOperationsTest.check(b, right);
+			}
+		}
+	}
+
+	@Test
+	void ranksOutOfBoundsAreRejected() {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		AVLTree tree = AVLTreeSetOperationsTest.ascending(0, 10, map);
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.splitAt(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.splitAt(11));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.subTree(5, 4));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.subTree(0, 11));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.subList(-1, 3));
+		AVLTreeSetOperationsTest.check(tree, map);
+	}
+
+	/*
+	 * Returns the index first items of map.
+	 */
+	private static TreeMap<Integer, String> firstItems(TreeMap<Integer, String> map, int index) {
+		TreeMap<Integer, String> first = new TreeMap<>();
+		for (Map.Entry<Integer, String> e : map.entrySet()) {
+			if (first.size() == index) {
+				break;
+			}
+			first.put(e.getKey(), e.getValue());
+		}
+		return first;
+	}
+}
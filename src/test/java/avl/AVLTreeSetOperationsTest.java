@@ -0,0 +1,356 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import avl.AVLTree.IAVLNode;
+
+/*
+ * Checks the join-based operations of AVLTree (union(), intersect(), difference(), and split() and join()
+ * on which they are built) against a TreeMap, sequentially and on the fork-join pool, together with the
+ * invariants of every node: AVL balance, heights, sizes, min and max nodes and parent links.
+ * Also checks insertAll() and deleteAll(), which merge a sorted batch in with union() and difference().
+ */
+class AVLTreeSetOperationsTest {
+	// Pairs of tree sizes, from tiny to above PARALLEL_THRESHOLD (where the parallel operations fork)
+	private static final int[][] SIZES = {
+			{0, 0}, {0, 10}, {10, 0}, {1, 1}, {1, 500}, {500, 1}, {100, 100}, {1_000, 30},
+			{AVLTree.PARALLEL_THRESHOLD, AVLTree.PARALLEL_THRESHOLD}, {50_000, 20_000}, {300, 40_000}};
+
+	private enum Op {
+		UNION, INTERSECT, DIFFERENCE
+	}
+
+	@Test
+	void unionMatchesTreeMap() {
+		this.checkOperation(Op.UNION, false);
+	}
+
+	@Test
+	void unionInParallelMatchesTreeMap() {
+		this.checkOperation(Op.UNION, true);
+	}
+
+	@Test
+	void intersectMatchesTreeMap() {
+		this.checkOperation(Op.INTERSECT, false);
+	}
+
+	@Test
+	void intersectInParallelMatchesTreeMap() {
+		this.checkOperation(Op.INTERSECT, true);
+	}
+
+	@Test
+	void differenceMatchesTreeMap() {
+		this.checkOperation(Op.DIFFERENCE, false);
+	}
+
+	@Test
+	void differenceInParallelMatchesTreeMap() {
+		this.checkOperation(Op.DIFFERENCE, true);
+	}
+
+	/*
+	 * Applies op to random trees of every pair of SIZES, with key ranges that overlap fully,
+	 * partly or not at all, and compares the result with the same operation on TreeMaps.
+	 */
+	private void checkOperation(Op op, boolean parallel) {
+		Random random = new Random(op.ordinal() * 2 + (parallel ? 1 : 0));
+		for (int[] sizes : SIZES) {
+			for (int shift : new int[] {0, 1, -1}) { // The key range of t is the same, after or before that of the tree
+				TreeMap<Integer, String> a = new TreeMap<>(), b = new TreeMap<>();
+				int range = 4 * Math.max(sizes[0], sizes[1]) + 1;
+				AVLTree tree = randomTree(random, sizes[0], 0, range, "a", a);
+				AVLTree t = randomTree(random, sizes[1], shift * range / 2, range, "b", b);
+				TreeMap<Integer, String> expected = new TreeMap<>(a);
+				switch (op) {
+					case UNION:
+						b.forEach(expected::putIfAbsent);
+						tree.union(t, parallel);
+						break;
+					case INTERSECT:
+						expected.keySet().retainAll(b.keySet());
+						tree.intersect(t, parallel);
+						break;
+					default:
+						expected.keySet().removeAll(b.keySet());
+						tree.difference(t, parallel);
+				}
+				check(tree, expected);
+				check(t, new TreeMap<>());
+			}
+		}
+	}
+
+	@Test
+	void setOperationsWithItself() {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		AVLTree tree = randomTree(new Random(7), 1_000, 0, 5_000, "a", map);
+		tree.union(tree);
+		check(tree, map);
+		tree.intersect(tree, true);
+		check(tree, map);
+		int k = map.firstKey();
+		AVLTree.Cursor cursor = tree.cursor();
+		assertEquals(map.get(k), cursor.search(k));
+		tree.difference(tree);
+		check(tree, new TreeMap<>());
+		assertNull(cursor.search(k)); // The cursor must not start from a node of the old tree
+	}
+
+	@Test
+	void unionKeepsTheInfoOfThisTree() {
+		AVLTree tree = new AVLTree(new int[] {1, 2, 3}, new String[] {"a1", "a2", "a3"});
+		AVLTree t = new AVLTree(new int[] {2, 3, 4}, new String[] {"b2", "b3", "b4"});
+		tree.union(t);
+		assertArrayEquals(new int[] {1, 2, 3, 4}, tree.keysToArray());
+		assertArrayEquals(new String[] {"a1", "a2", "a3", "b4"}, tree.infoToArray());
+	}
+
+	@Test
+	void splitAtEveryKeyOfSmallTree() {
+		for (int n = 0; n <= 40; n++) {
+			for (int x = -1; x <= 2 * n + 1; x++) {
+				TreeMap<Integer, String> map = new TreeMap<>();
+				AVLTree tree = new AVLTree();
+				for (int k = 0; k < n; k++) {
+					tree.insert(2 * k, "v" + k); // Even keys, so that odd pivots aren't in the tree
+					map.put(2 * k, "v" + k);
+				}
+				AVLTree[] parts = tree.split(x);
+				check(parts[0], new TreeMap<>(map.headMap(x)));
+				check(parts[1], new TreeMap<>(map.tailMap(x, false)));
+			}
+		}
+	}
+
+	@Test
+	void splitAndJoinLargeTrees() {
+		Random random = new Random(11);
+		for (int round = 0; round < 30; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = 1 + random.nextInt(50_000);
+			AVLTree tree = randomTree(random, n, 0, 4 * n, "v", map);
+			int x = random.nextInt(4 * n);
+			if (random.nextBoolean() && map.ceilingKey(x) != null) { // Split at a key of the tree
+				x = map.ceilingKey(x);
+			}
+			AVLTree[] parts = tree.split(x);
+			check(parts[0], new TreeMap<>(map.headMap(x)));
+			check(parts[1], new TreeMap<>(map.tailMap(x, false)));
+
+			// Joining them back around x, from either side
+			map.put(x, "x");
+			AVLTree into = random.nextBoolean() ? parts[0] : parts[1];
+			AVLTree other = (into == parts[0]) ? parts[1] : parts[0];
+			check(join(into, x, other), map);
+		}
+	}
+
+	@Test
+	void joinTreesOfVeryDifferentHeights() {
+		for (int small : new int[] {0, 1, 2, 7}) {
+			for (int big : new int[] {0, 1, 100, 10_000}) {
+				for (int side = 0; side < 4; side++) {
+					boolean smallOnLeft = side < 2, intoSmall = side % 2 == 0;
+					TreeMap<Integer, String> map = new TreeMap<>();
+					int lefts = smallOnLeft ? small : big; // The keys are [0, lefts), then lefts, then the right tree
+					AVLTree l = ascending(0, lefts, map);
+					AVLTree r = ascending(lefts + 1, lefts + 1 + (smallOnLeft ? big : small), map);
+					AVLTree s = smallOnLeft ? l : r;
+					AVLTree b = smallOnLeft ? r : l;
+					int k = lefts;
+					map.put(k, "x");
+					AVLTree into = intoSmall ? s : b;
+					AVLTree other = (into == s) ? b : s;
+					check(join(into, k, other), map);
+				}
+			}
+		}
+	}
+
+	@Test
+	void insertAllKeepsTheFirstOfDuplicateKeys() {
+		AVLTree tree = new AVLTree();
+		assertEquals(3, tree.insertAll(new int[] {5, 3, 5, 1, 3}, new String[] {"a", "b", "c", "d", "e"}));
+		assertArrayEquals(new int[] {1, 3, 5}, tree.keysToArray());
+		assertArrayEquals(new String[] {"d", "b", "a"}, tree.infoToArray());
+	}
+
+	@Test
+	void insertAllKeepsTheInfoOfExistingKeys() {
+		AVLTree tree = new AVLTree(new int[] {2, 4}, new String[] {"old2", "old4"});
+		assertEquals(2, tree.insertAll(new int[] {4, 3, 2, 1}, new String[] {"new4", "new3", "new2", "new1"}));
+		assertArrayEquals(new int[] {1, 2, 3, 4}, tree.keysToArray());
+		assertArrayEquals(new String[] {"new1", "old2", "new3", "old4"}, tree.infoToArray());
+		assertEquals(0, tree.insertAll(new int[0], new String[0]));
+		assertThrows(IllegalArgumentException.class, () -> tree.insertAll(new int[] {1}, new String[0]));
+	}
+
+	@Test
+	void deleteAllCountsOnlyKeysInTheTree() {
+		AVLTree tree = new AVLTree(new int[] {1, 2, 3, 4, 5}, new String[] {"a", "b", "c", "d", "e"});
+		assertEquals(2, tree.deleteAll(new int[] {4, 9, 2, 4, -7, 2}));
+		assertArrayEquals(new int[] {1, 3, 5}, tree.keysToArray());
+		assertEquals(0, tree.deleteAll(new int[] {2, 4}));
+		assertEquals(0, tree.deleteAll(new int[0]));
+		assertEquals(3, tree.deleteAll(new int[] {1, 3, 5}));
+		check(tree, new TreeMap<>());
+	}
+
+	@Test
+	void bulkOperationsMatchTreeMap() {
+		this.checkBulkOperations(false);
+	}
+
+	@Test
+	void bulkOperationsInParallelMatchTreeMap() {
+		this.checkBulkOperations(true);
+	}
+
+	/*
+	 * Applies batches of every pair of SIZES (the tree, then the batch), unsorted with repeated keys
+	 * or already sorted, with insertAll() and then deleteAll(), and compares them with insert() and
+	 * delete() on a TreeMap.
+	 */
+	private void checkBulkOperations(boolean parallel) {
+		Random random = new Random(parallel ? 13 : 12);
+		for (int[] sizes : SIZES) {
+			for (boolean sorted : new boolean[] {false, true}) {
+				TreeMap<Integer, String> map = new TreeMap<>();
+				int range = 2 * Math.max(sizes[0], sizes[1]) + 1;
+				AVLTree tree = randomTree(random, sizes[0], 0, range, "a", map);
+				int[] keys = new int[sizes[1]];
+				String[] values = new String[sizes[1]];
+				for (int i = 0; i < keys.length; i++) {
+					keys[i] = sorted ? 2 * i - sizes[1] : random.nextInt(range);
+					values[i] = "b" + i;
+				}
+				int inserted = 0;
+				for (int i = 0; i < keys.length; i++) {
+					if (map.putIfAbsent(keys[i], values[i]) == null) {
+						inserted++;
+					}
+				}
+				assertEquals(inserted, tree.insertAll(keys, values, parallel));
+				check(tree, map);
+
+				for (int i = 0; i < keys.length; i++) {
+					keys[i] = sorted ? 3 * i - sizes[1] : random.nextInt(range);
+				}
+				int deleted = 0;
+				for (int k : keys) {
+					if (map.remove(k) != null) {
+						deleted++;
+					}
+				}
+				assertEquals(deleted, tree.deleteAll(keys, parallel));
+				check(tree, map);
+			}
+		}
+	}
+
+	/*
+	 * Joins other and a new item with key k and info "x" with into, and returns the tree
+	 * that holds the result (join() leaves it in the higher of the two).
+	 */
+	private static AVLTree join(AVLTree into, int k, AVLTree other) {
+		into.join(into.new AVLNode(k, "x", into.VIRTUAL_NODE, into.VIRTUAL_NODE, null), other);
+		return (into.size() > other.size()) ? into : other;
+	}
+
+	/*
+	 * Returns a tree of n distinct random keys in [from, from + range), with info prefix + key,
+	 * and adds them to map.
+	 */
+	static AVLTree randomTree(Random random, int n, int from, int range, String prefix, TreeMap<Integer, String> map) {
+		AVLTree tree = new AVLTree();
+		while (tree.size() < n) {
+			int k = from + random.nextInt(range);
+			if (tree.insert(k, prefix + k) != -1) {
+				map.put(k, prefix + k);
+			}
+		}
+		return tree;
+	}
+
+	/*
+	 * Returns a tree of the keys [from, to) inserted in ascending order, and adds them to map.
+	 */
+	static AVLTree ascending(int from, int to, TreeMap<Integer, String> map) {
+		AVLTree tree = new AVLTree();
+		for (int k = from; k < to; k++) {
+			tree.insert(k, "v" + k);
+			map.put(k, "v" + k);
+		}
+		return tree;
+	}
+
+	/*
+	 * Asserts that tree holds exactly the items of map, and that its nodes are valid.
+	 */
+	static void check(AVLTree tree, TreeMap<Integer, String> map) {
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.isEmpty(), tree.empty());
+		int[] keys = new int[map.size()];
+		String[] values = new String[map.size()];
+		int i = 0;
+		for (Map.Entry<Integer, String> e : map.entrySet()) {
+			keys[i] = e.getKey();
+			values[i++] = e.getValue();
+		}
+		assertArrayEquals(keys, tree.keysToArray());
+		assertArrayEquals(values, tree.infoToArray());
+		IAVLNode root = tree.getRoot();
+		if (map.isEmpty()) {
+			assertNull(root);
+			assertNull(tree.min());
+			assertNull(tree.max());
+			return;
+		}
+		assertEquals(map.firstEntry().getValue(), tree.min());
+		assertEquals(map.lastEntry().getValue(), tree.max());
+		assertNull(root.getParent());
+		checkNode(root, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/*
+	 * Asserts the invariants of the sub-tree rooted by the real node, whose keys must be in (lo, hi).
+	 */
+	private static void checkNode(IAVLNode node, long lo, long hi) {
+		assertTrue(lo < node.getKey() && node.getKey() < hi, "keys out of order");
+		IAVLNode left = node.getLeft(), right = node.getRight();
+		assertTrue(Math.abs(left.getHeight() - right.getHeight()) <= 1, "unbalanced node");
+		assertEquals(Math.max(left.getHeight(), right.getHeight()) + 1, node.getHeight());
+		assertEquals(left.getSize() + right.getSize() + 1, node.getSize());
+		assertSame(left.isRealNode() ? left.getMin() : node, node.getMin());
+		assertSame(right.isRealNode() ? right.getMax() : node, node.getMax());
+		if (left.isRealNode()) {
+			assertSame(node, left.getParent());
+			checkNode(left, lo, node.getKey());
+		}
+		else {
+			assertEquals(-1, left.getHeight());
+			assertEquals(0, left.getSize());
+		}
+		if (right.isRealNode()) {
+			assertSame(node, right.getParent());
+			checkNode(right, node.getKey(), hi);
+		}
+		else {
+			assertEquals(-1, right.getHeight());
+			assertEquals(0, right.getSize());
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks BPlusTree against a TreeMap, and its node invariants after every kind of update:
+ * every node but the root is at least half full, the separators bound the keys of the children,
+ * all of the leaves have the same depth and the sizes add up.
+ */
+class BPlusTreeTest {
+	// Sizes whose trees are of heights 0 to 3 when built by ascending inserts (which leave the nodes half full)
+	private static final int[] SIZES_BY_HEIGHT = {BPlusTree.CAPACITY, 1_000, 40_000, 100_000};
+
+	@Test
+	void insertSearchAndDeleteMatchTreeMap() {
+		Random random = new Random(1);
+		for (int round = 0; round < 40; round++) {
+			BPlusTree tree = new BPlusTree();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 20) ? 300 : 20_000);
+			int range = 3 * n + 1;
+			for (int i = 0; i < n; i++) {
+				int k = random.nextInt(range) - range / 2;
+				assertEquals(map.containsKey(k), tree.insert(k, "v" + k) == -1);
+				map.putIfAbsent(k, "v" + k);
+			}
+			check(tree, map);
+			for (int i = 0; i < n; i++) {
+				int k = random.nextInt(range) - range / 2;
+				assertEquals(map.containsKey(k), tree.search(k) != null);
+				assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+				map.remove(k);
+			}
+			check(tree, map);
+			for (int i = 0; i < 200; i++) {
+				int k = random.nextInt(range) - range / 2;
+				assertEquals(map.get(k), tree.search(k));
+			}
+		}
+	}
+
+	@Test
+	void insertDoesNotReplaceInfo() {
+		BPlusTree tree = new BPlusTree();
+		assertEquals(0, tree.insert(7, "a"));
+		assertEquals(-1, tree.insert(7, "b"));
+		assertEquals("a", tree.search(7));
+		assertEquals(1, tree.size());
+	}
+
+	@Test
+	void deletesUnderflowAndMergeDownToEmpty() {
+		int n = SIZES_BY_HEIGHT[2];
+		List<List<Integer>> orders = new ArrayList<>();
+		List<Integer> ascending = new ArrayList<>();
+		for (int k = 0; k < n; k++) {
+			ascending.add(k);
+		}
+		List<Integer> descending = new ArrayList<>(ascending);
+		Collections.reverse(descending);
+		List<Integer> shuffled = new ArrayList<>(ascending);
+		Collections.shuffle(shuffled, new Random(2));
+		orders.add(ascending);
+		orders.add(descending);
+		orders.add(shuffled);
+		for (List<Integer> order : orders) {
+			BPlusTree tree = new BPlusTree();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int k = 0; k < n; k++) {
+				tree.insert(k, "v" + k);
+				map.put(k, "v" + k);
+			}
+			assertEquals(2, height(tree));
+			long fixes = 0;
+			for (int i = 0; i < n; i++) {
+				int k = order.get(i);
+				int result = tree.delete(k);
+				assertTrue(result >= 0);
+				fixes += result;
+				map.remove(k);
+				if (i % 1_000 == 0 || map.size() < 2 * BPlusTree.CAPACITY) {
+					check(tree, map);
+				}
+			}
+			assertTrue(fixes > 0, "no node was merged or re-filled");
+			assertTrue(tree.empty());
+			assertEquals(-1, height(tree));
+			assertEquals(-1, tree.delete(0));
+		}
+	}
+
+	@Test
+	void splitAtEveryHeight() {
+		for (int height = 0; height < SIZES_BY_HEIGHT.length; height++) {
+			int n = SIZES_BY_HEIGHT[height];
+			int[] pivots = {-1, 0, 1, n / 3, n / 2, n - 2, n - 1, n, n + 5};
+			for (int x : pivots) {
+				TreeMap<Integer, String> map = new TreeMap<>();
+				BPlusTree tree = ascending(0, n, map);
+				assertEquals(height, height(tree));
+				BPlusTree[] parts = tree.split(x);
+				assertTrue(tree.empty());
+				check(parts[0], new TreeMap<>(map.headMap(x)));
+				check(parts[1], new TreeMap<>(map.tailMap(x, false)));
+				assertTrue(height(parts[0]) <= height && height(parts[1]) <= height);
+
+				// Joining the halves back around x gives the whole tree
+				map.put(x, "x");
+				if (x % 2 == 0) {
+					parts[0].join(x, "x", parts[1]);
+					assertTrue(parts[1].empty());
+					check(parts[0], map);
+				}
+				else {
+					parts[1].join(x, "x", parts[0]);
+					assertTrue(parts[0].empty());
+					check(parts[1], map);
+				}
+			}
+		}
+	}
+
+	@Test
+	void splitAtMissingKeysOfSparseTree() {
+		Random random = new Random(3);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		BPlusTree tree = new BPlusTree();
+		while (map.size() < 30_000) {
+			int k = 2 * random.nextInt(1 << 20);
+			tree.insert(k, "v" + k);
+			map.put(k, "v" + k);
+		}
+		for (int i = 0; i < 20; i++) {
+			int x = 2 * random.nextInt(1 << 20) + 1; // Odd, so it isn't in the tree
+			BPlusTree copy = new BPlusTree();
+			for (Map.Entry<Integer, String> e : map.entrySet()) {
+				copy.insert(e.getKey(), e.getValue());
+			}
+			BPlusTree[] parts = copy.split(x);
+			check(parts[0], new TreeMap<>(map.headMap(x)));
+			check(parts[1], new TreeMap<>(map.tailMap(x)));
+		}
+	}
+
+	@Test
+	void joinTreesOfEveryHeight() {
+		int[] sizes = {0, 1, SIZES_BY_HEIGHT[0], SIZES_BY_HEIGHT[1], SIZES_BY_HEIGHT[2], SIZES_BY_HEIGHT[3]};
+		for (int left : sizes) {
+			for (int right : sizes) {
+				for (boolean intoLeft : new boolean[] {true, false}) {
+					TreeMap<Integer, String> map = new TreeMap<>();
+					BPlusTree l = ascending(0, left, map);
+					BPlusTree r = ascending(left + 1, left + 1 + right, map);
+					map.put(left, "k");
+					int expectedHeight = Math.max(height(l), height(r));
+					BPlusTree joined = intoLeft ? l : r;
+					BPlusTree other = intoLeft ? r : l;
+					assertTrue(joined.join(left, "k", other) >= 1);
+					assertTrue(other.empty());
+					check(joined, map);
+					int height = height(joined);
+					assertTrue(height >= expectedHeight && height <= expectedHeight + 1, "height " + height);
+				}
+			}
+		}
+	}
+
+	@Test
+	void emptyTree() {
+		BPlusTree tree = new BPlusTree();
+		assertTrue(tree.empty());
+		assertEquals(0, tree.size());
+		assertNull(tree.search(0));
+		assertNull(tree.min());
+		assertNull(tree.max());
+		assertEquals(0, tree.keysToArray().length);
+		BPlusTree[] parts = tree.split(0);
+		assertTrue(parts[0].empty() && parts[1].empty());
+		tree.join(5, "five", parts[0]);
+		assertEquals("five", tree.search(5));
+		assertEquals(1, tree.size());
+	}
+
+	/*
+	 * Returns a tree of the keys [from, to) inserted in ascending order, and adds them to map.
+	 */
+	private static BPlusTree ascending(int from, int to, TreeMap<Integer, String> map) {
+		BPlusTree tree = new BPlusTree();
+		for (int k = from; k < to; k++) {
+			tree.insert(k, "v" + k);
+			map.put(k, "v" + k);
+		}
+		return tree;
+	}
+
+	/*
+	 * Asserts that tree holds exactly the items of map, and that its nodes are valid.
+	 */
+	static void check(BPlusTree tree, TreeMap<Integer, String> map) {
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.isEmpty(), tree.empty());
+		int[] keys = new int[map.size()];
+		String[] values = new String[map.size()];
+		int i = 0;
+		for (Map.Entry<Integer, String> e : map.entrySet()) {
+			keys[i] = e.getKey();
+			values[i++] = e.getValue();
+		}
+		assertArrayEquals(keys, tree.keysToArray());
+		assertArrayEquals(values, tree.infoToArray());
+		if (map.isEmpty()) {
+			assertNull(tree.min());
+			assertNull(tree.max());
+		}
+		else {
+			assertEquals(map.firstEntry().getValue(), tree.min());
+			assertEquals(map.lastEntry().getValue(), tree.max());
+		}
+		BPlusTree.Node root = root(tree);
+		if (root != null) {
+			assertEquals(map.size(), checkNode(root, true, Long.MIN_VALUE, Long.MAX_VALUE));
+		}
+	}
+
+	/*
+	 * Asserts the invariants of the sub-tree rooted by node, whose keys must be in [lo, hi).
+	 * Returns the number of items in it.
+	 */
+	private static int checkNode(BPlusTree.Node node, boolean isRoot, long lo, long hi) {
+		assertTrue(node.count <= BPlusTree.CAPACITY, "overfull node");
+		assertTrue(node.count >= (isRoot ? ((node.height == 0) ? 1 : 2) : BPlusTree.MIN_FILL), "underfull node");
+		if (node.height == 0) {
+			BPlusTree.Leaf leaf = (BPlusTree.Leaf) node;
+			for (int i = 0; i < leaf.count; i++) {
+				assertTrue(lo <= leaf.keys[i] && leaf.keys[i] < hi, "key out of the range of its separators");
+				assertTrue(i == 0 || leaf.keys[i - 1] < leaf.keys[i], "keys out of order");
+			}
+			assertEquals(leaf.count, leaf.size);
+			return leaf.count;
+		}
+		BPlusTree.Inner inner = (BPlusTree.Inner) node;
+		int size = 0;
+		for (int i = 0; i < inner.count; i++) {
+			assertTrue(i == 0 || i == inner.count - 1 || inner.keys[i - 1] < inner.keys[i], "separators out of order");
+			BPlusTree.Node child = inner.children[i];
+			assertEquals(node.height - 1, child.height, "leaves at different depths");
+			long from = (i == 0) ? lo : inner.keys[i - 1];
+			long to = (i == inner.count - 1) ? hi : inner.keys[i];
+			size += checkNode(child, false, from, to);
+		}
+		assertEquals(size, inner.size);
+		return size;
+	}
+
+	private static int height(BPlusTree tree) {
+		return BPlusTree.height(root(tree));
+	}
+
+	private static BPlusTree.Node root(BPlusTree tree) {
+		try {
+			Field field = BPlusTree.class.getDeclaredField("root");
+			field.setAccessible(true);
+			return (BPlusTree.Node) field.get(tree);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
@@ -0,0 +1,305 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks CompactAVLTree, on the heap (ArrayNodes) and off it (OffHeapAVLTree), against a TreeMap and AVLTree,
+ * and the invariants of its handles (AVL balance, heights, sizes, parents) after every kind of update.
+ * The off-heap storage is also checked for info of every length (null, empty, and blocks of every size
+ * class), for the reuse of freed records and blocks, and for close().
+ */
+class CompactAVLTreeTest {
+
+	@Test
+	void insertSearchAndDeleteMatchTreeMap() {
+		checkRandomOperations(CompactAVLTree::new, 1);
+	}
+
+	@Test
+	void insertSearchAndDeleteMatchTreeMapOffHeap() {
+		checkRandomOperations(OffHeapAVLTree::new, 2);
+	}
+
+	@Test
+	void splitAndJoinMatchTreeMap() {
+		checkSplitAndJoin(CompactAVLTree::new, 3);
+	}
+
+	@Test
+	void splitAndJoinMatchTreeMapOffHeap() {
+		checkSplitAndJoin(OffHeapAVLTree::new, 4);
+	}
+
+	@Test
+	void rebalanceCountsMatchAVLTree() {
+		// The iterative re-balancing of AVLTree must count the same steps as CompactAVLTree for each update
+		Random random = new Random(7);
+		for (int round = 0; round < 20; round++) {
+			AVLTree tree = new AVLTree();
+			CompactAVLTree compact = new CompactAVLTree();
+			int n = random.nextInt((round < 10) ? 100 : 10_000) + 1;
+			boolean sequential = round % 4 == 3; // Long runs of single rotations on one side
+			for (int i = 0; i < 4 * n; i++) {
+				int k = sequential ? (i % (2 * n)) - n : random.nextInt(2 * n) - n;
+				if (sequential ? i < 2 * n : random.nextBoolean()) {
+					assertEquals(tree.insert(k, "v"), compact.insert(k, "v"), "insert " + k);
+				}
+				else {
+					assertEquals(tree.delete(k), compact.delete(k), "delete " + k);
+				}
+			}
+			assertArrayEquals(tree.keysToArray(), compact.keysToArray());
+		}
+	}
+
+	@Test
+	void joinRejectsTreesOfAnotherStorage() {
+		CompactAVLTree tree = new CompactAVLTree();
+		tree.insert(1, "a");
+		CompactAVLTree other = new CompactAVLTree();
+		other.insert(3, "c");
+		assertThrows(IllegalArgumentException.class, () -> tree.join(2, "b", other));
+	}
+
+	@Test
+	void offHeapInfoOfEveryLength() {
+		Random random = new Random(5);
+		try (OffHeapAVLTree tree = new OffHeapAVLTree()) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int k = 0; k < 2_000; k++) {
+				String info;
+				if (k % 10 == 0) {
+					info = null;
+				}
+				else if (k % 10 == 1) {
+					info = "";
+				}
+				else { // From 1 byte to blocks of many units, in every size class up to 2^14 bytes
+					info = randomString(random, 1 << random.nextInt(15));
+				}
+				tree.insert(k, info);
+				map.put(k, info);
+			}
+			check(tree, map);
+			for (Map.Entry<Integer, String> e : map.entrySet()) {
+				assertEquals(e.getValue(), tree.search(e.getKey()));
+			}
+		}
+	}
+
+	@Test
+	void offHeapDeletesKeepTheInfoOfMovedItems() {
+		// Deleting a node with two sons moves the item of its successor (and its block) into it
+		Random random = new Random(6);
+		try (OffHeapAVLTree tree = new OffHeapAVLTree()) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int round = 0; round < 20_000; round++) {
+				int k = random.nextInt(500);
+				if (random.nextBoolean()) {
+					String info = randomString(random, random.nextInt(100));
+					if (tree.insert(k, info) != -1) {
+						map.put(k, info);
+					}
+				}
+				else {
+					tree.delete(k);
+					map.remove(k);
+				}
+			}
+			check(tree, map);
+		}
+	}
+
+	@Test
+	void offHeapReusesFreedRecordsAndBlocks() {
+		int blob = 1 << 16; // 256 blocks fill a 16MB chunk
+		int n = 200;
+		try (OffHeapAVLTree tree = new OffHeapAVLTree()) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int k = 0; k < n; k++) {
+				String info = "a".repeat(blob - k); // The same size class for all of them
+				tree.insert(k, info);
+				map.put(k, info);
+			}
+			long bytes = tree.offHeapBytes();
+			for (int round = 1; round <= 3; round++) { // Without reuse, each round would take most of another chunk
+				for (int k = 0; k < n; k++) {
+					tree.delete(k + (round - 1) * n);
+					map.remove(k + (round - 1) * n);
+				}
+				for (int k = 0; k < n; k++) {
+					String info = String.valueOf((char) ('a' + round)).repeat(blob - 1 - k);
+					tree.insert(k + round * n, info);
+					map.put(k + round * n, info);
+				}
+				assertEquals(bytes, tree.offHeapBytes());
+			}
+			check(tree, map);
+		}
+	}
+
+	@Test
+	void offHeapRejectsInfoLongerThanAChunk() {
+		try (OffHeapAVLTree tree = new OffHeapAVLTree()) {
+			assertThrows(IllegalArgumentException.class, () -> tree.insert(1, "x".repeat((1 << 24) + 1)));
+		}
+	}
+
+	@Test
+	void offHeapBytesAndClose() {
+		OffHeapAVLTree tree = new OffHeapAVLTree();
+		long empty = tree.offHeapBytes();
+		assertTrue(empty > 0);
+		for (int k = 0; k < 100_000; k++) { // More than one chunk of records
+			tree.insert(k, "v");
+		}
+		long full = tree.offHeapBytes();
+		assertTrue(full > empty);
+		CompactAVLTree[] parts = tree.split(50_000);
+		assertTrue(tree.empty());
+		assertEquals(full, tree.offHeapBytes()); // The halves share the storage
+		assertEquals("v", parts[1].search(60_000));
+		tree.close();
+		assertEquals(0, tree.offHeapBytes());
+		assertTrue(tree.empty());
+		tree.close(); // A second close does nothing
+		assertEquals(0, tree.offHeapBytes());
+	}
+
+	/*
+	 * Makes random inserts, deletes and searches on trees from factory, and compares them with a TreeMap.
+	 */
+	private static void checkRandomOperations(Supplier<CompactAVLTree> factory, long seed) {
+		Random random = new Random(seed);
+		for (int round = 0; round < 30; round++) {
+			CompactAVLTree tree = factory.get();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 15) ? 200 : 20_000);
+			int range = 2 * n + 1;
+			for (int i = 0; i < 3 * n; i++) {
+				int k = random.nextInt(range) - range / 2;
+				switch (random.nextInt(3)) {
+					case 0:
+						assertEquals(map.get(k), tree.search(k));
+						break;
+					case 1:
+						String info = (i % 7 == 0) ? null : "v" + i;
+						assertEquals(map.containsKey(k), tree.insert(k, info) == -1);
+						if (!map.containsKey(k)) {
+							map.put(k, info);
+						}
+						break;
+					default:
+						assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+						map.remove(k);
+				}
+			}
+			check(tree, map);
+			close(tree);
+		}
+	}
+
+	/*
+	 * Splits random trees from factory at keys in and out of them, checks the halves, and joins them back.
+	 */
+	private static void checkSplitAndJoin(Supplier<CompactAVLTree> factory, long seed) {
+		Random random = new Random(seed);
+		for (int round = 0; round < 40; round++) {
+			CompactAVLTree tree = factory.get();
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt((round < 20) ? 50 : 30_000);
+			while (map.size() < n) {
+				int k = random.nextInt(4 * n + 1);
+				tree.insert(k, "v" + k);
+				map.put(k, "v" + k);
+			}
+			int x = random.nextInt(4 * n + 3) - 1;
+			if (random.nextBoolean() && map.ceilingKey(x) != null) { // Split at a key of the tree
+				x = map.ceilingKey(x);
+			}
+			CompactAVLTree[] parts = tree.split(x);
+			assertTrue(tree.empty());
+			check(parts[0], new TreeMap<>(map.headMap(x)));
+			check(parts[1], new TreeMap<>(map.tailMap(x, false)));
+
+			// Joining them back around x, into either half
+			map.put(x, "x");
+			int into = random.nextInt(2);
+			assertTrue(parts[into].join(x, "x", parts[1 - into]) >= 0);
+			assertTrue(parts[1 - into].empty());
+			check(parts[into], map);
+			close(tree);
+		}
+	}
+
+	private static void close(CompactAVLTree tree) {
+		if (tree instanceof OffHeapAVLTree) {
+			((OffHeapAVLTree) tree).close();
+		}
+	}
+
+	private static String randomString(Random random, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) ((i % 50 == 49) ? 'é' : 'a' + random.nextInt(26)); // Some 2-byte UTF-8 too
+		}
+		return new String(chars);
+	}
+
+	/*
+	 * Asserts that tree holds exactly the items of map, and that its handles form a valid AVL tree.
+	 */
+	static void check(CompactAVLTree tree, TreeMap<Integer, String> map) {
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.isEmpty(), tree.empty());
+		assertArrayEquals(map.keySet().stream().mapToInt(Integer::intValue).toArray(), tree.keysToArray());
+		assertArrayEquals(map.values().toArray(new String[0]), tree.infoToArray());
+		if (map.isEmpty()) {
+			assertNull(tree.min());
+			assertNull(tree.max());
+			return;
+		}
+		assertEquals(map.firstEntry().getValue(), tree.min());
+		assertEquals(map.lastEntry().getValue(), tree.max());
+		CompactAVLTree.Nodes n = tree.nodes;
+		assertEquals(CompactAVLTree.NIL, n.parent(tree.root));
+		assertEquals(-1, n.height(CompactAVLTree.NIL));
+		assertEquals(0, n.size(CompactAVLTree.NIL));
+		checkNode(n, tree.root, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/*
+	 * Asserts the invariants of the sub-tree rooted by the real handle node, whose keys must be in (lo, hi).
+	 */
+	private static void checkNode(CompactAVLTree.Nodes n, int node, long lo, long hi) {
+		int key = n.key(node);
+		assertTrue(lo < key && key < hi, "keys out of order");
+		int left = n.left(node), right = n.right(node);
+		assertTrue(Math.abs(n.height(left) - n.height(right)) <= 1, "unbalanced node");
+		assertEquals(Math.max(n.height(left), n.height(right)) + 1, n.height(node));
+		assertEquals(n.size(left) + n.size(right) + 1, n.size(node));
+		for (int child : Arrays.asList(left, right)) {
+			if (child != CompactAVLTree.NIL) {
+				assertEquals(node, n.parent(child));
+			}
+		}
+		if (left != CompactAVLTree.NIL) {
+			checkNode(n, left, lo, key);
+		}
+		if (right != CompactAVLTree.NIL) {
+			checkNode(n, right, key, hi);
+		}
+	}
+}
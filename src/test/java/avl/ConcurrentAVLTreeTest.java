@@ -0,0 +1,172 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that the optimistic readers of ConcurrentAVLTree never see a wrong value while writers rotate the
+ * tree under them: writers insert and delete odd keys only, while readers keep searching a fixed set of even
+ * keys (which are always there, with known info, or always missing) and reading min() and max().
+ */
+class ConcurrentAVLTreeTest {
+	private static final int WRITERS = 4;
+	private static final int READERS = 4;
+	private static final int EVEN_KEYS = 2_000; // The fixed keys are 0, 2, ..., 2 * (EVEN_KEYS - 1)
+	private static final int WRITES = 100_000; // Per writer
+
+	@Test
+	void readersNeverSeeAWrongValueDuringWrites() throws InterruptedException {
+		ConcurrentAVLTree tree = new ConcurrentAVLTree();
+		for (int k = 0; k < 2 * EVEN_KEYS; k += 4) { // Half the even keys; the other half stay missing
+			tree.insert(k, "v" + k);
+		}
+		tree.insert(-2, "min"); // Below every odd key of the writers
+		tree.insert(4 * EVEN_KEYS, "max"); // Above them
+
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<>();
+		AtomicLong reads = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		List<TreeMap<Integer, String>> written = new ArrayList<>();
+		for (int w = 0; w < WRITERS; w++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			written.add(map);
+			int writer = w;
+			threads.add(new Thread(() -> {
+				await(start);
+				Random random = new Random(writer);
+				for (int i = 0; i < WRITES; i++) {
+					// The odd keys of this writer only, so that it knows the outcome of each of its updates
+					int k = 2 * (random.nextInt(EVEN_KEYS / WRITERS) * WRITERS + writer) + 1;
+					if (random.nextBoolean()) {
+						if ((tree.insert(k, "w" + i) == -1) != map.containsKey(k)) {
+							failure.compareAndSet(null, "insert " + k);
+						}
+						map.putIfAbsent(k, "w" + i);
+					}
+					else {
+						if ((tree.delete(k) == -1) == map.containsKey(k)) {
+							failure.compareAndSet(null, "delete " + k);
+						}
+						map.remove(k);
+					}
+				}
+			}));
+		}
+		for (int r = 0; r < READERS; r++) {
+			int reader = r;
+			threads.add(new Thread(() -> {
+				await(start);
+				Random random = new Random(100 + reader);
+				while (!done.get() && failure.get() == null) {
+					int k = 2 * random.nextInt(EVEN_KEYS);
+					String expected = (k % 4 == 0) ? "v" + k : null;
+					String value = tree.search(k);
+					if ((expected == null) ? value != null : !expected.equals(value)) {
+						failure.compareAndSet(null, "search(" + k + ") returned " + value);
+					}
+					if (!"min".equals(tree.min())) {
+						failure.compareAndSet(null, "min() was wrong");
+					}
+					if (!"max".equals(tree.max())) {
+						failure.compareAndSet(null, "max() was wrong");
+					}
+					reads.incrementAndGet();
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads.subList(0, WRITERS)) {
+			thread.join();
+		}
+		done.set(true);
+		for (Thread thread : threads.subList(WRITERS, threads.size())) {
+			thread.join();
+		}
+		assertNull(failure.get());
+		assertTrue(reads.get() > 0);
+
+		// The writes of all the writers, and the fixed keys, are all there
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int k = 0; k < 2 * EVEN_KEYS; k += 4) {
+			map.put(k, "v" + k);
+		}
+		map.put(-2, "min");
+		map.put(4 * EVEN_KEYS, "max");
+		for (TreeMap<Integer, String> m : written) {
+			map.putAll(m);
+		}
+		assertEquals(map.size(), tree.size());
+		assertArrayEquals(map.keySet().stream().mapToInt(Integer::intValue).toArray(), tree.keysToArray());
+		assertArrayEquals(map.values().toArray(new String[0]), tree.infoToArray());
+	}
+
+	@Test
+	void singleThreadedMatchesTreeMap() {
+		Random random = new Random(1);
+		ConcurrentAVLTree tree = new ConcurrentAVLTree();
+		TreeMap<Integer, String> map = new TreeMap<>();
+		assertNull(tree.min());
+		for (int i = 0; i < 20_000; i++) {
+			int k = random.nextInt(3_000);
+			switch (random.nextInt(3)) {
+				case 0:
+					assertEquals(map.get(k), tree.search(k));
+					break;
+				case 1:
+					assertEquals(map.containsKey(k), tree.insert(k, "v" + i) == -1);
+					map.putIfAbsent(k, "v" + i);
+					break;
+				default:
+					assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+					map.remove(k);
+			}
+		}
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.firstEntry().getValue(), tree.min());
+		assertEquals(map.lastEntry().getValue(), tree.max());
+		assertArrayEquals(map.keySet().stream().mapToInt(Integer::intValue).toArray(), tree.keysToArray());
+	}
+
+	@Test
+	void constructorRejectsTreesWithACacheOrMetrics() {
+		AVLTree cached = new AVLTree();
+		cached.enableSearchCache(16);
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrentAVLTree(cached));
+
+		AVLTree measured = new AVLTree();
+		measured.enableMetrics();
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrentAVLTree(measured));
+
+		AVLTree plain = new AVLTree();
+		plain.insert(1, "a");
+		assertEquals("a", new ConcurrentAVLTree(plain).search(1));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import avl.DurableAVLTree.SyncPolicy;
+
+/*
+ * Checks that DurableAVLTree recovers what it acknowledged: after a clean close under every SyncPolicy,
+ * after a crash (simulated by copying the files of an open tree), with a torn record at the end of the log,
+ * and after a crash between saving a snapshot and emptying the log. A corrupt record in the middle of the
+ * log must fail open() without touching the log.
+ */
+class DurableAVLTreeTest {
+	private static final List<SyncPolicy> POLICIES = List.of(SyncPolicy.EVERY_OPERATION, SyncPolicy.NEVER,
+			SyncPolicy.everyOperations(7), SyncPolicy.everyMillis(5), SyncPolicy.groupCommit(16, 5));
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void reopenRestoresTheTreeUnderEveryPolicy() throws IOException {
+		int round = 0;
+		for (SyncPolicy policy : POLICIES) {
+			Path directory = this.dir.resolve("policy" + round++);
+			TreeMap<Integer, String> map = new TreeMap<>();
+			Random random = new Random(round);
+			try (DurableAVLTree tree = DurableAVLTree.open(directory, policy)) {
+				randomOperations(tree, map, random, 2_000);
+			}
+			try (DurableAVLTree tree = DurableAVLTree.open(directory, policy)) {
+				check(tree, map);
+				tree.checkpoint();
+				assertEquals(0, Files.size(directory.resolve(DurableAVLTree.LOG_FILE)));
+				randomOperations(tree, map, random, 500); // On top of the snapshot
+			}
+			try (DurableAVLTree tree = DurableAVLTree.open(directory, policy)) {
+				check(tree, map);
+			}
+		}
+	}
+
+	@Test
+	void acknowledgedOperationsSurviveACrash() throws IOException {
+		Path directory = this.dir.resolve("tree");
+		TreeMap<Integer, String> map = new TreeMap<>();
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.EVERY_OPERATION)) {
+			randomOperations(tree, map, new Random(1), 300);
+			try (DurableAVLTree recovered = DurableAVLTree.open(crashCopy(directory), SyncPolicy.NEVER)) {
+				check(recovered, map);
+			}
+		}
+
+		// With a group of 10, only the operations of the complete groups are guaranteed
+		Path grouped = this.dir.resolve("grouped");
+		try (DurableAVLTree tree = DurableAVLTree.open(grouped, SyncPolicy.everyOperations(10))) {
+			for (int k = 0; k < 25; k++) {
+				tree.insert(k, "v" + k);
+			}
+			try (DurableAVLTree recovered = DurableAVLTree.open(crashCopy(grouped), SyncPolicy.NEVER)) {
+				assertEquals(20, recovered.size());
+			}
+			tree.sync();
+			try (DurableAVLTree recovered = DurableAVLTree.open(crashCopy(grouped), SyncPolicy.NEVER)) {
+				assertEquals(25, recovered.size());
+			}
+		}
+	}
+
+	@Test
+	void tornTailIsDiscarded() throws IOException {
+		Path directory = this.dir.resolve("tree");
+		TreeMap<Integer, String> map = insertRecords(directory, 100);
+		Path log = directory.resolve(DurableAVLTree.LOG_FILE);
+		long length = Files.size(log);
+		byte[] bytes = Files.readAllBytes(log);
+
+		// A record cut short, anywhere in it
+		for (int cut = 1; cut < recordBytes(99); cut++) {
+			Files.write(log, Arrays.copyOf(bytes, bytes.length - cut));
+			try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+				assertEquals(99, tree.size());
+				assertNull(tree.search(99));
+			}
+			assertEquals(length - recordBytes(99), Files.size(log)); // Cut right before the torn record
+		}
+
+		// The last record fully there, but garbled
+		byte[] garbled = bytes.clone();
+		garbled[garbled.length - 1] ^= 1;
+		Files.write(log, garbled);
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+			assertEquals(99, tree.size());
+		}
+
+		// A file that grew (with zeros) before the record was written
+		Files.write(log, Arrays.copyOf(bytes, bytes.length + 100));
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+			assertEquals(100, tree.size());
+			tree.insert(1_000, "after"); // Appended right after the last valid record
+		}
+		map.put(1_000, "after");
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+			check(tree, map);
+		}
+	}
+
+	@Test
+	void corruptRecordInTheMiddleFailsOpen() throws IOException {
+		Path directory = this.dir.resolve("tree");
+		insertRecords(directory, 100);
+		Path log = directory.resolve(DurableAVLTree.LOG_FILE);
+		byte[] bytes = Files.readAllBytes(log);
+		long middle = 0;
+		for (int k = 0; k < 50; k++) {
+			middle += recordBytes(k);
+		}
+		int[] offsets = {
+				(int) middle, // Length
+				(int) middle + 5, // CRC
+				(int) middle + DurableAVLTree.RECORD_HEADER_BYTES, // Operation
+				(int) middle + DurableAVLTree.RECORD_HEADER_BYTES + 3}; // Key
+		for (int offset : offsets) {
+			byte[] corrupt = bytes.clone();
+			corrupt[offset] ^= 0x40;
+			Files.write(log, corrupt);
+			assertThrows(IOException.class, () -> DurableAVLTree.open(directory, SyncPolicy.NEVER));
+			assertArrayEquals(corrupt, Files.readAllBytes(log)); // Nothing was cut
+		}
+	}
+
+	@Test
+	void crashBetweenSnapshotAndTruncateReplaysIdempotently() throws IOException {
+		Path directory = this.dir.resolve("tree");
+		Path log = directory.resolve(DurableAVLTree.LOG_FILE);
+		TreeMap<Integer, String> map = new TreeMap<>();
+		byte[] logged;
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.EVERY_OPERATION)) {
+			tree.insert(1, "a");
+			tree.delete(1);
+			tree.insert(1, "b"); // A key re-inserted with other info
+			tree.insert(2, "c");
+			tree.delete(2); // A key deleted for good
+			tree.insert(3, null);
+			map.put(1, "b");
+			map.put(3, null);
+			randomOperations(tree, map, new Random(5), 1_000);
+			logged = Files.readAllBytes(log);
+			tree.checkpoint();
+		}
+
+		// The snapshot was saved, but the log wasn't emptied
+		Files.write(log, logged);
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+			check(tree, map);
+		}
+	}
+
+	@Test
+	void nullAndEmptyInfoAreKept() throws IOException {
+		Path directory = this.dir.resolve("tree");
+		TreeMap<Integer, String> map = new TreeMap<>();
+		map.put(1, null);
+		map.put(2, "");
+		map.put(3, "é€🌳"); // Multi-byte UTF-8
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.EVERY_OPERATION)) {
+			for (Map.Entry<Integer, String> e : map.entrySet()) {
+				tree.insert(e.getKey(), e.getValue());
+			}
+		}
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.EVERY_OPERATION)) {
+			check(tree, map); // From the log
+			tree.checkpoint();
+		}
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.EVERY_OPERATION)) {
+			check(tree, map); // From the snapshot
+		}
+	}
+
+	/*
+	 * Makes n random inserts and deletes on tree (and the same on map).
+	 */
+	private static void randomOperations(DurableAVLTree tree, TreeMap<Integer, String> map, Random random, int n)
+			throws IOException {
+		for (int i = 0; i < n; i++) {
+			int k = random.nextInt(n);
+			if (random.nextInt(3) > 0) {
+				String info = "v" + i;
+				assertEquals(map.containsKey(k), tree.insert(k, info) == -1);
+				map.putIfAbsent(k, info);
+			}
+			else {
+				assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+				map.remove(k);
+			}
+		}
+	}
+
+	/*
+	 * Creates the tree of directory with inserts of the keys 0 to n - 1 (info "v" + key), closes it,
+	 * and returns its items.
+	 */
+	private static TreeMap<Integer, String> insertRecords(Path directory, int n) throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		try (DurableAVLTree tree = DurableAVLTree.open(directory, SyncPolicy.NEVER)) {
+			for (int k = 0; k < n; k++) {
+				tree.insert(k, "v" + k);
+				map.put(k, "v" + k);
+			}
+		}
+		return map;
+	}
+
+	/*
+	 * Returns the length of the log record inserting key k with info "v" + k.
+	 */
+	private static int recordBytes(int k) {
+		return DurableAVLTree.RECORD_HEADER_BYTES + 9 + ("v" + k).length();
+	}
+
+	/*
+	 * Returns a copy of the files of directory as they are on the disk now, as a crash would leave them.
+	 */
+	private Path crashCopy(Path directory) throws IOException {
+		Path copy = Files.createTempDirectory(this.dir, "crash");
+		for (String file : new String[] {DurableAVLTree.SNAPSHOT_FILE, DurableAVLTree.LOG_FILE}) {
+			if (Files.exists(directory.resolve(file))) {
+				Files.copy(directory.resolve(file), copy.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		return copy;
+	}
+
+	/*
+	 * Asserts that tree holds exactly the items of map.
+	 */
+	private static void check(DurableAVLTree tree, TreeMap<Integer, String> map) {
+		assertEquals(map.size(), tree.size());
+		assertEquals(map.isEmpty(), tree.empty());
+		assertArrayEquals(map.keySet().stream().mapToInt(Integer::intValue).toArray(), tree.keysToArray());
+		assertArrayEquals(map.values().toArray(new String[0]), tree.infoToArray());
+	}
+}
@@ -0,0 +1,124 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks the queries of FrozenAVLTree (as returned by AVLTree.freeze()) against a TreeMap, for an empty
+ * index and for sizes around the powers of 2, where the Eytzinger layout fills its last level exactly,
+ * misses one node of it, or starts a new one.
+ */
+class FrozenAVLTreeTest {
+
+	@Test
+	void queriesMatchTreeMapAroundPowersOfTwo() {
+		Random random = new Random(1);
+		for (int j = 0; j <= 12; j++) {
+			for (int n : new int[] {(1 << j) - 1, 1 << j, (1 << j) + 1}) {
+				TreeMap<Integer, String> map = new TreeMap<>();
+				AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, -2 * n, 4 * n + 1, "v", map);
+				check(tree.freeze(), map, random);
+				AVLTreeSetOperationsTest.check(tree, map); // freeze() leaves the tree as it was
+			}
+		}
+	}
+
+	@Test
+	void queriesMatchTreeMapAtRandomSizes() {
+		Random random = new Random(2);
+		for (int round = 0; round < 10; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>();
+			int n = random.nextInt(50_000);
+			AVLTree tree = AVLTreeSetOperationsTest.randomTree(random, n, Integer.MIN_VALUE / 2, Integer.MAX_VALUE,
+					"v", map);
+			check(tree.freeze(), map, random);
+		}
+	}
+
+	@Test
+	void emptyIndex() {
+		FrozenAVLTree index = new AVLTree().freeze();
+		assertTrue(index.empty());
+		assertEquals(0, index.size());
+		assertNull(index.search(0));
+		assertFalse(index.contains(-1));
+		assertEquals(0, index.rank(Integer.MAX_VALUE));
+		assertEquals(0, index.countInRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(0, index.keysInRange(Integer.MIN_VALUE, Integer.MAX_VALUE).length);
+		assertEquals(0, index.infoInRange(Integer.MIN_VALUE, Integer.MAX_VALUE).length);
+		assertNull(index.min());
+		assertNull(index.max());
+		assertThrows(NoSuchElementException.class, index::minKey);
+		assertThrows(NoSuchElementException.class, index::maxKey);
+		assertEquals(0, index.keysToArray().length);
+		assertTrue(index.toTree().empty());
+	}
+
+	/*
+	 * Asserts that index holds exactly the items of map, through every query, at keys in and
+	 * around the index and for random ranges (empty and reversed ones included).
+	 */
+	private static void check(FrozenAVLTree index, TreeMap<Integer, String> map, Random random) {
+		assertEquals(map.size(), index.size());
+		assertEquals(map.isEmpty(), index.empty());
+		int[] keys = map.keySet().stream().mapToInt(Integer::intValue).toArray();
+		String[] values = map.values().toArray(new String[0]);
+		assertArrayEquals(keys, index.keysToArray());
+		assertArrayEquals(values, index.infoToArray());
+		if (!map.isEmpty()) {
+			assertEquals(map.firstKey(), index.minKey());
+			assertEquals(map.lastKey(), index.maxKey());
+			assertEquals(map.firstEntry().getValue(), index.min());
+			assertEquals(map.lastEntry().getValue(), index.max());
+		}
+		for (int i = 0; i < keys.length; i++) {
+			int k = keys[i];
+			assertEquals(values[i], index.search(k));
+			assertTrue(index.contains(k));
+			assertEquals(i, index.rank(k));
+			if (k > Integer.MIN_VALUE && (i == 0 || keys[i - 1] != k - 1)) { // Just below k, and not in the index
+				assertNull(index.search(k - 1));
+				assertFalse(index.contains(k - 1));
+				assertEquals(i, index.rank(k - 1));
+			}
+			if (k < Integer.MAX_VALUE) {
+				assertEquals(i + 1, index.rank(k + 1));
+			}
+		}
+		for (int i = 0; i < 200; i++) {
+			int lo = randomKey(random, keys), hi = randomKey(random, keys);
+			if (lo > hi) {
+				assertEquals(0, index.countInRange(lo, hi));
+				assertEquals(0, index.keysInRange(lo, hi).length);
+				continue;
+			}
+			assertEquals(map.subMap(lo, hi).size(), index.countInRange(lo, hi));
+			assertArrayEquals(map.subMap(lo, hi).keySet().stream().mapToInt(Integer::intValue).toArray(),
+					index.keysInRange(lo, hi));
+			assertArrayEquals(map.subMap(lo, hi).values().toArray(new String[0]), index.infoInRange(lo, hi));
+		}
+		AVLTree tree = index.toTree();
+		AVLTreeSetOperationsTest.check(tree, map);
+	}
+
+	/*
+	 * Returns a key of keys, its neighbor, or a key beyond both ends.
+	 */
+	private static int randomKey(Random random, int[] keys) {
+		if (keys.length == 0 || random.nextInt(8) == 0) {
+			return random.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		}
+		int k = keys[random.nextInt(keys.length)];
+		return (random.nextBoolean() && k < Integer.MAX_VALUE) ? k + 1 : k;
+	}
+}
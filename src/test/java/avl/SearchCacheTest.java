@@ -0,0 +1,217 @@
+package avl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that the SearchCache of an AVLTree stays coherent with it: after random inserts and deletes,
+ * split(), splitAt(), subTree(), concatenate(), join(), the set operations and the bulk operations,
+ * every search() (hits included) must answer as a TreeMap of the items does. The searches are skewed
+ * towards a few hot keys, so that most of them are answered by the cache, and the capacity is small,
+ * so that entries are evicted all along.
+ */
+class SearchCacheTest {
+	private static final int KEYS = 2_000; // The keys are in [0, KEYS)
+
+	@Test
+	void searchesStayCoherentThroughUpdates() {
+		Random random = new Random(1);
+		for (int capacity : new int[] {1, 16, 4_096}) {
+			AVLTree tree = new AVLTree();
+			SearchCache cache = tree.enableSearchCache(capacity);
+			TreeMap<Integer, String> map = new TreeMap<>();
+			for (int i = 0; i < 100_000; i++) {
+				int k = hotKey(random);
+				switch (random.nextInt(4)) {
+					case 0:
+						String info = (i % 5 == 0) ? null : "v" + i;
+						assertEquals(map.containsKey(k), tree.insert(k, info) == -1);
+						if (!map.containsKey(k)) { // Not putIfAbsent(), which replaces null info
+							map.put(k, info);
+						}
+						break;
+					case 1:
+						assertEquals(!map.containsKey(k), tree.delete(k) == -1);
+						map.remove(k);
+						break;
+					default:
+						assertEquals(map.get(k), tree.search(k));
+				}
+			}
+			assertTrue(cache.hits() > 0);
+			assertTrue(cache.size() <= capacity);
+			checkSearches(tree, map, random);
+		}
+	}
+
+	@Test
+	void searchesStayCoherentThroughBulkOperations() {
+		Random random = new Random(2);
+		for (int round = 0; round < 60; round++) {
+			TreeMap<Integer, String> map = new TreeMap<>(), other = new TreeMap<>();
+			AVLTree tree = cachedTree(random, map, "a");
+			AVLTree t = cachedTree(random, other, "b");
+			switch (round % 10) {
+				case 0:
+					tree.union(t, random.nextBoolean());
+					other.putAll(map);
+					map = other;
+					break;
+				case 1:
+					tree.intersect(t, random.nextBoolean());
+					map.keySet().retainAll(other.keySet());
+					break;
+				case 2:
+					tree.difference(t, random.nextBoolean());
+					map.keySet().removeAll(other.keySet());
+					break;
+				case 3: { // The halves start without a cache, and the tree is left empty
+					int x = random.nextInt(KEYS);
+					AVLTree[] parts = tree.split(x);
+					checkSearches(parts[0], new TreeMap<>(map.headMap(x)), random);
+					checkSearches(parts[1], new TreeMap<>(map.tailMap(x, false)), random);
+					map.clear();
+					break;
+				}
+				case 4: {
+					int index = random.nextInt(map.size() + 1);
+					AVLTree[] parts = tree.splitAt(index);
+					TreeMap<Integer, String> first = new TreeMap<>(map.headMap(rankKey(map, index)));
+					checkSearches(parts[0], first, random);
+					map.keySet().removeAll(first.keySet());
+					checkSearches(parts[1], map, random);
+					map.clear();
+					break;
+				}
+				case 5: { // The tree keeps the items outside of the ranks
+					int from = random.nextInt(map.size() + 1), to = from + random.nextInt(map.size() - from + 1);
+					TreeMap<Integer, String> taken = new TreeMap<>(map.subMap(rankKey(map, from), rankKey(map, to)));
+					checkSearches(tree.subTree(from, to), taken, random);
+					map.keySet().removeAll(taken.keySet());
+					break;
+				}
+				case 6: { // The items of a cached tree moved into another one
+					AVLTree high = new AVLTree();
+					high.enableSearchCache(64);
+					TreeMap<Integer, String> highMap = new TreeMap<>();
+					for (int k = KEYS; k < KEYS + 100; k++) {
+						high.insert(k, "h" + k);
+						highMap.put(k, "h" + k);
+						high.search(k);
+					}
+					tree.concatenate(high);
+					map.putAll(highMap);
+					checkSearches(high, new TreeMap<>(), random);
+					break;
+				}
+				case 7: {
+					int[] keys = new int[200];
+					for (int i = 0; i < keys.length; i++) {
+						keys[i] = hotKey(random);
+						map.remove(keys[i]);
+					}
+					tree.deleteAll(keys, random.nextBoolean());
+					break;
+				}
+				case 8: {
+					int[] keys = new int[200];
+					String[] values = new String[keys.length];
+					for (int i = 0; i < keys.length; i++) {
+						keys[i] = hotKey(random);
+						values[i] = "n" + i;
+					}
+					tree.insertAll(keys, values, random.nextBoolean());
+					for (int i = 0; i < keys.length; i++) {
+						map.putIfAbsent(keys[i], values[i]);
+					}
+					break;
+				}
+				default: { // Split, and join back into the higher half (which join() picks)
+					int x = map.ceilingKey(random.nextInt(map.lastKey() + 1)); // A key of the tree
+					AVLTree[] parts = tree.split(x);
+					parts[0].enableSearchCache(8);
+					parts[1].enableSearchCache(8);
+					checkSearches(parts[0], new TreeMap<>(map.headMap(x)), random);
+					checkSearches(parts[1], new TreeMap<>(map.tailMap(x, false)), random);
+					parts[0].join(parts[0].new AVLNode(x, "x", parts[0].VIRTUAL_NODE, parts[0].VIRTUAL_NODE, null),
+							parts[1]);
+					map.put(x, "x");
+					AVLTree joined = (parts[0].size() > parts[1].size()) ? parts[0] : parts[1];
+					checkSearches(joined, map, random);
+					continue;
+				}
+			}
+			checkSearches(tree, map, random);
+		}
+	}
+
+	@Test
+	void nullInfoIsNotCached() {
+		AVLTree tree = new AVLTree();
+		SearchCache cache = tree.enableSearchCache(16);
+		tree.insert(1, null);
+		assertNull(tree.search(1));
+		assertNull(tree.search(1));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.hits());
+	}
+
+	/*
+	 * Returns a tree with a small cache and about half of the keys, with info prefix + key,
+	 * adds them to map, and warms its cache with skewed searches.
+	 */
+	private static AVLTree cachedTree(Random random, TreeMap<Integer, String> map, String prefix) {
+		AVLTree tree = new AVLTree();
+		tree.enableSearchCache(32);
+		for (int i = 0; i < KEYS / 2; i++) {
+			int k = random.nextInt(KEYS);
+			tree.insert(k, prefix + k);
+			map.putIfAbsent(k, prefix + k);
+		}
+		for (int i = 0; i < 1_000; i++) {
+			tree.search(hotKey(random));
+		}
+		return tree;
+	}
+
+	/*
+	 * Asserts that search() answers as map for every hot key (twice, so that the second may hit) and for
+	 * random keys, and that the items of tree are those of map.
+	 */
+	private static void checkSearches(AVLTree tree, TreeMap<Integer, String> map, Random random) {
+		for (int k = 0; k < 64; k++) {
+			assertEquals(map.get(k), tree.search(k));
+			assertEquals(map.get(k), tree.search(k));
+		}
+		for (int i = 0; i < 500; i++) {
+			int k = random.nextInt(KEYS + 200);
+			assertEquals(map.get(k), tree.search(k));
+		}
+		AVLTreeSetOperationsTest.check(tree, map);
+	}
+
+	/*
+	 * Returns a key in [0, KEYS), mostly one of the 64 hot ones.
+	 */
+	private static int hotKey(Random random) {
+		return (random.nextInt(10) < 8) ? random.nextInt(64) : random.nextInt(KEYS);
+	}
+
+	/*
+	 * Returns the key of rank index in map, or KEYS + 1_000 (past every key) if index is its size.
+	 */
+	private static int rankKey(TreeMap<Integer, String> map, int index) {
+		for (int k : map.keySet()) {
+			if (index-- == 0) {
+				return k;
+			}
+		}
+		return KEYS + 1_000;
+	}
+}